@@ -0,0 +1,11 @@
+package javaweb.task_management_system.configs;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// spring.task.scheduling.pool.size gives every @Scheduled method its own thread (7 today), so a long nightly job
+// never delays the outbox relay, the stream poll or the token revocation reload. Keep it in step when adding a job.
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,15 +1,15 @@
 package javaweb.task_management_system.configs;
 
 
-import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
-import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
 import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import jakarta.servlet.DispatcherType;
 import javaweb.task_management_system.exceptions.RestAuthenticationEntryPoint;
 import javaweb.task_management_system.utility.JwtCookieFilter;
-import javaweb.task_management_system.utility.RSAKeyProperties;
+import javaweb.task_management_system.utility.JwtKeys;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -20,8 +20,11 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.web.SecurityFilterChain;
@@ -32,12 +35,12 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @EnableMethodSecurity
 public class SecurityConfig {
 
-    private final RSAKeyProperties keys;
+    private final JwtKeys keys;
     private final JwtCookieFilter jwtCookieFilter;
     private final RestAuthenticationEntryPoint error;
 
     @Autowired
-    public SecurityConfig(RSAKeyProperties keys, @Lazy JwtCookieFilter jwtCookieFilter, RestAuthenticationEntryPoint error) {
+    public SecurityConfig(JwtKeys keys, @Lazy JwtCookieFilter jwtCookieFilter, RestAuthenticationEntryPoint error) {
         this.keys = keys;
         this.jwtCookieFilter = jwtCookieFilter;
         this.error = error;
@@ -49,8 +52,10 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .exceptionHandling(ex -> ex.authenticationEntryPoint(error)) // Handle auth errors
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/api/auth/register", "/api/auth/login", "/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll()// Public endpoints
-                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        // the async dispatch that finishes a streamed response was already authorized on the original request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers("/api/auth/register", "/api/auth/login", "/api/auth/refresh", "/api/auth/logout", "/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html", "/.well-known/jwks.json").permitAll()// Public endpoints
+                        .requestMatchers("/api/admin/**", "/actuator/**").hasRole("ADMIN")
                         .requestMatchers("/api/**").hasAnyRole("ADMIN", "USER", "PROJECT_OWNER")
                         .anyRequest().authenticated()
                 )
@@ -61,16 +66,23 @@ public class SecurityConfig {
     }
 
 
+    // Tokens are checked against every verification key; the kid header picks the key when it is present
     @Bean
     public JwtDecoder jwtDecoder() {
-        return NimbusJwtDecoder.withPublicKey(keys.getPublicKey()).build();
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(keys.getVerificationAlgorithms(), new ImmutableJWKSet<>(keys.getVerificationKeys())));
+        // claims are validated by NimbusJwtDecoder itself
+        processor.setJWTClaimsSetVerifier((claims, context) -> {});
+        return new NimbusJwtDecoder(processor);
     }
 
+    // Signs with the active key only; its kid is written into every token header.
+    // NimbusJwtEncoder defaults to an RS256 header, so the configured algorithm is set on every token here.
     @Bean
     public JwtEncoder jwtEncoder() {
-        JWK jwk = new RSAKey.Builder(keys.getPublicKey()).privateKey(keys.getPrivateKey()).build();
-        JWKSource<SecurityContext> jwks = new ImmutableJWKSet<>(new JWKSet(jwk));
-        return new NimbusJwtEncoder(jwks);
+        NimbusJwtEncoder encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(keys.getSigningKey())));
+        JwsHeader header = JwsHeader.with(SignatureAlgorithm.from(keys.getAlgorithm().getName())).build();
+        return parameters -> encoder.encode(JwtEncoderParameters.from(header, parameters.getClaims()));
     }
 
     @Bean
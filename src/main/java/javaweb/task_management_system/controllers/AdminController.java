@@ -10,8 +10,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import javaweb.task_management_system.dtos.ActionSuccessResponse;
 import javaweb.task_management_system.dtos.AdminUserRequest;
+import javaweb.task_management_system.dtos.CounterDriftReportDTO;
+import javaweb.task_management_system.dtos.TemplateMigrationReportDTO;
 import javaweb.task_management_system.dtos.UserDTO;
 import javaweb.task_management_system.services.AdminServices;
+import javaweb.task_management_system.services.NotificationService;
+import javaweb.task_management_system.services.TaskProgressCounterRepairJob;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -24,10 +28,14 @@ import java.util.List;
 public class AdminController {
 
     private final AdminServices adminServices;
+    private final TaskProgressCounterRepairJob progressCounterRepairJob;
+    private final NotificationService notificationService;
 
     @Autowired
-    public AdminController(AdminServices adminServices) {
+    public AdminController(AdminServices adminServices, TaskProgressCounterRepairJob progressCounterRepairJob, NotificationService notificationService) {
         this.adminServices = adminServices;
+        this.progressCounterRepairJob = progressCounterRepairJob;
+        this.notificationService = notificationService;
     }
 
     @Operation(summary = "Delete a user by email", description = "This endpoint allows the admin to delete a user by their email address.")
@@ -78,4 +86,32 @@ public class AdminController {
         return ResponseEntity.ok(adminServices.revokeAdminRole(email));
     }
 
+    @Operation(summary = "Verify and repair task progress counters", description = "Recomputes the per-user task counts by status from the tasks table and fixes any counter that drifted.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Counters verified.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CounterDriftReportDTO.class))),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized",
+                    content = @Content(mediaType = "application/json")
+            ),
+    })
+    @PostMapping("/task-progress/verify")
+    public ResponseEntity<?> verifyTaskProgressCounters() {
+        return ResponseEntity.ok(progressCounterRepairJob.verifyAndRepair());
+    }
+
+    @Operation(summary = "Migrate notifications to templates", description = "Rewrites notifications stored as full text into a template code plus parameters. Safe to run again; rows that match no template keep their text.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Notifications migrated.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = TemplateMigrationReportDTO.class))),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized",
+                    content = @Content(mediaType = "application/json")
+            ),
+    })
+    @PostMapping("/notifications/migrate-templates")
+    public ResponseEntity<?> migrateNotificationTemplates() {
+        return ResponseEntity.ok(notificationService.migrateLegacyNotifications());
+    }
+
 }
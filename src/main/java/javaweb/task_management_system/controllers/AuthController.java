@@ -18,6 +18,7 @@ import javaweb.task_management_system.exceptions.ErrorResponse;
 import javaweb.task_management_system.models.UserEntity;
 import javaweb.task_management_system.services.AuthenticationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -30,11 +31,20 @@ import java.util.Map;
 public class AuthController {
 
 
+    private static final String ACCESS_TOKEN_COOKIE = "jwt";
+    private static final String REFRESH_TOKEN_COOKIE = "refresh_token";
+
     private final AuthenticationService authenticationService;
+    private final int accessTokenTtlSeconds;
+    private final int refreshTokenTtlSeconds;
 
     @Autowired
-    public AuthController(AuthenticationService authenticationService){
+    public AuthController(AuthenticationService authenticationService,
+                          @Value("${jwt.access-token.ttl-seconds:900}") int accessTokenTtlSeconds,
+                          @Value("${jwt.refresh-token.ttl-days:14}") int refreshTokenTtlDays){
         this.authenticationService = authenticationService;
+        this.accessTokenTtlSeconds = accessTokenTtlSeconds;
+        this.refreshTokenTtlSeconds = refreshTokenTtlDays * 24 * 60 * 60;
     }
 
     @Operation(summary = "Register a new user", description = "This endpoint registers a new user.")
@@ -52,7 +62,7 @@ public class AuthController {
         return ResponseEntity.ok(successResponse);
     }
 
-    @Operation(summary = "User login", description = "This endpoint allows a user to login with email and password by creating a RSA encrypted JWT token stored in cookies.")
+    @Operation(summary = "User login", description = "This endpoint allows a user to login with email and password. A short-lived signed JWT and a refresh token are stored in cookies.")
     @ApiResponses({
             @ApiResponse(
                     responseCode = "200",
@@ -78,16 +88,33 @@ public class AuthController {
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody @Valid LoginRequest user, HttpServletResponse response) {
         LoginResponseDTO successResponse = authenticationService.login(user.getEmail(), user.getPassword());
-        Cookie cookie = new Cookie("jwt", successResponse.getJwt());
-        cookie.setHttpOnly(true);
-        cookie.setPath("/");
-        cookie.setMaxAge(15 * 60);
-        response.addCookie(cookie);
+        addTokenCookies(response, successResponse);
 
         return ResponseEntity.ok(successResponse.getUser());
     }
 
-    @Operation(summary = "User logout", description = "This endpoint logs out the current user by invalidating the JWT cookie.")
+    @Operation(summary = "Refresh the session", description = "Exchanges the refresh token cookie for a new JWT and a new refresh token. Each refresh token can be used once; reusing one ends the session it belongs to.")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "New tokens were issued",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserDTO.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Refresh token missing, expired, revoked or already used",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@CookieValue(name = REFRESH_TOKEN_COOKIE, required = false) String refreshToken, HttpServletResponse response) {
+        LoginResponseDTO successResponse = authenticationService.refresh(refreshToken);
+        addTokenCookies(response, successResponse);
+
+        return ResponseEntity.ok(successResponse.getUser());
+    }
+
+    @Operation(summary = "User logout", description = "This endpoint logs out the current user by revoking the refresh token, and the JWT while it is still valid, and clearing their cookies. An expired JWT does not prevent logging out.")
     @ApiResponses({
             @ApiResponse(
                     responseCode = "200",
@@ -101,7 +128,7 @@ public class AuthController {
             ),
             @ApiResponse(
                     responseCode = "404",
-                    description = "Resource not found (authentication context or JWT not found)",
+                    description = "Resource not found (neither a JWT nor a refresh token cookie was sent)",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
             ),
             @ApiResponse(
@@ -111,16 +138,29 @@ public class AuthController {
             )
     })
     @PostMapping("/logout")
-    public ResponseEntity<?> logout(HttpServletResponse response) {
+    public ResponseEntity<?> logout(@CookieValue(name = ACCESS_TOKEN_COOKIE, required = false) String accessToken,
+                                    @CookieValue(name = REFRESH_TOKEN_COOKIE, required = false) String refreshToken,
+                                    HttpServletResponse response) {
 
-        Cookie jwtCookie = new Cookie("jwt", null);
-        jwtCookie.setHttpOnly(true);
-        jwtCookie.setPath("/");
-        jwtCookie.setMaxAge(0);
-        response.addCookie(jwtCookie);
+        response.addCookie(tokenCookie(ACCESS_TOKEN_COOKIE, null, "/", 0));
+        response.addCookie(tokenCookie(REFRESH_TOKEN_COOKIE, null, "/api/auth", 0));
 
-        ActionSuccessResponse responseStatus = authenticationService.logout();
+        ActionSuccessResponse responseStatus = authenticationService.logout(accessToken, refreshToken);
         return ResponseEntity.ok(responseStatus);
     }
 
+    // The refresh token is only sent to /api/auth, where it is exchanged or revoked
+    private void addTokenCookies(HttpServletResponse response, LoginResponseDTO tokens) {
+        response.addCookie(tokenCookie(ACCESS_TOKEN_COOKIE, tokens.getJwt(), "/", accessTokenTtlSeconds));
+        response.addCookie(tokenCookie(REFRESH_TOKEN_COOKIE, tokens.getRefreshToken(), "/api/auth", refreshTokenTtlSeconds));
+    }
+
+    private Cookie tokenCookie(String name, String value, String path, int maxAge) {
+        Cookie cookie = new Cookie(name, value);
+        cookie.setHttpOnly(true);
+        cookie.setPath(path);
+        cookie.setMaxAge(maxAge);
+        return cookie;
+    }
+
 }
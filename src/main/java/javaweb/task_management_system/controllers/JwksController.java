@@ -0,0 +1,43 @@
+package javaweb.task_management_system.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import javaweb.task_management_system.utility.JwtKeys;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/.well-known")
+public class JwksController {
+
+    private final JwtKeys jwtKeys;
+
+    @Autowired
+    public JwksController(JwtKeys jwtKeys) {
+        this.jwtKeys = jwtKeys;
+    }
+
+    @Operation(summary = "Token verification keys", description = "Returns the public keys tokens issued by this service can be verified with, as a JSON Web Key Set. Keys are matched on the kid header of a token.")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "JSON Web Key Set",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    @GetMapping("/jwks.json")
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(jwtKeys.getVerificationKeys().toJSONObject());
+    }
+}
@@ -5,12 +5,19 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import javaweb.task_management_system.dtos.ActionSuccessResponse;
+import javaweb.task_management_system.dtos.CursorPage;
 import javaweb.task_management_system.exceptions.ErrorResponse;
 import javaweb.task_management_system.services.NotificationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
 import java.util.*;
 
 
@@ -32,7 +39,7 @@ public class NotificationController {
         this.notificationService = notificationService;
     }
 
-    @Operation(summary = "Get notifications for the current user", description = "Retrieve all notifications for the logged-in user.")
+    @Operation(summary = "Get notifications for the current user", description = "Retrieve the notifications of the logged-in user, newest first, one page at a time. Pass the returned 'next' cursor to get the following page, and unreadOnly=true to list only unread notifications.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Notifications retrieved successfully",
                     content = @Content(mediaType = "application/json",
@@ -46,11 +53,34 @@ public class NotificationController {
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
     })
     @GetMapping
-    public ResponseEntity<List<NotificationDTO>> getNotificationsForUser() {
-        List<NotificationDTO> notifications = notificationService.getNotificationsForUser();
+    public ResponseEntity<CursorPage<NotificationDTO>> getNotificationsForUser(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "false") boolean unreadOnly) {
+        CursorPage<NotificationDTO> notifications = notificationService.getNotificationsForUser(cursor, limit, unreadOnly);
         return ResponseEntity.ok(notifications);
     }
 
+    @Operation(summary = "Stream notifications", description = "Opens a Server-Sent Events stream that pushes 'notification' events as notifications are created and 'unread-count' events with the new unread count. On reconnect the browser sends Last-Event-ID and the notifications created since then are replayed; when more were missed than one replay holds, a 'resync' event tells the client to reload its inbox.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Stream opened",
+                    content = @Content(mediaType = "text/event-stream")),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(responseCode = "503", description = "This node already serves the maximum number of streams, retry later",
+                    content = @Content(mediaType = "application/json"))
+    })
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamNotifications(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return notificationService.openStream(lastEventId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build());
+    }
+
     @Operation(summary = "Mark a notification as read", description = "Marks a specific notification as read by its ID.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Notification marked as read",
@@ -101,5 +131,41 @@ public class NotificationController {
     public ResponseEntity<?> deleteNotification(@PathVariable Long notificationId) {
         return ResponseEntity.ok(notificationService.deleteNotification(notificationId));
     }
+
+    @Operation(summary = "Mark all notifications as read", description = "Marks every unread notification of the current user as read in one statement. Pass upToId to only mark that notification and the ones older than it.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Notifications marked as read, returns how many were updated",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(responseCode = "404", description = "Notification given as upToId not found",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+    })
+    @PatchMapping("/read-all")
+    public ResponseEntity<?> markAllAsRead(@RequestParam(required = false) Long upToId) {
+        int updatedCount = notificationService.markAllNotificationsAsRead(upToId);
+        return ResponseEntity.ok(Map.of("updatedCount", updatedCount));
+    }
+
+    @Operation(summary = "Delete notifications in bulk", description = "Deletes the current user's read notifications in one statement. Pass olderThan to only delete notifications created before that time, and readOnly=false to include unread ones.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Notifications deleted, returns how many were removed",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    @DeleteMapping("/delete")
+    public ResponseEntity<?> deleteNotifications(
+            @RequestParam(defaultValue = "true") boolean readOnly,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime olderThan) {
+        int deletedCount = notificationService.deleteNotifications(readOnly, olderThan);
+        return ResponseEntity.ok(Map.of("deletedCount", deletedCount));
+    }
 }
 
@@ -8,14 +8,19 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import javaweb.task_management_system.dtos.ActionSuccessResponse;
+import javaweb.task_management_system.dtos.CursorPage;
 import javaweb.task_management_system.dtos.ProjectDetailsDTO;
+import javaweb.task_management_system.dtos.TaskDetailsDTO;
 import javaweb.task_management_system.exceptions.ErrorResponse;
 import javaweb.task_management_system.models.ProjectEntity;
+import javaweb.task_management_system.services.DataVersionService;
 import javaweb.task_management_system.services.ProjectService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -25,10 +30,12 @@ import java.util.List;
 public class ProjectController {
 
     private final ProjectService projectService;
+    private final DataVersionService dataVersionService;
 
     @Autowired
-    public ProjectController(ProjectService projectService) {
+    public ProjectController(ProjectService projectService, DataVersionService dataVersionService) {
         this.projectService = projectService;
+        this.dataVersionService = dataVersionService;
     }
 
     @Operation(summary = "Add a new project", description = "This endpoint adds a new project to the system.")
@@ -77,10 +84,11 @@ public class ProjectController {
         return projectService.updateProject(projectId, updatedProject);
     }
 
-    @Operation(summary = "Get projects for the current user", description = "Retrieve all projects assigned to the logged-in user.")
+    @Operation(summary = "Get projects for the current user", description = "Retrieve the projects owned by the logged-in user, one page at a time. Pass the returned 'next' cursor to get the following page.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Projects retrieved successfully",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProjectDetailsDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Nothing changed since the ETag sent in If-None-Match", content = @Content),
             @ApiResponse(
                     responseCode = "401",
                     description = "Unauthorized",
@@ -88,10 +96,36 @@ public class ProjectController {
             )
     })
     @GetMapping("/details")
-    public ResponseEntity<List<ProjectDetailsDTO>> getProjectsForCurrentUser() {
-        List<ProjectDetailsDTO> projects = projectService.getProjectsForCurrentUserWithTasks();
+    public ResponseEntity<CursorPage<ProjectDetailsDTO>> getProjectsForCurrentUser(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            WebRequest request) {
+        if (request.checkNotModified(dataVersionService.getCurrentETag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        CursorPage<ProjectDetailsDTO> projects = projectService.getProjectsForCurrentUserWithTasks(cursor, limit);
         return ResponseEntity.ok(projects);
     }
 
-
+    @Operation(summary = "Get the tasks of a project", description = "Retrieve the tasks of a project owned by the logged-in user, one page at a time. /details embeds the first tasks of every project and returns 'tasksNext' when there are more; pass it here as the cursor to continue.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Tasks retrieved successfully",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = TaskDetailsDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Nothing changed since the ETag sent in If-None-Match", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Project not found",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "401", description = "User not authorized to view this project",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping("/{projectId}/tasks")
+    public ResponseEntity<CursorPage<TaskDetailsDTO>> getTasksForProject(
+            @PathVariable Long projectId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            WebRequest request) {
+        if (request.checkNotModified(dataVersionService.getCurrentETag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok(projectService.getTasksForProject(projectId, cursor, limit));
+    }
 }
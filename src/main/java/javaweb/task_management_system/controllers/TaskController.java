@@ -8,15 +8,27 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import javaweb.task_management_system.dtos.ActionSuccessResponse;
+import javaweb.task_management_system.dtos.CursorPage;
+import javaweb.task_management_system.dtos.ExportFormat;
+import javaweb.task_management_system.dtos.TaskBatchRequest;
 import javaweb.task_management_system.dtos.TaskDetailsDTO;
+import javaweb.task_management_system.dtos.TaskProgressDTO;
+import javaweb.task_management_system.dtos.TaskStatusBatchRequest;
 import javaweb.task_management_system.exceptions.ErrorResponse;
 import javaweb.task_management_system.models.TaskEntity;
+import javaweb.task_management_system.services.DataVersionService;
+import javaweb.task_management_system.services.TaskExportService;
 import javaweb.task_management_system.services.TaskService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -28,10 +40,14 @@ import java.util.List;
 public class TaskController {
 
     private final TaskService taskService;
+    private final TaskExportService taskExportService;
+    private final DataVersionService dataVersionService;
 
     @Autowired
-    public TaskController(TaskService taskService) {
+    public TaskController(TaskService taskService, TaskExportService taskExportService, DataVersionService dataVersionService) {
         this.taskService = taskService;
+        this.taskExportService = taskExportService;
+        this.dataVersionService = dataVersionService;
     }
 
     @Operation(summary = "Add a new task", description = "This endpoint adds a new task to the system.")
@@ -57,6 +73,39 @@ public class TaskController {
         return taskService.addTask(task);
     }
 
+    @Operation(summary = "Add tasks in bulk", description = "This endpoint adds up to 5000 tasks in a single transaction, validating every referenced project, status and assignee.")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Tasks added successfully",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ActionSuccessResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid request (empty or too many tasks)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized (invalid credentials)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Forbidden (access denied)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Project, status or assignee not found",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @PostMapping("/batch")
+    public ActionSuccessResponse addTasks(@RequestBody @Valid TaskBatchRequest request) {
+        return taskService.addTasks(request.getTasks());
+    }
+
     @Operation(summary = "Delete a task", description = "This endpoint deletes a task by its ID.")
     @ApiResponses({
             @ApiResponse(
@@ -103,13 +152,18 @@ public class TaskController {
         return taskService.updateTask(taskId, updatedTask);
     }
 
-    @Operation(summary = "Get tasks for the current user", description = "Retrieve all tasks assigned to the logged-in user.")
+    @Operation(summary = "Get tasks for the current user", description = "Retrieve the tasks assigned to the logged-in user, one page at a time. Pass the returned 'next' cursor to get the following page.")
     @ApiResponses({
             @ApiResponse(
                     responseCode = "200",
                     description = "Tasks retrieved successfully",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = TaskDetailsDTO.class))
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Nothing changed since the ETag sent in If-None-Match",
+                    content = @Content
+            ),
             @ApiResponse(
                     responseCode = "401",
                     description = "Unauthorized (invalid credentials)",
@@ -117,8 +171,14 @@ public class TaskController {
             )
     })
     @GetMapping("/details")
-    public ResponseEntity<List<TaskDetailsDTO>> getTasksForCurrentUser() {
-        List<TaskDetailsDTO> tasks = taskService.getTasksForCurrentUser();
+    public ResponseEntity<CursorPage<TaskDetailsDTO>> getTasksForCurrentUser(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            WebRequest request) {
+        if (request.checkNotModified(dataVersionService.getCurrentETag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        CursorPage<TaskDetailsDTO> tasks = taskService.getTasksForCurrentUser(cursor, limit);
         return ResponseEntity.ok(tasks);
     }
 
@@ -144,7 +204,36 @@ public class TaskController {
         return taskService.updateTaskStatus(taskId, updatedTaskStatusId);
     }
 
-    @Operation(summary = "Get filtered tasks", description = "Retrieve tasks filtered by project, status, or due date for the current user.")
+    @Operation(summary = "Update the status of many tasks", description = "This endpoint moves every given task to the same status. The caller must be assigned to all of them.")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Tasks status updated successfully",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ActionSuccessResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid request (empty or too many task ids, or not assigned to every task)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized (invalid credentials)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Status not found",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    @PatchMapping("/update-status")
+    public ActionSuccessResponse updateTasksStatus(@RequestBody @Valid TaskStatusBatchRequest request) {
+        return taskService.updateTasksStatus(request.getTaskIds(), request.getStatusId());
+    }
+
+    @Operation(summary = "Get filtered tasks", description = "Retrieve tasks filtered by project, status, or due date for the current user, one page at a time. Pass the returned 'next' cursor to get the following page.")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     @ApiResponses({
             @ApiResponse(
@@ -159,23 +248,25 @@ public class TaskController {
             )
     })
     @GetMapping("/filtered")
-    public ResponseEntity<List<TaskDetailsDTO>> getFilteredTasks(
+    public ResponseEntity<CursorPage<TaskDetailsDTO>> getFilteredTasks(
             @RequestParam(required = false) String projectName,
             @RequestParam(required = false) Long statusId,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
 
-        List<TaskDetailsDTO> filteredTasks = taskService.getFilteredTasksForCurrentUser(projectName, statusId, dueDate);
+        CursorPage<TaskDetailsDTO> filteredTasks = taskService.getFilteredTasksForCurrentUser(projectName, statusId, dueDate, cursor, limit);
 
         return ResponseEntity.ok(filteredTasks);
     }
 
-    @Operation(summary = "Get task progress", description = "Retrieve the progress summary of tasks for the current user.")
+    @Operation(summary = "Get task progress", description = "Retrieve the progress summary of tasks for the current user, with a breakdown per status.")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     @ApiResponses({
             @ApiResponse(
                     responseCode = "200",
                     description = "Task progress retrieved successfully",
-                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ActionSuccessResponse.class))
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = TaskProgressDTO.class))
             ),
             @ApiResponse(
                     responseCode = "401",
@@ -184,9 +275,60 @@ public class TaskController {
             )
     })
     @GetMapping("/progress")
-    public ActionSuccessResponse getTaskProgress() {
+    public TaskProgressDTO getTaskProgress() {
         return taskService.getTasksProgress();
     }
 
+    @Operation(summary = "Export assigned tasks", description = "Streams every task assigned to the current user as NDJSON (default) or CSV, one task per line.")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Tasks streamed successfully",
+                    content = {@Content(mediaType = "application/x-ndjson"), @Content(mediaType = "text/csv")}
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized (invalid credentials or unsupported format)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTasks(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        return exportResponse("tasks", exportFormat, taskExportService.exportTasksForCurrentUser(exportFormat));
+    }
+
+    @Operation(summary = "Export project tasks", description = "Streams every task of a project owned by the current user as NDJSON (default) or CSV, one task per line.")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Tasks streamed successfully",
+                    content = {@Content(mediaType = "application/x-ndjson"), @Content(mediaType = "text/csv")}
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized (not the project owner or unsupported format)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Project not found",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping("/export/project/{projectId}")
+    public ResponseEntity<StreamingResponseBody> exportProjectTasks(@PathVariable Long projectId, @RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        return exportResponse("project-" + projectId + "-tasks", exportFormat, taskExportService.exportTasksForProject(projectId, exportFormat));
+    }
+
+    private ResponseEntity<StreamingResponseBody> exportResponse(String fileName, ExportFormat format, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "." + format.getExtension() + "\"")
+                .body(body);
+    }
+
 
 }
@@ -47,9 +47,10 @@ public class UserController {
             )
     })
     @DeleteMapping("/user/delete")
-    public ResponseEntity<ActionSuccessResponse> deleteUser() {
+    public ResponseEntity<ActionSuccessResponse> deleteUser(@CookieValue(name = "jwt", required = false) String accessToken) {
         ActionSuccessResponse response = userService.deleteUser();
-        authService.logout();
+        // the refresh tokens went with the user, only the access token is left to revoke
+        authService.logout(accessToken, null);
         return ResponseEntity.ok(response);
     }
 
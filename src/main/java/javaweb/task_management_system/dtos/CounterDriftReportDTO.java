@@ -0,0 +1,19 @@
+package javaweb.task_management_system.dtos;
+
+public class CounterDriftReportDTO {
+    private final long checkedCounters;
+    private final long driftedCounters;
+
+    public CounterDriftReportDTO(long checkedCounters, long driftedCounters) {
+        this.checkedCounters = checkedCounters;
+        this.driftedCounters = driftedCounters;
+    }
+
+    public long getCheckedCounters() {
+        return checkedCounters;
+    }
+
+    public long getDriftedCounters() {
+        return driftedCounters;
+    }
+}
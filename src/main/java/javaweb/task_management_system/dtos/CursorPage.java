@@ -0,0 +1,31 @@
+package javaweb.task_management_system.dtos;
+
+import java.util.List;
+import java.util.function.Function;
+
+public class CursorPage<T> {
+    private final List<T> items;
+    private final String next;
+
+    public CursorPage(List<T> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    // rows are expected to be fetched with limit + 1 so the extra row tells whether another page exists
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, String> cursorOf) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(items, cursorOf.apply(items.get(limit - 1)));
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNext() {
+        return next;
+    }
+}
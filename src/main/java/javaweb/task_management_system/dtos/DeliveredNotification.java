@@ -0,0 +1,35 @@
+package javaweb.task_management_system.dtos;
+
+import javaweb.task_management_system.models.NotificationTemplate;
+
+import java.time.LocalDateTime;
+
+// A notification written by the outbox relay, with the user it was written for
+public class DeliveredNotification {
+    private final Long recipientId;
+    private final NotificationDTO notification;
+
+    public DeliveredNotification(Long recipientId, NotificationDTO notification) {
+        this.recipientId = recipientId;
+        this.notification = notification;
+    }
+
+    // Used by the recent-notification queries the stream hubs poll
+    public DeliveredNotification(Long recipientId, Long id, NotificationTemplate template, String params, String content,
+                                 int count, boolean isRead, LocalDateTime createdAt) {
+        this(recipientId, new NotificationDTO(id, template, params, content, count, isRead, createdAt));
+    }
+
+    public DeliveredNotification(Long recipientId, Long id, NotificationTemplate template, String params,
+                                 int count, boolean isRead, LocalDateTime createdAt) {
+        this(recipientId, new NotificationDTO(id, template, params, count, isRead, createdAt));
+    }
+
+    public Long getRecipientId() {
+        return recipientId;
+    }
+
+    public NotificationDTO getNotification() {
+        return notification;
+    }
+}
@@ -5,15 +5,17 @@ public class LoginResponseDTO {
 
     private UserDTO user;
     private String jwt;
+    private String refreshToken;
 
 
     public LoginResponseDTO(){
         super();
     }
 
-    public LoginResponseDTO(UserDTO user, String jwt){
+    public LoginResponseDTO(UserDTO user, String jwt, String refreshToken){
         this.user = user;
         this.jwt = jwt;
+        this.refreshToken = refreshToken;
     }
 
     public UserDTO getUser(){
@@ -25,6 +27,10 @@ public class LoginResponseDTO {
         return this.jwt;
     }
 
+    public String getRefreshToken() {
+        return this.refreshToken;
+    }
+
     public void setUser(UserDTO user) {
         this.user = user;
     }
@@ -32,4 +38,8 @@ public class LoginResponseDTO {
     public void setJwt(String jwt) {
         this.jwt = jwt;
     }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
 }
@@ -1,21 +1,38 @@
 package javaweb.task_management_system.dtos;
 
 
+import javaweb.task_management_system.models.NotificationTemplate;
+
 import java.time.LocalDateTime;
 
 public class NotificationDTO {
     private Long id;
     private String content;
+    private int count;
     private boolean isRead;
     private LocalDateTime createdAt;
-    private UserDTO recipient;
 
-    public NotificationDTO(Long id, String content, boolean isRead, LocalDateTime createdAt, UserDTO recipient) {
+    public NotificationDTO(Long id, String content, boolean isRead, LocalDateTime createdAt) {
+        this(id, content, 1, isRead, createdAt);
+    }
+
+    // count is the number of updates merged into this notification by the coalescing window
+    public NotificationDTO(Long id, String content, int count, boolean isRead, LocalDateTime createdAt) {
         this.id = id;
         this.content = content;
+        this.count = count;
         this.isRead = isRead;
         this.createdAt = createdAt;
-        this.recipient = recipient;
+    }
+
+    // Used by the inbox queries: the text of template rows is rendered here, old rows still carry it in content
+    public NotificationDTO(Long id, NotificationTemplate template, String params, String content, int count, boolean isRead, LocalDateTime createdAt) {
+        this(id, template != null ? template.render(params) : content, count, isRead, createdAt);
+    }
+
+    // Used by the shared-event inbox, where every row is a template row
+    public NotificationDTO(Long id, NotificationTemplate template, String params, int count, boolean isRead, LocalDateTime createdAt) {
+        this(id, template.render(params), count, isRead, createdAt);
     }
 
     // Getters and setters
@@ -35,6 +52,14 @@ public class NotificationDTO {
         this.content = content;
     }
 
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
     public boolean isRead() {
         return isRead;
     }
@@ -50,12 +75,4 @@ public class NotificationDTO {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
-
-    public UserDTO getRecipient() {
-        return recipient;
-    }
-
-    public void setRecipient(UserDTO recipient) {
-        this.recipient = recipient;
-    }
 }
@@ -1,12 +1,23 @@
 package javaweb.task_management_system.dtos;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class ProjectDetailsDTO {
     private Long id;
     private String name;
     private String description;
-    private List<TaskDetailsDTO> tasks;
+    private List<TaskDetailsDTO> tasks = new ArrayList<>();
+    // cursor for /api/projects/{id}/tasks when the project has more tasks than are embedded
+    private String tasksNext;
+
+    public ProjectDetailsDTO() {}
+
+    public ProjectDetailsDTO(Long id, String name, String description) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+    }
 
     public Long getId() {
         return id;
@@ -40,5 +51,13 @@ public class ProjectDetailsDTO {
         this.tasks = tasks;
     }
 
+    public String getTasksNext() {
+        return tasksNext;
+    }
+
+    public void setTasksNext(String tasksNext) {
+        this.tasksNext = tasksNext;
+    }
+
 
 }
@@ -0,0 +1,25 @@
+package javaweb.task_management_system.dtos;
+
+public class StatusCountDTO {
+    private final Long statusId;
+    private final String status;
+    private final long count;
+
+    public StatusCountDTO(Long statusId, String status, long count) {
+        this.statusId = statusId;
+        this.status = status;
+        this.count = count;
+    }
+
+    public Long getStatusId() {
+        return statusId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
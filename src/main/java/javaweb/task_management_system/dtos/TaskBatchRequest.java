@@ -0,0 +1,32 @@
+package javaweb.task_management_system.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import javaweb.task_management_system.models.TaskEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TaskBatchRequest {
+
+    public static final int MAX_TASKS = 5000;
+
+    @NotEmpty(message = "At least one task is required")
+    @Size(max = MAX_TASKS, message = "At most " + MAX_TASKS + " tasks can be added at once")
+    private List<@Valid TaskEntity> tasks = new ArrayList<>();
+
+    public TaskBatchRequest(List<TaskEntity> tasks) {
+        this.tasks = tasks;
+    }
+
+    public TaskBatchRequest(){}
+
+    public List<TaskEntity> getTasks() {
+        return tasks;
+    }
+
+    public void setTasks(List<TaskEntity> tasks) {
+        this.tasks = tasks;
+    }
+}
@@ -9,10 +9,23 @@ public class TaskDetailsDTO {
     private String name;
     private String status;
     private List<String> assignedUsers = new ArrayList<>();
+    private Long projectId;
     private String projectName;
     private LocalDateTime dueDate;
     private String taskOwner;
 
+    public TaskDetailsDTO() {}
+
+    public TaskDetailsDTO(Long id, String name, String status, Long projectId, String projectName, String taskOwner, LocalDateTime dueDate) {
+        this.id = id;
+        this.name = name;
+        this.status = status;
+        this.projectId = projectId;
+        this.projectName = projectName;
+        this.taskOwner = taskOwner;
+        this.dueDate = dueDate;
+    }
+
     public LocalDateTime getDueDate() {
         return dueDate;
     }
@@ -29,6 +42,10 @@ public class TaskDetailsDTO {
         return name;
     }
 
+    public Long getProjectId() {
+        return projectId;
+    }
+
     public String getProjectName() {
         return projectName;
     }
@@ -53,6 +70,10 @@ public class TaskDetailsDTO {
         this.taskOwner = taskOwner;
     }
 
+    public void setProjectId(Long projectId) {
+        this.projectId = projectId;
+    }
+
     public void setProjectName(String projectName) {
         this.projectName = projectName;
     }
@@ -0,0 +1,38 @@
+package javaweb.task_management_system.dtos;
+
+import java.time.LocalDateTime;
+
+// One row per (task, assignee) pair, read in task id order by the export stream
+public class TaskExportRow {
+    private final Long id;
+    private final String name;
+    private final String status;
+    private final Long projectId;
+    private final String projectName;
+    private final String taskOwner;
+    private final LocalDateTime dueDate;
+    private final String assignee;
+
+    public TaskExportRow(Long id, String name, String status, Long projectId, String projectName, String taskOwner, LocalDateTime dueDate, String assignee) {
+        this.id = id;
+        this.name = name;
+        this.status = status;
+        this.projectId = projectId;
+        this.projectName = projectName;
+        this.taskOwner = taskOwner;
+        this.dueDate = dueDate;
+        this.assignee = assignee;
+    }
+
+    public TaskDetailsDTO toTaskDetails() {
+        return new TaskDetailsDTO(id, name, status, projectId, projectName, taskOwner, dueDate);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getAssignee() {
+        return assignee;
+    }
+}
@@ -0,0 +1,63 @@
+package javaweb.task_management_system.dtos;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public class TaskFilter {
+    private final Long assigneeId;
+    private final String projectName;
+    private final Long statusId;
+    private final LocalDateTime dueDate;
+    private final Collection<Long> projectIds;
+    private final Collection<Long> taskIds;
+
+    public TaskFilter(Long assigneeId, String projectName, Long statusId, LocalDateTime dueDate) {
+        this(assigneeId, projectName, statusId, dueDate, null, null);
+    }
+
+    private TaskFilter(Long assigneeId, String projectName, Long statusId, LocalDateTime dueDate, Collection<Long> projectIds,
+                       Collection<Long> taskIds) {
+        this.assigneeId = assigneeId;
+        this.projectName = projectName;
+        this.statusId = statusId;
+        this.dueDate = dueDate;
+        this.projectIds = projectIds;
+        this.taskIds = taskIds;
+    }
+
+    public static TaskFilter forAssignee(Long assigneeId) {
+        return new TaskFilter(assigneeId, null, null, null);
+    }
+
+    public static TaskFilter forProjects(Collection<Long> projectIds) {
+        return new TaskFilter(null, null, null, null, projectIds, null);
+    }
+
+    public static TaskFilter forTasks(Collection<Long> taskIds) {
+        return new TaskFilter(null, null, null, null, null, taskIds);
+    }
+
+    public Long getAssigneeId() {
+        return assigneeId;
+    }
+
+    public String getProjectName() {
+        return projectName;
+    }
+
+    public Long getStatusId() {
+        return statusId;
+    }
+
+    public LocalDateTime getDueDate() {
+        return dueDate;
+    }
+
+    public Collection<Long> getProjectIds() {
+        return projectIds;
+    }
+
+    public Collection<Long> getTaskIds() {
+        return taskIds;
+    }
+}
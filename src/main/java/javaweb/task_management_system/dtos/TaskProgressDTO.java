@@ -0,0 +1,37 @@
+package javaweb.task_management_system.dtos;
+
+import java.util.List;
+
+public class TaskProgressDTO {
+    private final String email;
+    private final long completed;
+    private final long pending;
+    private final List<StatusCountDTO> statuses;
+
+    public TaskProgressDTO(String email, long completed, long pending, List<StatusCountDTO> statuses) {
+        this.email = email;
+        this.completed = completed;
+        this.pending = pending;
+        this.statuses = statuses;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public long getPending() {
+        return pending;
+    }
+
+    public long getTotal() {
+        return completed + pending;
+    }
+
+    public List<StatusCountDTO> getStatuses() {
+        return statuses;
+    }
+}
@@ -0,0 +1,41 @@
+package javaweb.task_management_system.dtos;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TaskStatusBatchRequest {
+
+    @NotEmpty(message = "At least one task id is required")
+    @Size(max = TaskBatchRequest.MAX_TASKS, message = "At most " + TaskBatchRequest.MAX_TASKS + " tasks can be updated at once")
+    private List<@NotNull Long> taskIds = new ArrayList<>();
+
+    @NotNull(message = "Status id is required")
+    private Long statusId;
+
+    public TaskStatusBatchRequest(List<Long> taskIds, Long statusId) {
+        this.taskIds = taskIds;
+        this.statusId = statusId;
+    }
+
+    public TaskStatusBatchRequest(){}
+
+    public List<Long> getTaskIds() {
+        return taskIds;
+    }
+
+    public void setTaskIds(List<Long> taskIds) {
+        this.taskIds = taskIds;
+    }
+
+    public Long getStatusId() {
+        return statusId;
+    }
+
+    public void setStatusId(Long statusId) {
+        this.statusId = statusId;
+    }
+}
@@ -0,0 +1,19 @@
+package javaweb.task_management_system.dtos;
+
+public class TemplateMigrationReportDTO {
+    private final long checkedNotifications;
+    private final long migratedNotifications;
+
+    public TemplateMigrationReportDTO(long checkedNotifications, long migratedNotifications) {
+        this.checkedNotifications = checkedNotifications;
+        this.migratedNotifications = migratedNotifications;
+    }
+
+    public long getCheckedNotifications() {
+        return checkedNotifications;
+    }
+
+    public long getMigratedNotifications() {
+        return migratedNotifications;
+    }
+}
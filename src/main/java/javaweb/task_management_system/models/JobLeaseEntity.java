@@ -0,0 +1,35 @@
+package javaweb.task_management_system.models;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Lease of a scheduled job that must run on one node only; whoever moves locked_until forward owns the run
+@Entity
+@Table(name = "job_leases")
+public class JobLeaseEntity {
+
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    @Column(name = "locked_by", length = 128)
+    private String lockedBy;
+
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+
+    public JobLeaseEntity() {}
+
+    public String getName() {
+        return name;
+    }
+
+    public String getLockedBy() {
+        return lockedBy;
+    }
+
+    public LocalDateTime getLockedUntil() {
+        return lockedUntil;
+    }
+}
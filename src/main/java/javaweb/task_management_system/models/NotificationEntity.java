@@ -2,21 +2,35 @@ package javaweb.task_management_system.models;
 
 
 import jakarta.persistence.*;
-import jakarta.validation.constraints.NotBlank;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_user_created", columnList = "user_id, created_at DESC, id DESC"),
+        @Index(name = "idx_notifications_user_read_created", columnList = "user_id, is_read, created_at DESC, id DESC"),
+        @Index(name = "idx_notifications_created", columnList = "created_at, id")
+})
 public class NotificationEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notifications_seq")
+    @SequenceGenerator(name = "notifications_seq", sequenceName = "notifications_seq", allocationSize = 50)
     private Long id;
 
-    @NotBlank(message = "Notification content cannot be blank!")
+    @Column(name = "template")
+    private NotificationTemplate template;
+
+    @Column(name = "params")
+    private String params;
+
+    // Full text of rows written before templates existed, null for everything else
+    @Column(name = "content")
     private String content;
 
+    @Column(name = "occurrences", nullable = false)
+    private int occurrences = 1;
+
     @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
     private UserEntity recipient;
@@ -32,14 +46,32 @@ public class NotificationEntity {
     public NotificationEntity() {}
 
 
-    public NotificationEntity(String content, UserEntity recipient) {
-        this.content = content;
+    public NotificationEntity(UserEntity recipient, NotificationTemplate template, String... params) {
         this.recipient = recipient;
+        this.template = template;
+        this.params = NotificationTemplate.joinParams(params);
+    }
+
+    // Turns old free-text content into a template row; returns false when the text matches no template
+    public boolean migrateLegacyContent() {
+        if (content == null) {
+            return false;
+        }
+        return NotificationTemplate.parse(content)
+                .map(parsed -> {
+                    this.template = parsed.getTemplate();
+                    this.params = parsed.getParams();
+                    this.content = null;
+                    return true;
+                })
+                .orElse(false);
     }
 
     @PrePersist
     protected void onCreate(){
-        this.createdAt = LocalDateTime.now();
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
+        }
     }
 
 
@@ -52,7 +84,27 @@ public class NotificationEntity {
     }
 
     public String getContent() {
-        return content;
+        return template != null ? template.render(params) : content;
+    }
+
+    public NotificationTemplate getTemplate() {
+        return template;
+    }
+
+    public String getParams() {
+        return params;
+    }
+
+    public void setParams(String params) {
+        this.params = params;
+    }
+
+    public int getOccurrences() {
+        return occurrences;
+    }
+
+    public void setOccurrences(int occurrences) {
+        this.occurrences = occurrences;
     }
 
     public void setContent(String content) {
@@ -0,0 +1,59 @@
+package javaweb.task_management_system.models;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// One row per notified event in shared-event storage; recipients point at it through notification_recipients
+@Entity
+@Table(name = "notification_events", indexes = {
+        @Index(name = "idx_notification_events_created", columnList = "created_at, id")
+})
+public class NotificationEventEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_events_seq")
+    @SequenceGenerator(name = "notification_events_seq", sequenceName = "notification_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "template", nullable = false)
+    private NotificationTemplate template;
+
+    @Column(name = "params")
+    private String params;
+
+    @Column(name = "occurrences", nullable = false)
+    private int occurrences = 1;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public NotificationEventEntity() {}
+
+    public NotificationEventEntity(NotificationTemplate template, String params, int occurrences, LocalDateTime createdAt) {
+        this.template = template;
+        this.params = params;
+        this.occurrences = occurrences;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public NotificationTemplate getTemplate() {
+        return template;
+    }
+
+    public String getParams() {
+        return params;
+    }
+
+    public int getOccurrences() {
+        return occurrences;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,128 @@
+package javaweb.task_management_system.models;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Notification waiting to be materialized; written in the same transaction as the change that caused it.
+// Rows with a coalesce key are held until available_at so later updates of the same thing can be merged into them.
+// A row that fails to relay is pushed back through available_at, and dead-lettered after too many attempts; it is
+// then kept with its last error and skipped until dead_lettered_at is cleared.
+@Entity
+@Table(name = "notification_outbox", indexes = {
+        @Index(name = "idx_notification_outbox_coalesce", columnList = "user_id, coalesce_key"),
+        @Index(name = "idx_notification_outbox_claim", columnList = "dead_lettered_at, available_at, id")
+})
+public class NotificationOutboxEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_outbox_seq")
+    @SequenceGenerator(name = "notification_outbox_seq", sequenceName = "notification_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long recipientId;
+
+    @Column(name = "template", nullable = false)
+    private NotificationTemplate template;
+
+    @Column(name = "params")
+    private String params;
+
+    @Column(name = "coalesce_key", length = 64)
+    private String coalesceKey;
+
+    @Column(name = "occurrences", nullable = false)
+    private int occurrences = 1;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts = 0;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "dead_lettered_at")
+    private LocalDateTime deadLetteredAt;
+
+    public NotificationOutboxEntity() {}
+
+    public NotificationOutboxEntity(Long recipientId, NotificationTemplate template, String params) {
+        this.recipientId = recipientId;
+        this.template = template;
+        this.params = params;
+        this.createdAt = LocalDateTime.now();
+        this.availableAt = createdAt;
+    }
+
+    public NotificationOutboxEntity(Long recipientId, NotificationTemplate template, String params, String coalesceKey, LocalDateTime availableAt) {
+        this(recipientId, template, params);
+        this.coalesceKey = coalesceKey;
+        this.availableAt = availableAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getRecipientId() {
+        return recipientId;
+    }
+
+    public NotificationTemplate getTemplate() {
+        return template;
+    }
+
+    public String getParams() {
+        return params;
+    }
+
+    public String getCoalesceKey() {
+        return coalesceKey;
+    }
+
+    public int getOccurrences() {
+        return occurrences;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getAvailableAt() {
+        return availableAt;
+    }
+
+    public void setAvailableAt(LocalDateTime availableAt) {
+        this.availableAt = availableAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getDeadLetteredAt() {
+        return deadLetteredAt;
+    }
+
+    public void setDeadLetteredAt(LocalDateTime deadLetteredAt) {
+        this.deadLetteredAt = deadLetteredAt;
+    }
+}
@@ -0,0 +1,60 @@
+package javaweb.task_management_system.models;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Narrow link between a user and a shared notification event. created_at is copied from the event so the inbox
+// walks the link indexes by (created_at, event_id) without joining the event first; event ids come from a pooled
+// sequence and do not follow creation order across nodes.
+@Entity
+@IdClass(NotificationRecipientId.class)
+@Table(name = "notification_recipients", indexes = {
+        @Index(name = "idx_notification_recipients_user_created", columnList = "user_id, created_at DESC, event_id DESC"),
+        @Index(name = "idx_notification_recipients_unread", columnList = "user_id, is_read, created_at DESC, event_id DESC"),
+        @Index(name = "idx_notification_recipients_event", columnList = "event_id")
+})
+public class NotificationRecipientEntity {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Column(name = "is_read", nullable = false)
+    private boolean isRead = false;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public NotificationRecipientEntity() {}
+
+    public NotificationRecipientEntity(Long userId, Long eventId, LocalDateTime createdAt) {
+        this.userId = userId;
+        this.eventId = eventId;
+        this.createdAt = createdAt;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public boolean isRead() {
+        return isRead;
+    }
+
+    public void setRead(boolean read) {
+        isRead = read;
+    }
+}
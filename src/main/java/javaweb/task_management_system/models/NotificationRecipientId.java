@@ -0,0 +1,37 @@
+package javaweb.task_management_system.models;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class NotificationRecipientId implements Serializable {
+
+    private Long userId;
+    private Long eventId;
+
+    public NotificationRecipientId() {}
+
+    public NotificationRecipientId(Long userId, Long eventId) {
+        this.userId = userId;
+        this.eventId = eventId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof NotificationRecipientId other)) return false;
+        return Objects.equals(userId, other.userId) && Objects.equals(eventId, other.eventId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, eventId);
+    }
+}
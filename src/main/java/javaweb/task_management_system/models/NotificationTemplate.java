@@ -0,0 +1,123 @@
+package javaweb.task_management_system.models;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// A notification row stores one of these codes plus the changing parts of the message (a task or project name,
+// a status) instead of the whole sentence; the text is rendered when the notification is read.
+// Codes are persisted, so existing ones must never be renumbered.
+public enum NotificationTemplate {
+    TASK_ADDED(1, "Task: {0} has been added!"),
+    TASK_DELETED(2, "Task: {0} has been deleted!"),
+    TASK_UPDATED(3, "The task: {0} has been updated!"),
+    TASK_ASSIGNED(4, "You have been assigned to the task: {0}"),
+    TASK_UNASSIGNED(5, "You have been removed from the task: {0}"),
+    TASK_STATUS_UPDATED(6, "Task status updated"),
+    TASK_STATUS_CHANGED(7, "Task {0} status updated to {1}"),
+    PROJECT_ADDED(8, "Project: {0} has been added!"),
+    PROJECT_DELETED(9, "Project: {0} has been deleted!"),
+    PROJECT_UPDATED(10, "Project: {0} has been updated!"),
+    PROJECT_OWNER_GRANTED(11, "You are now the owner of the project: {0}"),
+    PROJECT_OWNER_REVOKED(12, "You are no longer the owner of the project: {0}");
+
+    // ASCII unit separator, never part of a name typed by a user
+    private static final String PARAM_SEPARATOR = "\u001F";
+
+    private final short code;
+    private final String text;
+    private final Pattern legacyPattern;
+
+    NotificationTemplate(int code, String text) {
+        this.code = (short) code;
+        this.text = text;
+        this.legacyPattern = toPattern(text);
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public String render(String params) {
+        String[] values = splitParams(params);
+        Matcher placeholder = Placeholders.PATTERN.matcher(text);
+        StringBuilder rendered = new StringBuilder();
+        while (placeholder.find()) {
+            int index = Integer.parseInt(placeholder.group(1));
+            placeholder.appendReplacement(rendered, Matcher.quoteReplacement(index < values.length ? values[index] : ""));
+        }
+        placeholder.appendTail(rendered);
+        return rendered.toString();
+    }
+
+    public static NotificationTemplate fromCode(short code) {
+        return Arrays.stream(values())
+                .filter(template -> template.code == code)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown notification template " + code));
+    }
+
+    public static String joinParams(String... params) {
+        if (params == null || params.length == 0) {
+            return null;
+        }
+        return String.join(PARAM_SEPARATOR, Arrays.stream(params)
+                .map(param -> param == null ? "" : param.replace(PARAM_SEPARATOR, ""))
+                .toList());
+    }
+
+    // Recognizes text written before templates existed; used by the migration of old rows
+    public static Optional<Parsed> parse(String content) {
+        for (NotificationTemplate template : values()) {
+            Matcher matcher = template.legacyPattern.matcher(content);
+            if (matcher.matches()) {
+                String[] params = new String[matcher.groupCount()];
+                for (int i = 0; i < params.length; i++) {
+                    params[i] = matcher.group(i + 1);
+                }
+                return Optional.of(new Parsed(template, joinParams(params)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static String[] splitParams(String params) {
+        return params == null ? new String[0] : params.split(PARAM_SEPARATOR, -1);
+    }
+
+    private static Pattern toPattern(String text) {
+        StringBuilder regex = new StringBuilder();
+        Matcher placeholder = Placeholders.PATTERN.matcher(text);
+        int literalStart = 0;
+        while (placeholder.find()) {
+            regex.append(Pattern.quote(text.substring(literalStart, placeholder.start()))).append("(.*)");
+            literalStart = placeholder.end();
+        }
+        regex.append(Pattern.quote(text.substring(literalStart)));
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    // Enum constants are built before the enum's own static fields, so the pattern lives in a holder class
+    private static class Placeholders {
+        private static final Pattern PATTERN = Pattern.compile("\\{(\\d)}");
+    }
+
+    public static class Parsed {
+        private final NotificationTemplate template;
+        private final String params;
+
+        private Parsed(NotificationTemplate template, String params) {
+            this.template = template;
+            this.params = params;
+        }
+
+        public NotificationTemplate getTemplate() {
+            return template;
+        }
+
+        public String getParams() {
+            return params;
+        }
+    }
+}
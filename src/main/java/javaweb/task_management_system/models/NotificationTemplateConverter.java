@@ -0,0 +1,19 @@
+package javaweb.task_management_system.models;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Stored as a SMALLINT code rather than the enum name to keep notification rows small
+@Converter(autoApply = true)
+public class NotificationTemplateConverter implements AttributeConverter<NotificationTemplate, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(NotificationTemplate template) {
+        return template == null ? null : template.getCode();
+    }
+
+    @Override
+    public NotificationTemplate convertToEntityAttribute(Short code) {
+        return code == null ? null : NotificationTemplate.fromCode(code);
+    }
+}
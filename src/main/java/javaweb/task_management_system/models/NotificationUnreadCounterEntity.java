@@ -0,0 +1,31 @@
+package javaweb.task_management_system.models;
+
+import jakarta.persistence.*;
+
+// Number of unread notifications of a user, adjusted in the same transaction as the notifications themselves
+@Entity
+@Table(name = "notification_unread_counters")
+public class NotificationUnreadCounterEntity {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "unread_count", nullable = false)
+    private long unreadCount;
+
+    public NotificationUnreadCounterEntity() {}
+
+    public NotificationUnreadCounterEntity(Long userId, long unreadCount) {
+        this.userId = userId;
+        this.unreadCount = unreadCount;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getUnreadCount() {
+        return unreadCount;
+    }
+}
@@ -11,11 +11,16 @@ import java.util.Set;
 
 
 @Entity
-@Table(name="tasks")
+@Table(name="tasks", indexes = {
+        @Index(name = "idx_tasks_project_status_due", columnList = "project_id, status_id, due_date"),
+        @Index(name = "idx_tasks_status_due", columnList = "status_id, due_date")
+})
 public class TaskEntity {
 
+    // sequence ids (a pooled table on MySQL) let Hibernate batch the inserts, IDENTITY forces one round trip per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_seq")
+    @SequenceGenerator(name = "tasks_seq", sequenceName = "tasks_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Tasks should have a name!")
@@ -37,7 +42,8 @@ public class TaskEntity {
     @JoinTable(
             name = "task_assignees",
             joinColumns = @JoinColumn(name = "task_id"),
-            inverseJoinColumns = @JoinColumn(name = "user_id")
+            inverseJoinColumns = @JoinColumn(name = "user_id"),
+            indexes = @Index(name = "idx_task_assignees_user_task", columnList = "user_id, task_id")
     )
     private Set<UserEntity> assignees = new HashSet<>();
 
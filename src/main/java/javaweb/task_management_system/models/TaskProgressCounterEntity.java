@@ -0,0 +1,44 @@
+package javaweb.task_management_system.models;
+
+import jakarta.persistence.*;
+
+@Entity
+@IdClass(TaskProgressCounterId.class)
+@Table(name = "task_progress_counters")
+public class TaskProgressCounterEntity {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "status_id")
+    private Long statusId;
+
+    @Column(name = "task_count", nullable = false)
+    private long taskCount;
+
+    public TaskProgressCounterEntity() {}
+
+    public TaskProgressCounterEntity(Long userId, Long statusId, long taskCount) {
+        this.userId = userId;
+        this.statusId = statusId;
+        this.taskCount = taskCount;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getStatusId() {
+        return statusId;
+    }
+
+    public long getTaskCount() {
+        return taskCount;
+    }
+
+    public void setTaskCount(long taskCount) {
+        this.taskCount = taskCount;
+    }
+}
@@ -0,0 +1,37 @@
+package javaweb.task_management_system.models;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class TaskProgressCounterId implements Serializable {
+
+    private Long userId;
+    private Long statusId;
+
+    public TaskProgressCounterId() {}
+
+    public TaskProgressCounterId(Long userId, Long statusId) {
+        this.userId = userId;
+        this.statusId = statusId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getStatusId() {
+        return statusId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TaskProgressCounterId other)) return false;
+        return Objects.equals(userId, other.userId) && Objects.equals(statusId, other.statusId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, statusId);
+    }
+}
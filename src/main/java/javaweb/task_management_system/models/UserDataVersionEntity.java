@@ -0,0 +1,31 @@
+package javaweb.task_management_system.models;
+
+import jakarta.persistence.*;
+
+// Bumped whenever a task or project visible to the user changes; the read endpoints derive their ETag from it
+@Entity
+@Table(name = "user_data_versions")
+public class UserDataVersionEntity {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    public UserDataVersionEntity() {}
+
+    public UserDataVersionEntity(Long userId, long version) {
+        this.userId = userId;
+        this.version = version;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
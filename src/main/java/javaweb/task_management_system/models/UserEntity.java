@@ -46,9 +46,6 @@ public class UserEntity {
     @ManyToMany(mappedBy = "assignees")
     private Set<TaskEntity> tasks = new HashSet<>();
 
-    @OneToMany(mappedBy = "recipient", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
-    private Set<NotificationEntity> notifications = new HashSet<>();
-
     public UserEntity (Long id, String name, String lastName, String email) {
         this.id = id;
         this.name = name;
@@ -62,10 +59,6 @@ public class UserEntity {
         return tasks;
     }
 
-    public Set<NotificationEntity> getNotifications() {
-        return notifications;
-    }
-
     public Long getId(){
         return id;
     }
@@ -117,4 +110,17 @@ public class UserEntity {
     public void setId(Long id) {
         this.id = id;
     }
+
+    // users are equal by id once persisted; the hash stays constant so it survives the id being assigned
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof UserEntity other)) return false;
+        return id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return UserEntity.class.hashCode();
+    }
 }
@@ -0,0 +1,23 @@
+package javaweb.task_management_system.repositories;
+
+import javaweb.task_management_system.models.JobLeaseEntity;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface JobLeaseRepository extends CrudRepository<JobLeaseEntity, String> {
+
+    // the row of a job is created, already expired, the first time any node asks for it
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO job_leases (name, locked_by, locked_until) VALUES (:name, NULL, :now)", nativeQuery = true)
+    int createIfAbsent(@Param("name") String name, @Param("now") LocalDateTime now);
+
+    // only one node can move an expired lease forward, the others update no row
+    @Modifying
+    @Query("UPDATE JobLeaseEntity l SET l.lockedBy = :owner, l.lockedUntil = :until WHERE l.name = :name AND l.lockedUntil <= :now")
+    int claim(@Param("name") String name, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+}
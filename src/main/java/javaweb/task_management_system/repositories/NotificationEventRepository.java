@@ -0,0 +1,33 @@
+package javaweb.task_management_system.repositories;
+
+import javaweb.task_management_system.models.NotificationEventEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface NotificationEventRepository extends CrudRepository<NotificationEventEntity, Long> {
+
+    // Walks idx_notification_events_created by (created_at, id) keyset
+    @Query("SELECT e.id AS id, e.createdAt AS createdAt FROM NotificationEventEntity e WHERE e.createdAt < :before " +
+            "ORDER BY e.createdAt, e.id")
+    List<NotificationRepository.ExpiredView> findExpired(@Param("before") LocalDateTime before, Limit limit);
+
+    @Query("SELECT e.id AS id, e.createdAt AS createdAt FROM NotificationEventEntity e WHERE e.createdAt < :before " +
+            "AND (e.createdAt > :createdAt OR (e.createdAt = :createdAt AND e.id > :id)) ORDER BY e.createdAt, e.id")
+    List<NotificationRepository.ExpiredView> findExpiredAfter(@Param("createdAt") LocalDateTime createdAt,
+                                                             @Param("id") Long id,
+                                                             @Param("before") LocalDateTime before,
+                                                             Limit limit);
+
+    // Events whose last recipient link is gone
+    @Modifying
+    @Query("DELETE FROM NotificationEventEntity e WHERE e.id IN :ids " +
+            "AND NOT EXISTS (SELECT 1 FROM NotificationRecipientEntity r WHERE r.eventId = e.id)")
+    int deleteUnreferenced(@Param("ids") Collection<Long> ids);
+}
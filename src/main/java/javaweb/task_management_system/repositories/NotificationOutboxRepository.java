@@ -0,0 +1,64 @@
+package javaweb.task_management_system.repositories;
+
+import jakarta.persistence.LockModeType;
+import javaweb.task_management_system.models.NotificationOutboxEntity;
+import javaweb.task_management_system.models.NotificationTemplate;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface NotificationOutboxRepository extends CrudRepository<NotificationOutboxEntity, Long> {
+
+    // rows locked by another relay are skipped, so several nodes can drain the outbox at the same time;
+    // rows still inside their coalescing window or retry backoff are left for a later poll.
+    // The claim walks idx_notification_outbox_claim in order, so it only locks the rows it returns and never takes
+    // gap locks on the pending rows that coalesce updates.
+    @Query(value = "SELECT * FROM notification_outbox WHERE dead_lettered_at IS NULL AND available_at <= :now " +
+            "ORDER BY available_at, id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<NotificationOutboxEntity> claimBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // Row by row relaying of a chunk that failed as a whole
+    @Query("SELECT o.id FROM NotificationOutboxEntity o WHERE o.deadLetteredAt IS NULL AND o.availableAt <= :now " +
+            "ORDER BY o.availableAt, o.id")
+    List<Long> findRelayableIds(@Param("now") LocalDateTime now, Limit limit);
+
+    @Query(value = "SELECT * FROM notification_outbox WHERE id = :id AND available_at <= :now AND dead_lettered_at IS NULL " +
+            "FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<NotificationOutboxEntity> claimById(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM NotificationOutboxEntity o WHERE o.id = :id")
+    Optional<NotificationOutboxEntity> findByIdForUpdate(@Param("id") Long id);
+
+    long countByDeadLetteredAtIsNull();
+
+    long countByDeadLetteredAtIsNotNull();
+
+    // Merges an update into the pending row of the same recipient, key and template while its window is open.
+    // Only rows the relay cannot claim yet match, so a merged update is never lost to a relay in progress.
+    @Modifying
+    @Query("UPDATE NotificationOutboxEntity o SET o.occurrences = o.occurrences + 1, o.params = :params, o.createdAt = :now " +
+            "WHERE o.recipientId = :recipientId AND o.coalesceKey = :coalesceKey AND o.template = :template AND o.availableAt > :now " +
+            "AND o.deadLetteredAt IS NULL")
+    int coalesce(@Param("recipientId") Long recipientId, @Param("coalesceKey") String coalesceKey,
+                 @Param("template") NotificationTemplate template, @Param("params") String params,
+                 @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM NotificationOutboxEntity o WHERE o.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM NotificationOutboxEntity o WHERE o.recipientId = :userId")
+    int deleteByRecipientId(@Param("userId") Long userId);
+}
@@ -0,0 +1,110 @@
+package javaweb.task_management_system.repositories;
+
+import javaweb.task_management_system.dtos.DeliveredNotification;
+import javaweb.task_management_system.dtos.NotificationDTO;
+import javaweb.task_management_system.models.NotificationRecipientEntity;
+import javaweb.task_management_system.models.NotificationRecipientId;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Shared-event storage: the inbox walks the link indexes by (created_at, event_id) keyset, newest first, and joins
+// the event row only for the page it returns
+public interface NotificationRecipientRepository extends CrudRepository<NotificationRecipientEntity, NotificationRecipientId> {
+
+    String INBOX_SELECT = "SELECT new javaweb.task_management_system.dtos.NotificationDTO(e.id, e.template, e.params, e.occurrences, r.isRead, e.createdAt) " +
+            "FROM NotificationRecipientEntity r JOIN NotificationEventEntity e ON e.id = r.eventId WHERE r.userId = :userId ";
+    String AFTER_CURSOR = "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.eventId < :eventId)) ";
+    String NEWEST_FIRST = "ORDER BY r.createdAt DESC, r.eventId DESC";
+
+    @Query(INBOX_SELECT + NEWEST_FIRST)
+    List<NotificationDTO> findInbox(@Param("userId") Long userId, Limit limit);
+
+    @Query(INBOX_SELECT + AFTER_CURSOR + NEWEST_FIRST)
+    List<NotificationDTO> findInboxAfter(@Param("userId") Long userId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("eventId") Long eventId,
+                                         Limit limit);
+
+    @Query(INBOX_SELECT + "AND r.isRead = false " + NEWEST_FIRST)
+    List<NotificationDTO> findUnreadInbox(@Param("userId") Long userId, Limit limit);
+
+    @Query(INBOX_SELECT + "AND r.isRead = false " + AFTER_CURSOR + NEWEST_FIRST)
+    List<NotificationDTO> findUnreadInboxAfter(@Param("userId") Long userId,
+                                               @Param("createdAt") LocalDateTime createdAt,
+                                               @Param("eventId") Long eventId,
+                                               Limit limit);
+
+    @Query(INBOX_SELECT + "AND (r.createdAt > :createdAt OR (r.createdAt = :createdAt AND r.eventId > :eventId)) " +
+            "ORDER BY r.createdAt, r.eventId")
+    List<NotificationDTO> findInboxSince(@Param("userId") Long userId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("eventId") Long eventId,
+                                         Limit limit);
+
+    @Query("SELECT new javaweb.task_management_system.dtos.DeliveredNotification(r.userId, e.id, e.template, e.params, e.occurrences, r.isRead, e.createdAt) " +
+            "FROM NotificationRecipientEntity r JOIN NotificationEventEntity e ON e.id = r.eventId " +
+            "WHERE r.userId IN :userIds AND r.createdAt >= :since ORDER BY r.createdAt, r.eventId")
+    List<DeliveredNotification> findCreatedSince(@Param("userIds") Collection<Long> userIds,
+                                                 @Param("since") LocalDateTime since,
+                                                 Limit limit);
+
+    @Query("SELECT r.createdAt FROM NotificationRecipientEntity r WHERE r.userId = :userId AND r.eventId = :eventId")
+    Optional<LocalDateTime> findCreatedAtByUserIdAndEventId(@Param("userId") Long userId, @Param("eventId") Long eventId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE NotificationRecipientEntity r SET r.isRead = true WHERE r.userId = :userId AND r.isRead = false")
+    int markAllRead(@Param("userId") Long userId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE NotificationRecipientEntity r SET r.isRead = true WHERE r.userId = :userId AND r.isRead = false " +
+            "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.eventId <= :eventId))")
+    int markReadUpTo(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt, @Param("eventId") Long eventId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM NotificationRecipientEntity r WHERE r.userId = :userId AND r.isRead IN :readStates")
+    int deleteByReadStates(@Param("userId") Long userId, @Param("readStates") Collection<Boolean> readStates);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM NotificationRecipientEntity r WHERE r.userId = :userId AND r.isRead IN :readStates " +
+            "AND r.createdAt < :before")
+    int deleteByReadStatesOlderThan(@Param("userId") Long userId, @Param("readStates") Collection<Boolean> readStates,
+                                    @Param("before") LocalDateTime before);
+
+    @Modifying
+    @Query("DELETE FROM NotificationRecipientEntity r WHERE r.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM NotificationRecipientEntity r WHERE r.eventId IN :eventIds AND r.isRead IN :readStates")
+    int deleteByEventIds(@Param("eventIds") Collection<Long> eventIds, @Param("readStates") Collection<Boolean> readStates);
+
+    @Modifying
+    @Query("DELETE FROM NotificationRecipientEntity r WHERE r.userId = :userId AND r.eventId IN :eventIds")
+    int deleteByUserIdAndEventIds(@Param("userId") Long userId, @Param("eventIds") Collection<Long> eventIds);
+
+    @Query("SELECT r.userId FROM NotificationRecipientEntity r GROUP BY r.userId HAVING COUNT(r) > :maxPerUser")
+    List<Long> findRecipientsOverLimit(@Param("maxPerUser") long maxPerUser);
+
+    @Query("SELECT r FROM NotificationRecipientEntity r WHERE r.userId = :userId " + NEWEST_FIRST)
+    List<NotificationRecipientEntity> findLinks(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT r.eventId FROM NotificationRecipientEntity r WHERE r.userId = :userId AND r.isRead IN :readStates " +
+            "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.eventId <= :eventId)) ORDER BY r.eventId")
+    List<Long> findEventIdsUpTo(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                @Param("eventId") Long eventId, @Param("readStates") Collection<Boolean> readStates, Limit limit);
+
+    long countByUserIdAndIsReadFalse(Long userId);
+
+    @Query("SELECT r.userId AS userId, COUNT(r) AS unreadCount FROM NotificationRecipientEntity r " +
+            "WHERE r.userId IN :userIds AND r.isRead = false GROUP BY r.userId")
+    List<NotificationRepository.UnreadCountView> countUnreadByUserIds(@Param("userIds") Collection<Long> userIds);
+}
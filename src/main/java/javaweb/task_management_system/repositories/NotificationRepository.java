@@ -1,12 +1,133 @@
 package javaweb.task_management_system.repositories;
 
+import javaweb.task_management_system.dtos.DeliveredNotification;
+import javaweb.task_management_system.dtos.NotificationDTO;
 import javaweb.task_management_system.models.NotificationEntity;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
-import java.util.Set;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface NotificationRepository extends CrudRepository<NotificationEntity, Long> {
 
-    Set<NotificationEntity> findByRecipientEmailOrderByCreatedAtDesc(String recipientEmail);
-    int countByRecipientEmailAndIsReadFalse(String recipientEmail);
+    String INBOX_SELECT = "SELECT new javaweb.task_management_system.dtos.NotificationDTO(n.id, n.template, n.params, n.content, n.occurrences, n.isRead, n.createdAt) " +
+            "FROM NotificationEntity n WHERE n.recipient.id = :userId ";
+    String AFTER_CURSOR = "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) ";
+    String NEWEST_FIRST = "ORDER BY n.createdAt DESC, n.id DESC";
+    String EXPIRED_SELECT = "SELECT n.id AS id, n.createdAt AS createdAt FROM NotificationEntity n " +
+            "WHERE n.createdAt < :before AND n.isRead IN :readStates ";
+    String OLDEST_FIRST = "ORDER BY n.createdAt, n.id";
+
+    // Inbox pages walk idx_notifications_user_created (or the unread variant) by (created_at, id) keyset
+    @Query(INBOX_SELECT + NEWEST_FIRST)
+    List<NotificationDTO> findInbox(@Param("userId") Long userId, Limit limit);
+
+    @Query(INBOX_SELECT + AFTER_CURSOR + NEWEST_FIRST)
+    List<NotificationDTO> findInboxAfter(@Param("userId") Long userId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         Limit limit);
+
+    // Replay for a reconnecting stream, oldest first
+    @Query(INBOX_SELECT + "AND (n.createdAt > :createdAt OR (n.createdAt = :createdAt AND n.id > :id)) ORDER BY n.createdAt, n.id")
+    List<NotificationDTO> findInboxSince(@Param("userId") Long userId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         Limit limit);
+
+    @Query("SELECT new javaweb.task_management_system.dtos.DeliveredNotification(n.recipient.id, n.id, n.template, n.params, n.content, n.occurrences, n.isRead, n.createdAt) " +
+            "FROM NotificationEntity n WHERE n.recipient.id IN :userIds AND n.createdAt >= :since ORDER BY n.createdAt, n.id")
+    List<DeliveredNotification> findCreatedSince(@Param("userIds") Collection<Long> userIds,
+                                                 @Param("since") LocalDateTime since,
+                                                 Limit limit);
+
+    @Query(INBOX_SELECT + "AND n.isRead = false " + NEWEST_FIRST)
+    List<NotificationDTO> findUnreadInbox(@Param("userId") Long userId, Limit limit);
+
+    @Query(INBOX_SELECT + "AND n.isRead = false " + AFTER_CURSOR + NEWEST_FIRST)
+    List<NotificationDTO> findUnreadInboxAfter(@Param("userId") Long userId,
+                                               @Param("createdAt") LocalDateTime createdAt,
+                                               @Param("id") Long id,
+                                               Limit limit);
+
+    @Query("SELECT n.createdAt FROM NotificationEntity n WHERE n.id = :id AND n.recipient.id = :userId")
+    Optional<LocalDateTime> findCreatedAtByIdAndRecipientId(@Param("id") Long id, @Param("userId") Long userId);
+
+    // Bulk statements run straight against the (user_id, is_read, created_at, id) index, no rows are loaded
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE NotificationEntity n SET n.isRead = true WHERE n.recipient.id = :userId AND n.isRead = false")
+    int markAllRead(@Param("userId") Long userId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE NotificationEntity n SET n.isRead = true WHERE n.recipient.id = :userId AND n.isRead = false " +
+            "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id <= :id))")
+    int markReadUpTo(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM NotificationEntity n WHERE n.recipient.id = :userId AND n.isRead IN :readStates")
+    int deleteByReadStates(@Param("userId") Long userId, @Param("readStates") Collection<Boolean> readStates);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM NotificationEntity n WHERE n.recipient.id = :userId AND n.isRead IN :readStates AND n.createdAt < :before")
+    int deleteByReadStatesOlderThan(@Param("userId") Long userId, @Param("readStates") Collection<Boolean> readStates,
+                                    @Param("before") LocalDateTime before);
+
+    @Modifying
+    @Query("DELETE FROM NotificationEntity n WHERE n.recipient.id = :userId")
+    int deleteByRecipientId(@Param("userId") Long userId);
+
+    // Retention works on primary keys: ids are selected in small chunks, walking idx_notifications_created by
+    // (created_at, id) keyset, and removed by id, so every delete only locks the rows it removes
+    @Query(EXPIRED_SELECT + OLDEST_FIRST)
+    List<ExpiredView> findExpired(@Param("before") LocalDateTime before,
+                                  @Param("readStates") Collection<Boolean> readStates, Limit limit);
+
+    @Query(EXPIRED_SELECT + "AND (n.createdAt > :createdAt OR (n.createdAt = :createdAt AND n.id > :id)) " + OLDEST_FIRST)
+    List<ExpiredView> findExpiredAfter(@Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       @Param("before") LocalDateTime before,
+                                       @Param("readStates") Collection<Boolean> readStates, Limit limit);
+
+    @Query("SELECT n.recipient.id FROM NotificationEntity n GROUP BY n.recipient.id HAVING COUNT(n) > :maxPerUser")
+    List<Long> findRecipientsOverLimit(@Param("maxPerUser") long maxPerUser);
+
+    @Query(INBOX_SELECT + NEWEST_FIRST)
+    List<NotificationDTO> findInbox(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT n.id FROM NotificationEntity n WHERE n.recipient.id = :userId AND n.isRead IN :readStates " +
+            "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id <= :id)) ORDER BY n.id")
+    List<Long> findIdsUpTo(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                           @Param("readStates") Collection<Boolean> readStates, Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM NotificationEntity n WHERE n.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT n FROM NotificationEntity n WHERE n.id > :afterId AND n.content IS NOT NULL ORDER BY n.id")
+    List<NotificationEntity> findLegacyAfter(@Param("afterId") Long afterId, Limit limit);
+
+    long countByRecipientIdAndIsReadFalse(Long recipientId);
+
+    @Query("SELECT n.recipient.id AS userId, COUNT(n) AS unreadCount FROM NotificationEntity n " +
+            "WHERE n.recipient.id IN :userIds AND n.isRead = false GROUP BY n.recipient.id")
+    List<UnreadCountView> countUnreadByRecipientIds(@Param("userIds") Collection<Long> userIds);
+
+    interface UnreadCountView {
+        Long getUserId();
+        Long getUnreadCount();
+    }
+
+    interface ExpiredView {
+        Long getId();
+        LocalDateTime getCreatedAt();
+    }
 }
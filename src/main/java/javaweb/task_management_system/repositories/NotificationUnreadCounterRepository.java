@@ -0,0 +1,37 @@
+package javaweb.task_management_system.repositories;
+
+import jakarta.persistence.LockModeType;
+import javaweb.task_management_system.models.NotificationUnreadCounterEntity;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface NotificationUnreadCounterRepository extends CrudRepository<NotificationUnreadCounterEntity, Long> {
+
+    @Query("SELECT c.unreadCount FROM NotificationUnreadCounterEntity c WHERE c.userId = :userId")
+    Optional<Long> findUnreadCount(@Param("userId") Long userId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO notification_unread_counters (user_id, unread_count) VALUES (:userId, :delta) " +
+            "ON DUPLICATE KEY UPDATE unread_count = unread_count + VALUES(unread_count)", nativeQuery = true)
+    int adjust(@Param("userId") Long userId, @Param("delta") long delta);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO notification_unread_counters (user_id, unread_count) VALUES (:userId, :unreadCount) " +
+            "ON DUPLICATE KEY UPDATE unread_count = VALUES(unread_count)", nativeQuery = true)
+    int set(@Param("userId") Long userId, @Param("unreadCount") long unreadCount);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM NotificationUnreadCounterEntity c WHERE c.userId IN :userIds ORDER BY c.userId")
+    List<NotificationUnreadCounterEntity> findAllForUpdate(@Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query("DELETE FROM NotificationUnreadCounterEntity c WHERE c.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
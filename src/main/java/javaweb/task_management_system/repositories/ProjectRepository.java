@@ -1,7 +1,8 @@
 package javaweb.task_management_system.repositories;
 
+import javaweb.task_management_system.dtos.ProjectDetailsDTO;
 import javaweb.task_management_system.models.ProjectEntity;
-import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
@@ -10,9 +11,9 @@ import java.util.List;
 
 public interface ProjectRepository extends CrudRepository<ProjectEntity, Long> {
 
-    @EntityGraph(attributePaths = {"tasks", "tasks.status"})
-    @Query("SELECT p FROM ProjectEntity p WHERE p.owner.email = :userEmail")
-    List<ProjectEntity> findByOwnerEmail(@Param("userEmail") String userEmail);
+    @Query("SELECT new javaweb.task_management_system.dtos.ProjectDetailsDTO(p.id, p.name, p.description) " +
+            "FROM ProjectEntity p WHERE p.owner.id = :ownerId AND p.id > :afterId ORDER BY p.id")
+    List<ProjectDetailsDTO> findDetailsByOwnerId(@Param("ownerId") Long ownerId, @Param("afterId") Long afterId, Limit limit);
 
 
 }
@@ -0,0 +1,32 @@
+package javaweb.task_management_system.repositories;
+
+import javaweb.task_management_system.models.RefreshTokenEntity;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface RefreshTokenRepository extends CrudRepository<RefreshTokenEntity, Long> {
+
+    Optional<RefreshTokenEntity> findByTokenHash(String tokenHash);
+
+    // Only one of two concurrent refreshes with the same token gets 1, the other one is treated as a reuse
+    @Modifying
+    @Query("UPDATE RefreshTokenEntity t SET t.usedAt = :now WHERE t.id = :id AND t.usedAt IS NULL")
+    int markUsed(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM RefreshTokenEntity t WHERE t.familyId = :familyId")
+    int deleteByFamilyId(@Param("familyId") String familyId);
+
+    @Modifying
+    @Query("DELETE FROM RefreshTokenEntity t WHERE t.userId = :userId AND t.expiresAt <= :now")
+    int deleteExpiredByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM RefreshTokenEntity t WHERE t.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
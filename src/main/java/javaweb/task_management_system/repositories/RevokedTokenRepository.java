@@ -0,0 +1,22 @@
+package javaweb.task_management_system.repositories;
+
+import jakarta.transaction.Transactional;
+import javaweb.task_management_system.models.RevokedTokenEntity;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RevokedTokenRepository extends CrudRepository<RevokedTokenEntity, String> {
+
+    @Query("SELECT r FROM RevokedTokenEntity r WHERE r.expiresAt > :now")
+    List<RevokedTokenEntity> findActive(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedTokenEntity r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,69 @@
+package javaweb.task_management_system.repositories;
+
+import jakarta.persistence.LockModeType;
+import javaweb.task_management_system.dtos.StatusCountDTO;
+import javaweb.task_management_system.models.TaskProgressCounterEntity;
+import javaweb.task_management_system.models.TaskProgressCounterId;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface TaskProgressCounterRepository extends CrudRepository<TaskProgressCounterEntity, TaskProgressCounterId> {
+
+    @Query("SELECT new javaweb.task_management_system.dtos.StatusCountDTO(s.id, s.name, c.taskCount) " +
+            "FROM TaskProgressCounterEntity c JOIN TaskStatusEntity s ON s.id = c.statusId " +
+            "WHERE c.userId = :userId AND c.taskCount > 0 ORDER BY s.id")
+    List<StatusCountDTO> findStatusCountsByUserId(@Param("userId") Long userId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO task_progress_counters (user_id, status_id, task_count) " +
+            "SELECT ta.user_id, t.status_id, COUNT(*) FROM tasks t JOIN task_assignees ta ON ta.task_id = t.id " +
+            "WHERE t.id IN (:taskIds) GROUP BY ta.user_id, t.status_id " +
+            "ON DUPLICATE KEY UPDATE task_count = task_count + VALUES(task_count)", nativeQuery = true)
+    int incrementForTasks(@Param("taskIds") Collection<Long> taskIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE task_progress_counters c JOIN (" +
+            "SELECT ta.user_id, t.status_id, COUNT(*) AS task_count FROM tasks t JOIN task_assignees ta ON ta.task_id = t.id " +
+            "WHERE t.id IN (:taskIds) GROUP BY ta.user_id, t.status_id) d " +
+            "ON d.user_id = c.user_id AND d.status_id = c.status_id " +
+            "SET c.task_count = c.task_count - d.task_count", nativeQuery = true)
+    int decrementForTasks(@Param("taskIds") Collection<Long> taskIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE task_progress_counters c JOIN (" +
+            "SELECT ta.user_id, t.status_id, COUNT(*) AS task_count FROM tasks t JOIN task_assignees ta ON ta.task_id = t.id " +
+            "WHERE t.project_id = :projectId GROUP BY ta.user_id, t.status_id) d " +
+            "ON d.user_id = c.user_id AND d.status_id = c.status_id " +
+            "SET c.task_count = c.task_count - d.task_count", nativeQuery = true)
+    int decrementForProject(@Param("projectId") Long projectId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM TaskProgressCounterEntity c WHERE c.userId IN :userIds ORDER BY c.userId, c.statusId")
+    List<TaskProgressCounterEntity> findAllForUpdate(@Param("userIds") Collection<Long> userIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO task_progress_counters (user_id, status_id, task_count) VALUES (:userId, :statusId, :delta) " +
+            "ON DUPLICATE KEY UPDATE task_count = task_count + VALUES(task_count)", nativeQuery = true)
+    int adjust(@Param("userId") Long userId, @Param("statusId") Long statusId, @Param("delta") long delta);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM TaskProgressCounterEntity c WHERE c.userId IN :userIds AND c.taskCount = 0")
+    int deleteEmpty(@Param("userIds") Collection<Long> userIds);
+
+    @Query(value = "SELECT ta.user_id AS userId, t.status_id AS statusId, COUNT(*) AS taskCount " +
+            "FROM tasks t JOIN task_assignees ta ON ta.task_id = t.id WHERE ta.user_id IN (:userIds) " +
+            "GROUP BY ta.user_id, t.status_id", nativeQuery = true)
+    List<CounterView> computeCountsFromTasks(@Param("userIds") Collection<Long> userIds);
+
+    interface CounterView {
+        Long getUserId();
+        Long getStatusId();
+        Long getTaskCount();
+    }
+}
@@ -1,17 +1,76 @@
 package javaweb.task_management_system.repositories;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import javaweb.task_management_system.dtos.TaskExportRow;
 import javaweb.task_management_system.models.TaskEntity;
+import javaweb.task_management_system.models.TaskStatusEntity;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
-public interface TaskRepository extends CrudRepository<TaskEntity, Long> {
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+public interface TaskRepository extends CrudRepository<TaskEntity, Long>, TaskRepositoryCustom {
 
 //    @Query("SELECT t FROM TaskEntity t WHERE t.project.owner.email = :userEmail")
 //    List<TaskEntity> findByProjectOwnerEmail(@Param("userEmail") String userEmail);
 
-    List<TaskEntity> findByAssigneesEmail(String email);
+    @Query("SELECT COUNT(DISTINCT t.id) FROM TaskEntity t JOIN t.assignees a WHERE t.id IN :taskIds AND a.id = :userId")
+    long countAssignedTasks(@Param("taskIds") Collection<Long> taskIds, @Param("userId") Long userId);
+
+    String EXPORT_FETCH_SIZE = "500";
+
+    String EXPORT_SELECT = "SELECT new javaweb.task_management_system.dtos.TaskExportRow(" +
+            "t.id, t.name, s.name, p.id, p.name, o.email, t.dueDate, a.email) " +
+            "FROM TaskEntity t JOIN t.status s JOIN t.project p JOIN p.owner o LEFT JOIN t.assignees a ";
+
+    // forward-only streams read with a JDBC fetch size (useCursorFetch on MySQL), they must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(EXPORT_SELECT + "WHERE t.id IN (SELECT at.id FROM TaskEntity at JOIN at.assignees me WHERE me.id = :userId) ORDER BY t.id")
+    Stream<TaskExportRow> streamExportRowsByAssignee(@Param("userId") Long userId);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(EXPORT_SELECT + "WHERE p.id = :projectId ORDER BY t.id")
+    Stream<TaskExportRow> streamExportRowsByProject(@Param("projectId") Long projectId);
+
+    // Taken before the progress counters of a task are decremented: the decrement reads the task's status and
+    // assignees, and without the row lock two changes of the same task both take out the old status (or deadlock
+    // upgrading their shared locks). Several tasks are locked in id order so two batches cannot deadlock.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM TaskEntity t WHERE t.id = :taskId")
+    Optional<TaskEntity> findByIdForUpdate(@Param("taskId") Long taskId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM TaskEntity t WHERE t.id IN :taskIds ORDER BY t.id")
+    List<TaskEntity> findAllByIdForUpdate(@Param("taskIds") Collection<Long> taskIds);
+
+    // The first perProject task ids of every project, in id order, for a whole page of projects in one statement
+    @Query(value = "SELECT id FROM (SELECT t.id, ROW_NUMBER() OVER (PARTITION BY t.project_id ORDER BY t.id) AS position " +
+            "FROM tasks t WHERE t.project_id IN (:projectIds)) ranked WHERE ranked.position <= :perProject ORDER BY id", nativeQuery = true)
+    List<Long> findFirstIdsPerProject(@Param("projectIds") Collection<Long> projectIds, @Param("perProject") int perProject);
+
+    @Query("SELECT a.id FROM TaskEntity t JOIN t.assignees a WHERE t.id = :taskId")
+    Set<Long> findAssigneeIds(@Param("taskId") Long taskId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO task_assignees (task_id, user_id) SELECT :taskId, u.id FROM users u WHERE u.id IN (:userIds)", nativeQuery = true)
+    int addAssignees(@Param("taskId") Long taskId, @Param("userIds") Collection<Long> userIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM task_assignees WHERE task_id = :taskId AND user_id IN (:userIds)", nativeQuery = true)
+    int removeAssignees(@Param("taskId") Long taskId, @Param("userIds") Collection<Long> userIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE TaskEntity t SET t.status = :status WHERE t.id IN :taskIds")
+    int updateStatus(@Param("taskIds") Collection<Long> taskIds, @Param("status") TaskStatusEntity status);
 }
@@ -0,0 +1,13 @@
+package javaweb.task_management_system.repositories;
+
+import javaweb.task_management_system.dtos.TaskDetailsDTO;
+import javaweb.task_management_system.dtos.TaskFilter;
+
+import java.util.List;
+
+public interface TaskRepositoryCustom {
+
+    List<TaskDetailsDTO> findTaskDetails(TaskFilter filter, Long afterId, int maxResults);
+
+    List<TaskDetailsDTO> attachAssignees(List<TaskDetailsDTO> tasks);
+}
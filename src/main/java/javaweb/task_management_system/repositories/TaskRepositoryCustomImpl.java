@@ -0,0 +1,106 @@
+package javaweb.task_management_system.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import javaweb.task_management_system.dtos.TaskDetailsDTO;
+import javaweb.task_management_system.dtos.TaskFilter;
+import javaweb.task_management_system.models.ProjectEntity;
+import javaweb.task_management_system.models.TaskEntity;
+import javaweb.task_management_system.models.TaskStatusEntity;
+import javaweb.task_management_system.models.UserEntity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Only the filters that are set end up in the WHERE clause, so the indexes on tasks/projects can be used.
+    // Pages are read by keyset (id > afterId) so a deep page costs the same as the first one.
+    @Override
+    public List<TaskDetailsDTO> findTaskDetails(TaskFilter filter, Long afterId, int maxResults) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskDetailsDTO> query = cb.createQuery(TaskDetailsDTO.class);
+
+        Root<TaskEntity> task = query.from(TaskEntity.class);
+        Join<TaskEntity, TaskStatusEntity> status = task.join("status");
+        Join<TaskEntity, ProjectEntity> project = task.join("project");
+        Join<ProjectEntity, UserEntity> owner = project.join("owner");
+
+        List<Predicate> predicates = new ArrayList<>();
+
+        if (filter.getAssigneeId() != null) {
+            Join<TaskEntity, UserEntity> assignee = task.join("assignees");
+            predicates.add(cb.equal(assignee.get("id"), filter.getAssigneeId()));
+        }
+
+        // project names are compared through the column collation (case-insensitive on MySQL) to keep the index usable
+        if (filter.getProjectName() != null && !filter.getProjectName().isBlank()) {
+            predicates.add(cb.equal(project.get("name"), filter.getProjectName()));
+        }
+
+        if (filter.getProjectIds() != null) {
+            predicates.add(project.get("id").in(filter.getProjectIds()));
+        }
+
+        if (filter.getTaskIds() != null) {
+            predicates.add(task.get("id").in(filter.getTaskIds()));
+        }
+
+        if (filter.getStatusId() != null) {
+            predicates.add(cb.equal(status.get("id"), filter.getStatusId()));
+        }
+
+        if (filter.getDueDate() != null) {
+            LocalDateTime startOfDay = filter.getDueDate().toLocalDate().atStartOfDay();
+            predicates.add(cb.greaterThanOrEqualTo(task.<LocalDateTime>get("dueDate"), startOfDay));
+            predicates.add(cb.lessThan(task.<LocalDateTime>get("dueDate"), startOfDay.plusDays(1)));
+        }
+
+        if (afterId != null) {
+            predicates.add(cb.greaterThan(task.<Long>get("id"), afterId));
+        }
+
+        query.select(cb.construct(TaskDetailsDTO.class,
+                        task.get("id"), task.get("name"), status.get("name"),
+                        project.get("id"), project.get("name"), owner.get("email"), task.get("dueDate")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.asc(task.get("id")));
+
+        return attachAssignees(entityManager.createQuery(query)
+                .setMaxResults(maxResults)
+                .getResultList());
+    }
+
+    // Loads the assignee emails of every task in a single query instead of walking task.getAssignees() per row
+    @Override
+    public List<TaskDetailsDTO> attachAssignees(List<TaskDetailsDTO> tasks) {
+        if (tasks.isEmpty()) {
+            return tasks;
+        }
+
+        Map<Long, TaskDetailsDTO> tasksById = new HashMap<>();
+        tasks.forEach(task -> tasksById.put(task.getId(), task));
+
+        List<Object[]> rows = entityManager.createQuery(
+                        "SELECT t.id, a.email FROM TaskEntity t JOIN t.assignees a " +
+                                "WHERE t.id IN :taskIds AND a.email IS NOT NULL ORDER BY t.id, a.id", Object[].class)
+                .setParameter("taskIds", tasksById.keySet())
+                .getResultList();
+
+        for (Object[] row : rows) {
+            tasksById.get((Long) row[0]).addAssignedUser((String) row[1]);
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,45 @@
+package javaweb.task_management_system.repositories;
+
+import javaweb.task_management_system.models.UserDataVersionEntity;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+
+public interface UserDataVersionRepository extends CrudRepository<UserDataVersionEntity, Long> {
+
+    String BUMP = "INSERT INTO user_data_versions (user_id, version) SELECT affected.user_id, 1 FROM (";
+    String ON_DUPLICATE = ") affected ON DUPLICATE KEY UPDATE version = version + 1";
+
+    // assignees of the tasks and the owners of their projects
+    @Modifying(flushAutomatically = true)
+    @Query(value = BUMP +
+            "SELECT ta.user_id FROM task_assignees ta WHERE ta.task_id IN (:taskIds) " +
+            "UNION SELECT p.owner_id FROM tasks t JOIN projects p ON p.id = t.project_id WHERE t.id IN (:taskIds)" +
+            ON_DUPLICATE, nativeQuery = true)
+    int bumpForTasks(@Param("taskIds") Collection<Long> taskIds);
+
+    // the project owner and everyone assigned to one of its tasks
+    @Modifying(flushAutomatically = true)
+    @Query(value = BUMP +
+            "SELECT ta.user_id FROM tasks t JOIN task_assignees ta ON ta.task_id = t.id WHERE t.project_id = :projectId " +
+            "UNION SELECT p.owner_id FROM projects p WHERE p.id = :projectId" +
+            ON_DUPLICATE, nativeQuery = true)
+    int bumpForProject(@Param("projectId") Long projectId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = BUMP + "SELECT u.id AS user_id FROM users u WHERE u.id IN (:userIds)" + ON_DUPLICATE, nativeQuery = true)
+    int bumpForUsers(@Param("userIds") Collection<Long> userIds);
+
+    // everyone who sees a task or project the user is part of: co-assignees, owners of those projects
+    // and assignees of the projects the user owns
+    @Modifying(flushAutomatically = true)
+    @Query(value = BUMP +
+            "SELECT other.user_id FROM task_assignees mine JOIN task_assignees other ON other.task_id = mine.task_id WHERE mine.user_id = :userId " +
+            "UNION SELECT p.owner_id FROM task_assignees mine JOIN tasks t ON t.id = mine.task_id JOIN projects p ON p.id = t.project_id WHERE mine.user_id = :userId " +
+            "UNION SELECT ta.user_id FROM projects p JOIN tasks t ON t.project_id = p.id JOIN task_assignees ta ON ta.task_id = t.id WHERE p.owner_id = :userId" +
+            ON_DUPLICATE, nativeQuery = true)
+    int bumpForUserRelations(@Param("userId") Long userId);
+}
@@ -1,6 +1,7 @@
 package javaweb.task_management_system.services;
 
 
+import jakarta.transaction.Transactional;
 import javaweb.task_management_system.dtos.ActionSuccessResponse;
 import javaweb.task_management_system.dtos.UserDTO;
 import javaweb.task_management_system.exceptions.InvalidAction;
@@ -25,16 +26,23 @@ public class AdminServicesImpl implements AdminServices{
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
+    private final DataVersionService dataVersionService;
+    private final NotificationService notificationService;
+    private final RefreshTokenService refreshTokenService;
 
 
     @Autowired
-    public AdminServicesImpl(UserRepository userRepository, PasswordEncoder passwordEncoder, RoleRepository roleRepository){
+    public AdminServicesImpl(UserRepository userRepository, PasswordEncoder passwordEncoder, RoleRepository roleRepository, DataVersionService dataVersionService, NotificationService notificationService, RefreshTokenService refreshTokenService){
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
+        this.dataVersionService = dataVersionService;
+        this.notificationService = notificationService;
+        this.refreshTokenService = refreshTokenService;
 
     }
 
     @Override
+    @Transactional
     public ActionSuccessResponse deleteUserByEmail(String email) {
         UserEntity user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
@@ -46,6 +54,9 @@ public class AdminServicesImpl implements AdminServices{
             throw new InvalidUserException("Cannot delete a user with the ADMIN role.");
         }
 
+        dataVersionService.bumpForUserRelations(user.getId());
+        notificationService.deleteAllForUser(user.getId());
+        refreshTokenService.deleteAllForUser(user.getId());
         userRepository.delete(user);
 
         return new ActionSuccessResponse(email, "User deleted successfully!");
@@ -10,5 +10,6 @@ import javaweb.task_management_system.models.UserEntity;
 public interface AuthenticationService {
     UserDTO register(UserEntity user, int roleNumber);
     LoginResponseDTO login(String email, String password);
-    ActionSuccessResponse logout();
+    LoginResponseDTO refresh(String refreshToken);
+    ActionSuccessResponse logout(String accessToken, String refreshToken);
 }
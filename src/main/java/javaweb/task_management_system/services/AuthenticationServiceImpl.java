@@ -10,20 +10,17 @@ import javaweb.task_management_system.models.RoleEntity;
 import javaweb.task_management_system.models.UserEntity;
 import javaweb.task_management_system.repositories.RoleRepository;
 import javaweb.task_management_system.repositories.UserRepository;
+import javaweb.task_management_system.utility.AuthenticatedUser;
+import javaweb.task_management_system.utility.VerifiedTokenCache;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.stream.Collectors;
 
 
 @Service
@@ -34,15 +31,25 @@ public class AuthenticationServiceImpl implements AuthenticationService{
     private final PasswordEncoder passwordEncoder;
     private final RoleRepository roleRepository;
     private final UserService userService;
+    private final VerifiedTokenCache tokenCache;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationList revocationList;
+    private final JwtDecoder jwtDecoder;
 
     @Autowired
     public AuthenticationServiceImpl(TokenService tokenService, UserRepository userRepository, PasswordEncoder passwordEncoder,
-                                     RoleRepository roleRepository, UserService userService) {
+                                     RoleRepository roleRepository, UserService userService, VerifiedTokenCache tokenCache,
+                                     RefreshTokenService refreshTokenService, TokenRevocationList revocationList,
+                                     JwtDecoder jwtDecoder) {
         this.tokenService = tokenService;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.roleRepository = roleRepository;
         this.userService = userService;
+        this.tokenCache = tokenCache;
+        this.refreshTokenService = refreshTokenService;
+        this.revocationList = revocationList;
+        this.jwtDecoder = jwtDecoder;
     }
 
     @Override
@@ -88,43 +95,59 @@ public class AuthenticationServiceImpl implements AuthenticationService{
         if(!passwordEncoder.matches(password, user.getPassword()))
             throw new InvalidUserException("Credentials are incorrect!");
 
-        List<GrantedAuthority> authorities = user.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.getName()))
-                .collect(Collectors.toList());
+        String token = tokenService.generateJwt(AuthenticatedUser.of(user));
 
-        Authentication auth = new UsernamePasswordAuthenticationToken(email, password, authorities);
+        return new LoginResponseDTO(new UserDTO(user), token, refreshTokenService.issue(user.getId()));
+    }
+
+    // The user is read again so role changes made since the last token take effect on refresh
+    @Override
+    public LoginResponseDTO refresh(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            throw new InvalidValueException("Refresh token is missing!");
+        }
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        UserEntity user = userRepository.findById(rotation.getUserId())
+                .orElseThrow(() -> new InvalidValueException("User not found!"));
 
-        String token = tokenService.generateJwt(auth);
+        String token = tokenService.generateJwt(AuthenticatedUser.of(user));
 
-        return new LoginResponseDTO(new UserDTO(user), token);
+        return new LoginResponseDTO(new UserDTO(user), token, rotation.getToken());
     }
 
 
+    // Works without a valid access token: logging out after the access token expired is the common case, and the
+    // refresh token is what keeps the session alive. The access token is only decoded to revoke it while it still works.
     @Override
-    public ActionSuccessResponse logout() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    public ActionSuccessResponse logout(String accessToken, String refreshToken) {
+        boolean hasAccessToken = accessToken != null && !accessToken.isBlank();
+        boolean hasRefreshToken = refreshToken != null && !refreshToken.isBlank();
 
-        // Check if authentication is null or an anonymous user
-        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
-            throw new ResourceNotFoundException("Authentication context is not present!");
+        if (!hasAccessToken && !hasRefreshToken) {
+            throw new ResourceNotFoundException("No session to log out of!");
         }
 
-        // Check if principal is an instance of Jwt (for JWT-based authentication)
-        if (authentication.getPrincipal() instanceof Jwt) {
-            Jwt jwt = (Jwt) authentication.getPrincipal();  // Safe cast to Jwt
-            String subject = jwt.getClaimAsString("sub");    // Extract the subject from the JWT
+        if (hasRefreshToken) {
+            refreshTokenService.revoke(refreshToken);
+        }
 
-            if (subject == null) {
-                throw new ResourceNotFoundException("Subject claim is missing in the JWT!");
+        String subject = null;
+        if (hasAccessToken) {
+            tokenCache.invalidate(accessToken);
+            try {
+                Jwt jwt = jwtDecoder.decode(accessToken);
+                subject = jwt.getSubject();
+                if (jwt.getId() != null && jwt.getExpiresAt() != null) {
+                    revocationList.revoke(jwt.getId(), jwt.getExpiresAt());
+                }
+            } catch (JwtException e) {
+                // an expired or invalid token is already rejected everywhere, there is nothing to revoke
             }
-
-            // Clear the security context to log the user out
-            SecurityContextHolder.clearContext();
-            return new ActionSuccessResponse(subject, "Logout successfully ");
-        } else {
-            // Handle cases where principal is not a JWT (it could be a String, for example)
-            throw new ResourceNotFoundException("Authentication principal is not a valid JWT!");
         }
+
+        SecurityContextHolder.clearContext();
+        return new ActionSuccessResponse(subject, "Logout successfully ");
     }
 
 
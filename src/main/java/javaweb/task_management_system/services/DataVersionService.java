@@ -0,0 +1,11 @@
+package javaweb.task_management_system.services;
+
+import java.util.Collection;
+
+public interface DataVersionService {
+    String getCurrentETag();
+    void bumpForTasks(Collection<Long> taskIds);
+    void bumpForProject(Long projectId);
+    void bumpForUsers(Collection<Long> userIds);
+    void bumpForUserRelations(Long userId);
+}
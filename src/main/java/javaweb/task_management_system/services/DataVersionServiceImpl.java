@@ -0,0 +1,55 @@
+package javaweb.task_management_system.services;
+
+import javaweb.task_management_system.models.UserDataVersionEntity;
+import javaweb.task_management_system.repositories.UserDataVersionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+
+@Service
+public class DataVersionServiceImpl implements DataVersionService {
+
+    private final UserDataVersionRepository versionRepository;
+    private final TokenService tokenService;
+
+    @Autowired
+    public DataVersionServiceImpl(UserDataVersionRepository versionRepository, TokenService tokenService) {
+        this.versionRepository = versionRepository;
+        this.tokenService = tokenService;
+    }
+
+    // The tag covers everything the current user can read through the task/project listings,
+    // so a matching If-None-Match can be answered before any of those queries run.
+    @Override
+    public String getCurrentETag() {
+        Long userId = tokenService.getCurrentUser().getId();
+        long version = versionRepository.findById(userId).map(UserDataVersionEntity::getVersion).orElse(0L);
+
+        return "\"" + userId + "." + version + "\"";
+    }
+
+    @Override
+    public void bumpForTasks(Collection<Long> taskIds) {
+        if (!taskIds.isEmpty()) {
+            versionRepository.bumpForTasks(taskIds);
+        }
+    }
+
+    @Override
+    public void bumpForProject(Long projectId) {
+        versionRepository.bumpForProject(projectId);
+    }
+
+    @Override
+    public void bumpForUsers(Collection<Long> userIds) {
+        if (!userIds.isEmpty()) {
+            versionRepository.bumpForUsers(userIds);
+        }
+    }
+
+    @Override
+    public void bumpForUserRelations(Long userId) {
+        versionRepository.bumpForUserRelations(userId);
+    }
+}
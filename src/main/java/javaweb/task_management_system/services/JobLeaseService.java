@@ -0,0 +1,32 @@
+package javaweb.task_management_system.services;
+
+import jakarta.transaction.Transactional;
+import javaweb.task_management_system.repositories.JobLeaseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Lets a scheduled job that fires on every node run on one of them. The lease is not released when the run ends:
+// it has to outlive the clock skew between nodes, or a node firing a few seconds later would run the job again.
+@Component
+public class JobLeaseService {
+
+    private final JobLeaseRepository leaseRepository;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName();
+
+    @Autowired
+    public JobLeaseService(JobLeaseRepository leaseRepository) {
+        this.leaseRepository = leaseRepository;
+    }
+
+    // Committed before the job starts, so the other nodes see the lease while it runs
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public boolean tryAcquire(String job, Duration leaseTime) {
+        LocalDateTime now = LocalDateTime.now();
+        leaseRepository.createIfAbsent(job, now);
+        return leaseRepository.claim(job, owner, now, now.plus(leaseTime)) == 1;
+    }
+}
@@ -0,0 +1,114 @@
+package javaweb.task_management_system.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import javaweb.task_management_system.dtos.DeliveredNotification;
+import javaweb.task_management_system.repositories.NotificationOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Moves notification_outbox rows into the notification store. Each poll keeps relaying full chunks until the
+// outbox is drained; every chunk is its own transaction, so a failure only rolls back that chunk. The rows of a
+// failed chunk are then relayed one by one, and the ones that still fail are backed off (or dead-lettered) by
+// the writer, so a single bad row cannot hold back the rows behind it.
+@Component
+public class NotificationOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationOutboxRelay.class);
+
+    private final NotificationWriter notificationWriter;
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationStreamHub streamHub;
+    private final int batchSize;
+    private final Timer lag;
+    private final Counter relayed;
+    private final Counter failed;
+    private final Counter deadLettered;
+    private volatile boolean running = true;
+
+    @Autowired
+    public NotificationOutboxRelay(NotificationWriter notificationWriter, NotificationOutboxRepository outboxRepository,
+                                   NotificationStreamHub streamHub,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${notifications.outbox.batch-size:200}") int batchSize) {
+        this.notificationWriter = notificationWriter;
+        this.outboxRepository = outboxRepository;
+        this.streamHub = streamHub;
+        this.batchSize = batchSize;
+
+        meterRegistry.gauge("notifications.outbox.backlog", outboxRepository, NotificationOutboxRepository::countByDeadLetteredAtIsNull);
+        meterRegistry.gauge("notifications.outbox.dead-letters", outboxRepository,
+                NotificationOutboxRepository::countByDeadLetteredAtIsNotNull);
+        this.lag = Timer.builder("notifications.outbox.lag")
+                .description("Time between a notification entering the outbox and its row being written")
+                .register(meterRegistry);
+        this.relayed = meterRegistry.counter("notifications.outbox.relayed");
+        this.failed = meterRegistry.counter("notifications.outbox.failed");
+        this.deadLettered = meterRegistry.counter("notifications.outbox.dead-lettered");
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.outbox.poll-interval-ms:500}")
+    public void relay() {
+        while (running) {
+            List<DeliveredNotification> chunk;
+            try {
+                chunk = notificationWriter.relayChunk(batchSize);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to relay notification outbox chunk, relaying its rows one by one", e);
+                try {
+                    chunk = relayRowByRow();
+                } catch (RuntimeException rowFailure) {
+                    failed.increment();
+                    logger.error("Failed to relay notification outbox rows", rowFailure);
+                    return;
+                }
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            chunk.forEach(delivered -> lag.record(Duration.between(delivered.getNotification().getCreatedAt(), now)));
+            relayed.increment(chunk.size());
+            // the chunk is committed at this point, so the new rows can be pushed to open streams
+            streamHub.publish(chunk);
+
+            if (chunk.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private List<DeliveredNotification> relayRowByRow() {
+        List<DeliveredNotification> delivered = new ArrayList<>();
+        for (Long id : outboxRepository.findRelayableIds(LocalDateTime.now(), Limit.of(batchSize))) {
+            try {
+                delivered.addAll(notificationWriter.relayRow(id));
+            } catch (RuntimeException e) {
+                failed.increment();
+                if (notificationWriter.recordFailure(id, e)) {
+                    deadLettered.increment();
+                    logger.error("Notification outbox row {} kept failing and was dead-lettered", id, e);
+                } else {
+                    logger.warn("Failed to relay notification outbox row {}, it will be retried", id, e);
+                }
+            }
+        }
+        return delivered;
+    }
+
+    // Rows still in the outbox stay there for the next start (or another node); only the loop has to stop
+    @PreDestroy
+    public void stop() {
+        running = false;
+    }
+}
@@ -0,0 +1,151 @@
+package javaweb.task_management_system.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import javaweb.task_management_system.repositories.NotificationRepository;
+import javaweb.task_management_system.utility.CursorCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps the notification store bounded: drops rows older than max-age-days and everything past the newest
+// max-per-user rows of a user. With keep-unread only read rows are removed. Rows are deleted by id in chunks
+// of chunk-size, each chunk its own short transaction, with pause-ms between chunks so the purge never holds
+// long locks or starves the inbox queries. Unread counters that drift because of the purge are fixed by the
+// next UnreadNotificationReconcileJob run. The cron fires on every node, the lease lets only one of them run it.
+@Component
+public class NotificationRetentionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationRetentionJob.class);
+    private static final String JOB_NAME = "notification-retention";
+
+    private final NotificationStore notificationStore;
+    private final JobLeaseService jobLeaseService;
+    private final Duration leaseTime;
+    private final int maxAgeDays;
+    private final int maxPerUser;
+    private final List<Boolean> purgeableReadStates;
+    private final int chunkSize;
+    private final long pauseMs;
+    private final Counter purged;
+    private final Timer runs;
+    private final AtomicLong lastCompletedAt = new AtomicLong(System.currentTimeMillis());
+    private volatile boolean running = true;
+
+    @Autowired
+    public NotificationRetentionJob(NotificationStore notificationStore, JobLeaseService jobLeaseService,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${notifications.retention.lease:PT1H}") Duration leaseTime,
+                                    @Value("${notifications.retention.max-age-days:90}") int maxAgeDays,
+                                    @Value("${notifications.retention.max-per-user:1000}") int maxPerUser,
+                                    @Value("${notifications.retention.keep-unread:true}") boolean keepUnread,
+                                    @Value("${notifications.retention.chunk-size:500}") int chunkSize,
+                                    @Value("${notifications.retention.pause-ms:200}") long pauseMs) {
+        this.notificationStore = notificationStore;
+        this.jobLeaseService = jobLeaseService;
+        this.leaseTime = leaseTime;
+        this.maxAgeDays = maxAgeDays;
+        this.maxPerUser = maxPerUser;
+        this.purgeableReadStates = keepUnread ? List.of(true) : List.of(true, false);
+        this.chunkSize = chunkSize;
+        this.pauseMs = pauseMs;
+
+        this.purged = Counter.builder("notifications.retention.purged")
+                .description("Notifications removed by the retention job")
+                .register(meterRegistry);
+        this.runs = meterRegistry.timer("notifications.retention.run");
+        meterRegistry.gauge("notifications.retention.lag", lastCompletedAt,
+                completedAt -> (System.currentTimeMillis() - completedAt.get()) / 1000.0);
+    }
+
+    @Scheduled(cron = "${notifications.retention.cron:0 30 2 * * *}")
+    public void purge() {
+        long started = System.nanoTime();
+        try {
+            if (!jobLeaseService.tryAcquire(JOB_NAME, leaseTime)) {
+                logger.debug("Notification retention is running on another node");
+                return;
+            }
+            long removed = purgeExpired(LocalDateTime.now().minusDays(maxAgeDays)) + purgeOverLimit();
+            logger.info("Notification retention removed {} rows", removed);
+            if (running) {
+                lastCompletedAt.set(System.currentTimeMillis());
+            }
+        } catch (RuntimeException e) {
+            logger.error("Notification retention run failed", e);
+        } finally {
+            runs.record(Duration.ofNanos(System.nanoTime() - started));
+        }
+    }
+
+    private long purgeExpired(LocalDateTime cutoff) {
+        long removed = 0;
+        CursorCodec.TimestampCursor after = null;
+        while (running) {
+            List<NotificationRepository.ExpiredView> expired =
+                    notificationStore.findExpired(after, cutoff, purgeableReadStates, Limit.of(chunkSize));
+            if (expired.isEmpty()) {
+                break;
+            }
+            int deleted = notificationStore.deleteExpired(
+                    expired.stream().map(NotificationRepository.ExpiredView::getId).toList(), purgeableReadStates);
+            purged.increment(deleted);
+            removed += deleted;
+            NotificationRepository.ExpiredView last = expired.get(expired.size() - 1);
+            after = new CursorCodec.TimestampCursor(last.getCreatedAt(), last.getId());
+            if (expired.size() < chunkSize) {
+                break;
+            }
+            pause();
+        }
+        return removed;
+    }
+
+    private long purgeOverLimit() {
+        long removed = 0;
+        for (Long userId : notificationStore.findRecipientsOverLimit(maxPerUser)) {
+            while (running) {
+                List<Long> ids = notificationStore.findIdsPastNewest(userId, maxPerUser, purgeableReadStates, Limit.of(chunkSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                int deleted = notificationStore.deleteForRecipient(userId, ids);
+                purged.increment(deleted);
+                removed += deleted;
+                if (ids.size() < chunkSize) {
+                    break;
+                }
+                pause();
+            }
+        }
+        return removed;
+    }
+
+    private void pause() {
+        if (pauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+    }
+}
@@ -1,17 +1,30 @@
 package javaweb.task_management_system.services;
 
 import javaweb.task_management_system.dtos.ActionSuccessResponse;
+import javaweb.task_management_system.dtos.CursorPage;
 import javaweb.task_management_system.dtos.NotificationDTO;
+import javaweb.task_management_system.dtos.TemplateMigrationReportDTO;
 import javaweb.task_management_system.models.NotificationEntity;
+import javaweb.task_management_system.models.NotificationTemplate;
 import javaweb.task_management_system.models.UserEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 public interface NotificationService {
-    ActionSuccessResponse addNotification(String content, UserEntity recipient);
-    List<NotificationDTO> getNotificationsForUser();
+    void addNotification(UserEntity recipient, NotificationTemplate template, String... params);
+    void addCoalescedNotification(UserEntity recipient, String coalesceKey, NotificationTemplate template, String... params);
+    void addNotifications(List<NotificationEntity> notifications);
+    CursorPage<NotificationDTO> getNotificationsForUser(String cursor, int limit, boolean unreadOnly);
     ActionSuccessResponse markNotificationAsRead(Long notificationId);
     int countUnreadNotifications();
     ActionSuccessResponse deleteNotification(Long notificationId);
+    int markAllNotificationsAsRead(Long upToId);
+    int deleteNotifications(boolean readOnly, LocalDateTime olderThan);
+    void deleteAllForUser(Long userId);
+    Optional<SseEmitter> openStream(String lastEventId);
+    TemplateMigrationReportDTO migrateLegacyNotifications();
 }
@@ -2,57 +2,94 @@ package javaweb.task_management_system.services;
 
 import jakarta.transaction.Transactional;
 import javaweb.task_management_system.dtos.ActionSuccessResponse;
+import javaweb.task_management_system.dtos.CursorPage;
 import javaweb.task_management_system.dtos.NotificationDTO;
-import javaweb.task_management_system.dtos.UserDTO;
+import javaweb.task_management_system.dtos.TemplateMigrationReportDTO;
 import javaweb.task_management_system.exceptions.ResourceNotFoundException;
 import javaweb.task_management_system.models.NotificationEntity;
+import javaweb.task_management_system.models.NotificationOutboxEntity;
+import javaweb.task_management_system.models.NotificationTemplate;
 import javaweb.task_management_system.models.UserEntity;
-import javaweb.task_management_system.repositories.NotificationRepository;
+import javaweb.task_management_system.repositories.NotificationOutboxRepository;
+import javaweb.task_management_system.utility.CursorCodec;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.Comparator;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
-import java.util.Set;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 public class NotificationServiceImpl implements NotificationService {
 
-    private final NotificationRepository notificationRepository;
+    private final NotificationStore notificationStore;
+    private final NotificationOutboxRepository outboxRepository;
     private final TokenService tokenService;
+    private final UnreadNotificationCounter unreadCounter;
+    private final NotificationStreamHub streamHub;
+    private final NotificationTemplateMigrator templateMigrator;
+    private final long coalescingWindowMs;
 
     @Autowired
-    public NotificationServiceImpl(NotificationRepository notificationRepository, TokenService tokenService) {
-        this.notificationRepository = notificationRepository;
+    public NotificationServiceImpl(NotificationStore notificationStore, NotificationOutboxRepository outboxRepository, TokenService tokenService, UnreadNotificationCounter unreadCounter, NotificationStreamHub streamHub, NotificationTemplateMigrator templateMigrator,
+                                   @Value("${notifications.coalescing.window-ms:30000}") long coalescingWindowMs) {
+        this.notificationStore = notificationStore;
+        this.outboxRepository = outboxRepository;
         this.tokenService = tokenService;
+        this.unreadCounter = unreadCounter;
+        this.streamHub = streamHub;
+        this.templateMigrator = templateMigrator;
+        this.coalescingWindowMs = coalescingWindowMs;
     }
 
+    // Notifications go to the outbox in the caller's transaction; NotificationOutboxRelay materializes them later
     @Override
-    public ActionSuccessResponse addNotification(String content, UserEntity recipient) {
-        String userEmail = tokenService.getEmail();
-        NotificationEntity notification = new NotificationEntity(content, recipient);
-        notificationRepository.save(notification);
+    @Transactional
+    public void addNotification(UserEntity recipient, NotificationTemplate template, String... params) {
+        outboxRepository.save(new NotificationOutboxEntity(recipient.getId(), template, NotificationTemplate.joinParams(params)));
+    }
+
+    // For updates that tend to come in bursts (e.g. status toggled several times in a minute): the first one opens
+    // a window of coalescing.window-ms during which later ones with the same recipient, key and template only bump
+    // the count and params of the pending outbox row, so the burst ends up as one notification
+    @Override
+    @Transactional
+    public void addCoalescedNotification(UserEntity recipient, String coalesceKey, NotificationTemplate template, String... params) {
+        if (coalescingWindowMs <= 0) {
+            addNotification(recipient, template, params);
+            return;
+        }
 
-        return new ActionSuccessResponse(userEmail, "Notification added! " + notification.getId());
+        String joinedParams = NotificationTemplate.joinParams(params);
+        LocalDateTime now = LocalDateTime.now();
+        if (outboxRepository.coalesce(recipient.getId(), coalesceKey, template, joinedParams, now) == 0) {
+            outboxRepository.save(new NotificationOutboxEntity(recipient.getId(), template, joinedParams, coalesceKey,
+                    now.plus(coalescingWindowMs, ChronoUnit.MILLIS)));
+        }
     }
 
     @Override
-    public List<NotificationDTO> getNotificationsForUser() {
-        String userEmail = tokenService.getEmail();
-        Set<NotificationEntity> notifications = notificationRepository.findByRecipientEmailOrderByCreatedAtDesc(userEmail);
-
-
-        return notifications.stream()
-                .sorted(Comparator.comparing(NotificationEntity::getCreatedAt).reversed())
-                .map(notification -> new NotificationDTO(
-                        notification.getId(),
-                        notification.getContent(),
-                        notification.isRead(),
-                        notification.getCreatedAt(),
-                        new UserDTO(notification.getRecipient())
-                ))
-                .collect(Collectors.toList());
+    @Transactional
+    public void addNotifications(List<NotificationEntity> notifications) {
+        outboxRepository.saveAll(notifications.stream()
+                .map(notification -> new NotificationOutboxEntity(notification.getRecipient().getId(), notification.getTemplate(), notification.getParams()))
+                .toList());
+    }
+
+    @Override
+    public CursorPage<NotificationDTO> getNotificationsForUser(String cursor, int limit, boolean unreadOnly) {
+        Long userId = currentUserId();
+        int pageSize = CursorCodec.clampLimit(limit);
+        CursorCodec.TimestampCursor after = CursorCodec.decodeTimestampAndId(cursor);
+        List<NotificationDTO> notifications = notificationStore.findInbox(userId, after, unreadOnly, Limit.of(pageSize + 1));
+
+        return CursorPage.of(notifications, pageSize,
+                notification -> CursorCodec.encodeTimestampAndId(notification.getCreatedAt(), notification.getId()));
     }
 
 
@@ -60,29 +97,89 @@ public class NotificationServiceImpl implements NotificationService {
     @Transactional
     public ActionSuccessResponse markNotificationAsRead(Long notificationId) {
         String userEmail = tokenService.getEmail();
-        NotificationEntity notification = notificationRepository.findById(notificationId)
+        Long userId = currentUserId();
+        boolean wasUnread = notificationStore.markRead(userId, notificationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Notification not found"));
-        notification.setRead(true);
-        notificationRepository.save(notification);
+        if (wasUnread) {
+            unreadCounter.decrement(userId);
+        }
 
         return new ActionSuccessResponse(userEmail, "Notification marked as read! " + notificationId);
     }
 
     @Override
     public int countUnreadNotifications() {
-        String userEmail = tokenService.getEmail();
-        return notificationRepository.countByRecipientEmailAndIsReadFalse(userEmail);
+        return (int) unreadCounter.get(currentUserId());
     }
 
     @Override
+    @Transactional
     public ActionSuccessResponse deleteNotification(Long notificationId) {
         String userEmail = tokenService.getEmail();
-        if (!notificationRepository.existsById(notificationId)) {
-            throw new ResourceNotFoundException("Notification not found!");
+        Long userId = currentUserId();
+        boolean wasUnread = notificationStore.delete(userId, notificationId)
+                .orElseThrow(() -> new ResourceNotFoundException("Notification not found!"));
+        if (wasUnread) {
+            unreadCounter.decrement(userId);
         }
 
-        notificationRepository.deleteById(notificationId);
-
         return new ActionSuccessResponse(userEmail, "Notification deleted! " + notificationId);
     }
+
+    // upToId marks the newest notification the client has shown; it and everything older becomes read
+    @Override
+    @Transactional
+    public int markAllNotificationsAsRead(Long upToId) {
+        Long userId = currentUserId();
+        int updated = notificationStore.markAllRead(userId, upToId);
+
+        unreadCounter.increment(userId, -updated);
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int deleteNotifications(boolean readOnly, LocalDateTime olderThan) {
+        Long userId = currentUserId();
+        // unread ones are deleted on their own so the counter can be adjusted by exactly what was removed
+        int deletedUnread = readOnly ? 0 : notificationStore.deleteAll(userId, List.of(false), olderThan);
+        int deletedRead = notificationStore.deleteAll(userId, List.of(true), olderThan);
+
+        unreadCounter.increment(userId, -deletedUnread);
+        return deletedUnread + deletedRead;
+    }
+
+    // Called before a user is deleted, so their notifications go in two statements instead of being loaded one by one
+    @Override
+    @Transactional
+    public void deleteAllForUser(Long userId) {
+        outboxRepository.deleteByRecipientId(userId);
+        notificationStore.deleteAllForUser(userId);
+        unreadCounter.delete(userId);
+    }
+
+    @Override
+    public Optional<SseEmitter> openStream(String lastEventId) {
+        return Optional.ofNullable(streamHub.open(currentUserId(), lastEventId));
+    }
+
+    // Walks the old full-text rows by primary key, one transaction per chunk, so it can run on a live table
+    // and simply be started again if it is interrupted
+    @Override
+    public TemplateMigrationReportDTO migrateLegacyNotifications() {
+        long checked = 0;
+        long migrated = 0;
+        Long afterId = 0L;
+        List<NotificationEntity> chunk;
+        while (!(chunk = templateMigrator.migrateChunk(afterId)).isEmpty()) {
+            checked += chunk.size();
+            migrated += chunk.stream().filter(notification -> notification.getTemplate() != null).count();
+            afterId = chunk.get(chunk.size() - 1).getId();
+        }
+        return new TemplateMigrationReportDTO(checked, migrated);
+    }
+
+    private Long currentUserId() {
+        return tokenService.getCurrentUser().getId();
+    }
 }
@@ -0,0 +1,61 @@
+package javaweb.task_management_system.services;
+
+import javaweb.task_management_system.dtos.DeliveredNotification;
+import javaweb.task_management_system.dtos.NotificationDTO;
+import javaweb.task_management_system.models.NotificationOutboxEntity;
+import javaweb.task_management_system.repositories.NotificationRepository;
+import javaweb.task_management_system.utility.CursorCodec;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Where delivered notifications live, chosen with notifications.storage:
+// "rows" (default) writes one notifications row per recipient, "shared-events" writes one notification_events
+// row per distinct notification and links the recipients to it through notification_recipients.
+// Notification ids handed to clients are notification ids in the first mode and event ids in the second.
+public interface NotificationStore {
+
+    // Runs inside the relay's transaction
+    List<DeliveredNotification> write(List<NotificationOutboxEntity> pending);
+
+    List<NotificationDTO> findInbox(Long userId, CursorCodec.TimestampCursor after, boolean unreadOnly, Limit limit);
+
+    // Oldest first, after the (created_at, id) of the last notification a stream sent
+    List<NotificationDTO> findInboxSince(Long userId, CursorCodec.TimestampCursor after, Limit limit);
+
+    // Notifications of the given users created from since on, oldest first; polled by the stream hub of every node
+    List<DeliveredNotification> findCreatedSince(Collection<Long> userIds, LocalDateTime since, Limit limit);
+
+    // Empty when the user has no such notification, otherwise whether it was still unread
+    Optional<Boolean> markRead(Long userId, Long id);
+
+    Optional<Boolean> delete(Long userId, Long id);
+
+    // Throws ResourceNotFoundException when upToId is not one of the user's notifications
+    int markAllRead(Long userId, Long upToId);
+
+    int deleteAll(Long userId, Collection<Boolean> readStates, LocalDateTime olderThan);
+
+    void deleteAllForUser(Long userId);
+
+    long countUnread(Long userId);
+
+    List<NotificationRepository.UnreadCountView> countUnread(Collection<Long> userIds);
+
+    // Retention: oldest first, after the (created_at, id) of the previous chunk, or from the start when after is null.
+    // Ids are chunked by the caller and removed in one short transaction per chunk
+    List<NotificationRepository.ExpiredView> findExpired(CursorCodec.TimestampCursor after, LocalDateTime before,
+                                                         Collection<Boolean> readStates, Limit limit);
+
+    int deleteExpired(List<Long> ids, Collection<Boolean> readStates);
+
+    List<Long> findRecipientsOverLimit(long maxPerUser);
+
+    // The oldest ids of the user past their newest keep notifications
+    List<Long> findIdsPastNewest(Long userId, int keep, Collection<Boolean> readStates, Limit limit);
+
+    int deleteForRecipient(Long userId, List<Long> ids);
+}
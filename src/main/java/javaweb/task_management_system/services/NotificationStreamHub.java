@@ -0,0 +1,289 @@
+package javaweb.task_management_system.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import javaweb.task_management_system.dtos.DeliveredNotification;
+import javaweb.task_management_system.dtos.NotificationDTO;
+import javaweb.task_management_system.exceptions.InvalidValueException;
+import javaweb.task_management_system.utility.CursorCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+// Open notification streams of this node. Events are never written on the caller's thread: every connection
+// has a bounded buffer drained by a small sender pool, and a connection whose buffer overflows is closed so a
+// slow client cannot hold memory or block the outbox relay. The browser then reconnects with Last-Event-ID
+// (the (created_at, id) cursor of the last notification it got, as ids alone do not follow creation order across
+// nodes) and the missed notifications are replayed from the database. A replay holds at most one buffer; when
+// more was missed, or the id cannot be read, the client gets a resync event and reloads its inbox instead.
+//
+// The outbox relay of one node writes notifications for users connected to any node, so besides the relay's
+// direct publish, every hub polls the store for recent notifications of its own connected users. Each connection
+// remembers what it sent within the poll lookback, so a notification reaches it once whichever path comes first.
+// A notification relayed more than the lookback after it was queued (a backlog or retries) only reaches clients on
+// other nodes when they reconnect or reload.
+@Component
+public class NotificationStreamHub {
+
+    private static final int POLL_CHUNK_SIZE = 500;
+
+    private final NotificationStore notificationStore;
+    private final UnreadNotificationCounter unreadCounter;
+    private final Map<Long, Set<Connection>> connectionsByUser = new ConcurrentHashMap<>();
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final ExecutorService sender;
+    private final int maxConnections;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final Duration pollLookback;
+    private final int pollLimit;
+
+    @Autowired
+    public NotificationStreamHub(NotificationStore notificationStore, UnreadNotificationCounter unreadCounter,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${notifications.stream.max-connections:1000}") int maxConnections,
+                                 @Value("${notifications.stream.buffer-size:100}") int bufferSize,
+                                 @Value("${notifications.stream.timeout-ms:1800000}") long timeoutMs,
+                                 @Value("${notifications.stream.sender-threads:4}") int senderThreads,
+                                 @Value("${notifications.stream.poll-lookback:PT30S}") Duration pollLookback,
+                                 @Value("${notifications.stream.poll-limit:1000}") int pollLimit) {
+        this.notificationStore = notificationStore;
+        this.unreadCounter = unreadCounter;
+        this.maxConnections = maxConnections;
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.pollLookback = pollLookback;
+        this.pollLimit = pollLimit;
+        this.sender = Executors.newFixedThreadPool(senderThreads);
+
+        meterRegistry.gauge("notifications.stream.connections", openConnections);
+    }
+
+    // Returns null when this node already serves max-connections streams
+    public SseEmitter open(Long userId, String lastEventId) {
+        if (openConnections.incrementAndGet() > maxConnections) {
+            openConnections.decrementAndGet();
+            return null;
+        }
+
+        Connection connection = new Connection(userId, new SseEmitter(timeoutMs), LocalDateTime.now());
+        connection.emitter.onCompletion(() -> remove(connection));
+        connection.emitter.onTimeout(() -> remove(connection));
+        connection.emitter.onError(e -> remove(connection));
+        connectionsByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(connection);
+
+        // registered before replaying, so a notification relayed in between is not lost; the sent ids keep it from going out twice
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            replay(connection, lastEventId);
+        }
+        connection.offer(unreadCountEvent(unreadCounter.get(userId)));
+        return connection.emitter;
+    }
+
+    public void publish(List<DeliveredNotification> notifications) {
+        Map<Long, List<NotificationDTO>> byRecipient = notifications.stream()
+                .filter(delivered -> connectionsByUser.containsKey(delivered.getRecipientId()))
+                .collect(Collectors.groupingBy(DeliveredNotification::getRecipientId,
+                        Collectors.mapping(DeliveredNotification::getNotification, Collectors.toList())));
+
+        byRecipient.forEach((userId, dtos) -> {
+            Set<Connection> connections = connectionsByUser.get(userId);
+            if (connections == null) {
+                return;
+            }
+
+            // event builders are consumed when sent, so every connection gets its own
+            List<Connection> notified = new ArrayList<>();
+            connections.forEach(connection -> {
+                List<NotificationDTO> unsent = dtos.stream().filter(connection::markSent).toList();
+                unsent.forEach(notification -> connection.offer(notificationEvent(notification)));
+                if (!unsent.isEmpty()) {
+                    notified.add(connection);
+                }
+            });
+            if (notified.isEmpty()) {
+                return;
+            }
+
+            long unreadCount = unreadCounter.get(userId);
+            notified.forEach(connection -> connection.offer(unreadCountEvent(unreadCount)));
+        });
+    }
+
+    // Picks up what the relays of other nodes wrote for the users connected here
+    @Scheduled(fixedDelayString = "${notifications.stream.poll-ms:1000}")
+    public void poll() {
+        if (connectionsByUser.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime since = LocalDateTime.now().minus(pollLookback);
+        List<Long> userIds = List.copyOf(connectionsByUser.keySet());
+        for (int from = 0; from < userIds.size(); from += POLL_CHUNK_SIZE) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + POLL_CHUNK_SIZE, userIds.size()));
+            publish(notificationStore.findCreatedSince(chunk, since, Limit.of(pollLimit)));
+        }
+
+        connectionsByUser.values().forEach(connections -> connections.forEach(connection -> connection.forgetSentBefore(since)));
+    }
+
+    // Keeps proxies from closing idle streams and detects clients that went away without closing
+    @Scheduled(fixedDelayString = "${notifications.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        connectionsByUser.values().forEach(connections ->
+                connections.forEach(connection -> connection.offer(SseEmitter.event().comment("heartbeat"))));
+    }
+
+    // Runs before the web server's graceful shutdown, which would otherwise wait for every open stream to time out
+    @EventListener(ContextClosedEvent.class)
+    public void closeStreams() {
+        connectionsByUser.values().forEach(connections -> connections.forEach(connection -> connection.emitter.complete()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdown();
+    }
+
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    // Leaves room in the buffer for the resync and unread-count events
+    private void replay(Connection connection, String lastEventId) {
+        CursorCodec.TimestampCursor after;
+        try {
+            after = CursorCodec.decodeTimestampAndId(lastEventId);
+        } catch (InvalidValueException e) {
+            connection.offer(resyncEvent());
+            return;
+        }
+
+        int maxReplayed = Math.max(0, bufferSize - 2);
+        List<NotificationDTO> missed = notificationStore.findInboxSince(connection.userId, after, Limit.of(maxReplayed + 1));
+        connection.notBefore = after.getTimestamp();
+        connection.sent.put(after.getId(), after.getTimestamp());
+        missed.stream().limit(maxReplayed).filter(connection::markSent)
+                .forEach(notification -> connection.offer(notificationEvent(notification)));
+        if (missed.size() > maxReplayed) {
+            connection.offer(resyncEvent());
+        }
+    }
+
+    private void remove(Connection connection) {
+        if (!connection.closed.compareAndSet(false, true)) {
+            return;
+        }
+        openConnections.decrementAndGet();
+        connectionsByUser.computeIfPresent(connection.userId, (id, connections) -> {
+            connections.remove(connection);
+            return connections.isEmpty() ? null : connections;
+        });
+    }
+
+    private SseEmitter.SseEventBuilder notificationEvent(NotificationDTO notification) {
+        return SseEmitter.event()
+                .id(CursorCodec.encodeTimestampAndId(notification.getCreatedAt(), notification.getId()))
+                .name("notification")
+                .data(notification, MediaType.APPLICATION_JSON);
+    }
+
+    private SseEmitter.SseEventBuilder unreadCountEvent(long unreadCount) {
+        return SseEmitter.event()
+                .name("unread-count")
+                .data(Map.of("unreadCount", unreadCount), MediaType.APPLICATION_JSON);
+    }
+
+    private SseEmitter.SseEventBuilder resyncEvent() {
+        return SseEmitter.event()
+                .name("resync")
+                .data(Map.of(), MediaType.APPLICATION_JSON);
+    }
+
+    private class Connection {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // notification id -> created_at of what this connection sent within the poll lookback
+        private final Map<Long, LocalDateTime> sent = new ConcurrentHashMap<>();
+        // older notifications were already in the inbox the client loaded, or in its replay
+        private volatile LocalDateTime notBefore;
+
+        private Connection(Long userId, SseEmitter emitter, LocalDateTime notBefore) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.notBefore = notBefore;
+        }
+
+        // False when the notification predates the connection or was already sent on it
+        private boolean markSent(NotificationDTO notification) {
+            return !notification.getCreatedAt().isBefore(notBefore)
+                    && sent.putIfAbsent(notification.getId(), notification.getCreatedAt()) == null;
+        }
+
+        private void forgetSentBefore(LocalDateTime since) {
+            sent.values().removeIf(createdAt -> createdAt.isBefore(since));
+        }
+
+        private void offer(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                close();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed.get() && (event = buffer.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            } finally {
+                draining.set(false);
+            }
+
+            // an event offered after the loop ended but before the flag was cleared still has to go out
+            if (!closed.get() && !buffer.isEmpty() && draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void close() {
+            remove(this);
+            buffer.clear();
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package javaweb.task_management_system.services;
+
+import jakarta.transaction.Transactional;
+import javaweb.task_management_system.models.NotificationEntity;
+import javaweb.task_management_system.repositories.NotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Rewrites one chunk of notifications stored as full text into template rows, in its own transaction.
+// Text that matches no template is left as it is and still rendered from content.
+@Component
+public class NotificationTemplateMigrator {
+
+    private final NotificationRepository notificationRepository;
+    private final int chunkSize;
+
+    @Autowired
+    public NotificationTemplateMigrator(NotificationRepository notificationRepository,
+                                        @Value("${notifications.template-migration.chunk-size:500}") int chunkSize) {
+        this.notificationRepository = notificationRepository;
+        this.chunkSize = chunkSize;
+    }
+
+    @Transactional
+    public List<NotificationEntity> migrateChunk(Long afterId) {
+        List<NotificationEntity> legacy = notificationRepository.findLegacyAfter(afterId, Limit.of(chunkSize));
+        legacy.forEach(NotificationEntity::migrateLegacyContent);
+        return legacy;
+    }
+}
@@ -0,0 +1,89 @@
+package javaweb.task_management_system.services;
+
+import jakarta.transaction.Transactional;
+import javaweb.task_management_system.dtos.DeliveredNotification;
+import javaweb.task_management_system.models.NotificationOutboxEntity;
+import javaweb.task_management_system.repositories.NotificationOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+@Component
+public class NotificationWriter {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationStore notificationStore;
+    private final UnreadNotificationCounter unreadCounter;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+
+    @Autowired
+    public NotificationWriter(NotificationOutboxRepository outboxRepository, NotificationStore notificationStore,
+                              UnreadNotificationCounter unreadCounter,
+                              @Value("${notifications.outbox.max-attempts:10}") int maxAttempts,
+                              @Value("${notifications.outbox.retry-backoff:PT5S}") Duration retryBackoff) {
+        this.outboxRepository = outboxRepository;
+        this.notificationStore = notificationStore;
+        this.unreadCounter = unreadCounter;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+    }
+
+    // Claims a chunk of outbox rows, writes them to the notification store, counts them as unread and removes them,
+    // all in one transaction. Counters are adjusted in user id order so two relays cannot deadlock on them.
+    @Transactional
+    public List<DeliveredNotification> relayChunk(int limit) {
+        return write(outboxRepository.claimBatch(LocalDateTime.now(), limit));
+    }
+
+    // The same for a single row, so the rows of a failing chunk can be told apart
+    @Transactional
+    public List<DeliveredNotification> relayRow(Long id) {
+        return write(outboxRepository.claimById(id, LocalDateTime.now()));
+    }
+
+    // Runs after the failed attempt rolled back. The row is retried with an exponential backoff and dead-lettered
+    // after max-attempts; returns whether it was dead-lettered.
+    @Transactional
+    public boolean recordFailure(Long id, RuntimeException failure) {
+        return outboxRepository.findByIdForUpdate(id).map(outbox -> {
+            LocalDateTime now = LocalDateTime.now();
+            int attempts = outbox.getAttempts() + 1;
+            outbox.setAttempts(attempts);
+            outbox.setLastError(describe(failure));
+            if (attempts >= maxAttempts) {
+                outbox.setDeadLetteredAt(now);
+                return true;
+            }
+            outbox.setAvailableAt(now.plus(retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 16))));
+            return false;
+        }).orElse(false);
+    }
+
+    private List<DeliveredNotification> write(List<NotificationOutboxEntity> claimed) {
+        if (claimed.isEmpty()) {
+            return List.of();
+        }
+
+        List<DeliveredNotification> written = notificationStore.write(claimed);
+        outboxRepository.deleteByIds(claimed.stream().map(NotificationOutboxEntity::getId).toList());
+        written.stream()
+                .collect(Collectors.groupingBy(DeliveredNotification::getRecipientId, TreeMap::new, Collectors.counting()))
+                .forEach(unreadCounter::increment);
+        return written;
+    }
+
+    private String describe(RuntimeException failure) {
+        String error = NestedExceptionUtils.getMostSpecificCause(failure).toString();
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
@@ -2,36 +2,50 @@ package javaweb.task_management_system.services;
 
 import jakarta.transaction.Transactional;
 import javaweb.task_management_system.dtos.ActionSuccessResponse;
+import javaweb.task_management_system.dtos.CursorPage;
 import javaweb.task_management_system.dtos.ProjectDetailsDTO;
 import javaweb.task_management_system.dtos.TaskDetailsDTO;
+import javaweb.task_management_system.dtos.TaskFilter;
 import javaweb.task_management_system.exceptions.InvalidUserException;
 import javaweb.task_management_system.exceptions.InvalidValueException;
 import javaweb.task_management_system.exceptions.ResourceNotFoundException;
+import javaweb.task_management_system.models.NotificationTemplate;
 import javaweb.task_management_system.models.ProjectEntity;
 import javaweb.task_management_system.models.UserEntity;
 import javaweb.task_management_system.repositories.ProjectRepository;
+import javaweb.task_management_system.repositories.TaskRepository;
 import javaweb.task_management_system.repositories.UserRepository;
+import javaweb.task_management_system.utility.AuthenticatedUser;
+import javaweb.task_management_system.utility.CursorCodec;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 public class ProjectServiceImpl implements  ProjectService{
 
+    // tasks embedded in every project of /details; the rest are paged through /{projectId}/tasks
+    public static final int TASKS_PER_PROJECT = 20;
+
     private final ProjectRepository projectRepository;
-    private final UserService userService;
     private final TokenService tokenService;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final TaskRepository taskRepository;
+    private final TaskProgressCounterService progressCounterService;
+    private final DataVersionService dataVersionService;
 
     @Autowired
-    public ProjectServiceImpl(ProjectRepository projectRepository, UserService userService, TokenService tokenService, UserRepository userRepository, NotificationService notificationService) {
+    public ProjectServiceImpl(ProjectRepository projectRepository, TokenService tokenService, UserRepository userRepository, NotificationService notificationService, TaskRepository taskRepository, TaskProgressCounterService progressCounterService, DataVersionService dataVersionService) {
         this.projectRepository = projectRepository;
+        this.dataVersionService = dataVersionService;
+        this.progressCounterService = progressCounterService;
+        this.taskRepository = taskRepository;
         this.notificationService = notificationService;
-        this.userService = userService;
         this.tokenService = tokenService;
         this.userRepository = userRepository;
     }
@@ -39,29 +53,33 @@ public class ProjectServiceImpl implements  ProjectService{
     @Transactional
     @Override
     public ActionSuccessResponse addProject(ProjectEntity project) {
-        String ownerEmail = tokenService.getEmail();
+        AuthenticatedUser currentUser = tokenService.getCurrentUser();
 
-        UserEntity owner = userService.findByEmail(ownerEmail);
+        UserEntity owner = userRepository.getReferenceById(currentUser.getId());
         project.setOwner(owner);
         projectRepository.save(project);
-        notificationService.addNotification("Project: " + project.getName() + " has been added!", owner);
-        return new ActionSuccessResponse(owner.getEmail(), "Project added! " + project.getId());
+        dataVersionService.bumpForUsers(List.of(currentUser.getId()));
+        notificationService.addNotification(owner, NotificationTemplate.PROJECT_ADDED, project.getName());
+        return new ActionSuccessResponse(currentUser.getEmail(), "Project added! " + project.getId());
     }
 
     @Override
+    @Transactional
     public ActionSuccessResponse deleteProject(Long projectId) {
         ProjectEntity project = projectRepository.findById(projectId)
                 .orElseThrow(() -> new ResourceNotFoundException("Project not found"));
 
-        String ownerEmail = tokenService.getEmail();
-        if (!project.getOwner().getEmail().equals(ownerEmail)) {
+        AuthenticatedUser currentUser = tokenService.getCurrentUser();
+        if (!project.getOwner().getId().equals(currentUser.getId())) {
             throw new InvalidValueException("You are not authorized to delete this project");
         }
         String projectName = project.getName();
         UserEntity owner = project.getOwner();
+        progressCounterService.decrementForProject(projectId);
+        dataVersionService.bumpForProject(projectId);
         projectRepository.delete(project);
-        notificationService.addNotification("Project: " + projectName + " has been deleted!", owner);
-        return new ActionSuccessResponse(ownerEmail, "Project removed " + projectId);
+        notificationService.addNotification(owner, NotificationTemplate.PROJECT_DELETED, projectName);
+        return new ActionSuccessResponse(currentUser.getEmail(), "Project removed " + projectId);
     }
 
     @Override
@@ -71,10 +89,11 @@ public class ProjectServiceImpl implements  ProjectService{
         ProjectEntity existingProject = projectRepository.findById(projectId)
                 .orElseThrow(() -> new ResourceNotFoundException("Project not found"));
 
-        String ownerEmail = tokenService.getEmail();
-        if (!existingProject.getOwner().getEmail().equals(ownerEmail)) {
+        AuthenticatedUser currentUser = tokenService.getCurrentUser();
+        if (!existingProject.getOwner().getId().equals(currentUser.getId())) {
             throw new InvalidValueException("You are not authorized to update this project");
         }
+        dataVersionService.bumpForProject(projectId);
         if(updatedProject.getName() != null && !updatedProject.getName().isBlank())
         {
             existingProject.setName(updatedProject.getName());
@@ -97,10 +116,10 @@ public class ProjectServiceImpl implements  ProjectService{
 
                 existingProject.setOwner(newOwner);
 
-                notificationService.addNotification("You are now the owner of the project: " + existingProject.getName(), newOwner);
+                notificationService.addNotification(newOwner, NotificationTemplate.PROJECT_OWNER_GRANTED, existingProject.getName());
 
                 if (!oldOwner.equals(newOwner)) {
-                    notificationService.addNotification("You are no longer the owner of the project: " + existingProject.getName(), oldOwner);
+                    notificationService.addNotification(oldOwner, NotificationTemplate.PROJECT_OWNER_REVOKED, existingProject.getName());
                 }
                 isUpdated = true;
             }
@@ -109,55 +128,65 @@ public class ProjectServiceImpl implements  ProjectService{
         if(isUpdated){
             UserEntity oldOwner = existingProject.getOwner();
             projectRepository.save(existingProject);
+            // the new owner starts seeing the project
+            dataVersionService.bumpForProject(projectId);
 
             if (existingProject.getOwner() != null && !existingProject.getOwner().equals(updatedProject.getOwner())) {
-                notificationService.addNotification("Project: " + existingProject.getName() + " has been updated!", existingProject.getOwner());
+                notificationService.addNotification(existingProject.getOwner(), NotificationTemplate.PROJECT_UPDATED, existingProject.getName());
             }
 
         }
 
 
-        return new ActionSuccessResponse(ownerEmail, "Project updated! " + projectId);
+        return new ActionSuccessResponse(currentUser.getEmail(), "Project updated! " + projectId);
     }
 
 
     @Override
-    public List<ProjectDetailsDTO> getProjectsForCurrentUserWithTasks() {
-
-        String userEmail = tokenService.getEmail();
+    public CursorPage<ProjectDetailsDTO> getProjectsForCurrentUserWithTasks(String cursor, int limit) {
 
-        List<ProjectEntity> projects = projectRepository.findByOwnerEmail(userEmail);
+        Long userId = tokenService.getCurrentUser().getId();
 
-        return projects.stream().map(project -> {
-            ProjectDetailsDTO projectDetails = new ProjectDetailsDTO();
-            projectDetails.setId(project.getId());
-            projectDetails.setName(project.getName());
-            projectDetails.setDescription(project.getDescription());
+        int pageSize = CursorCodec.clampLimit(limit);
+        Long afterId = CursorCodec.decodeId(cursor);
 
-            List<TaskDetailsDTO> taskDetails = (project.getTasks() != null ? project.getTasks().stream()
-                    .map(task -> {
-                        TaskDetailsDTO taskDetail = new TaskDetailsDTO();
-                        taskDetail.setId(task.getId());
-                        taskDetail.setName(task.getName());
-                        taskDetail.setStatus(task.getStatus().getName());
+        List<ProjectDetailsDTO> rows = projectRepository.findDetailsByOwnerId(userId,
+                afterId != null ? afterId : 0L, Limit.of(pageSize + 1));
+        CursorPage<ProjectDetailsDTO> page = CursorPage.of(rows, pageSize, project -> CursorCodec.encodeId(project.getId()));
 
-                        List<String> assigneeEmails = task.getAssignees().stream()
-                                .filter(assignee -> assignee.getEmail() != null)
-                                .map(assignee -> assignee.getEmail())
-                                .collect(Collectors.toList());
+        if (!page.getItems().isEmpty()) {
+            Map<Long, ProjectDetailsDTO> projectsById = new HashMap<>();
+            page.getItems().forEach(project -> projectsById.put(project.getId(), project));
 
-                        taskDetail.setAssignedUsers(assigneeEmails);
+            // one task more than is embedded tells whether the project needs a tasks cursor
+            List<Long> taskIds = taskRepository.findFirstIdsPerProject(projectsById.keySet(), TASKS_PER_PROJECT + 1);
+            if (!taskIds.isEmpty()) {
+                taskRepository.findTaskDetails(TaskFilter.forTasks(taskIds), null, taskIds.size())
+                        .forEach(task -> projectsById.get(task.getProjectId()).getTasks().add(task));
+            }
+            page.getItems().forEach(project -> {
+                CursorPage<TaskDetailsDTO> tasks = CursorPage.of(project.getTasks(), TASKS_PER_PROJECT,
+                        task -> CursorCodec.encodeId(task.getId()));
+                project.setTasks(tasks.getItems());
+                project.setTasksNext(tasks.getNext());
+            });
+        }
 
-                        taskDetail.setTaskOwner(task.getProject().getOwner().getEmail());
-                        taskDetail.setProjectName(project.getName());
-                        taskDetail.setDueDate(task.getDueDate());
+        return page;
+    }
 
-                        return taskDetail;
-                    }).collect(Collectors.toList()) : new ArrayList<>());
+    @Override
+    public CursorPage<TaskDetailsDTO> getTasksForProject(Long projectId, String cursor, int limit) {
+        ProjectEntity project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new ResourceNotFoundException("Project not found"));
+        if (!project.getOwner().getId().equals(tokenService.getCurrentUser().getId())) {
+            throw new InvalidValueException("You are not authorized to view this project");
+        }
 
-            projectDetails.setTasks(taskDetails);
-            return projectDetails;
-        }).collect(Collectors.toList());
+        int pageSize = CursorCodec.clampLimit(limit);
+        List<TaskDetailsDTO> rows = taskRepository.findTaskDetails(TaskFilter.forProjects(List.of(projectId)),
+                CursorCodec.decodeId(cursor), pageSize + 1);
+        return CursorPage.of(rows, pageSize, task -> CursorCodec.encodeId(task.getId()));
     }
 
 
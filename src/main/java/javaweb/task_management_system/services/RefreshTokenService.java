@@ -0,0 +1,26 @@
+package javaweb.task_management_system.services;
+
+public interface RefreshTokenService {
+    String issue(Long userId);
+    Rotation rotate(String token);
+    void revoke(String token);
+    void deleteAllForUser(Long userId);
+
+    class Rotation {
+        private final Long userId;
+        private final String token;
+
+        public Rotation(Long userId, String token) {
+            this.userId = userId;
+            this.token = token;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public String getToken() {
+            return token;
+        }
+    }
+}
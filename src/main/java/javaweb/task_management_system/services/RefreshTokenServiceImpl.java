@@ -0,0 +1,99 @@
+package javaweb.task_management_system.services;
+
+import jakarta.transaction.Transactional;
+import javaweb.task_management_system.exceptions.InvalidValueException;
+import javaweb.task_management_system.models.RefreshTokenEntity;
+import javaweb.task_management_system.repositories.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+// Refresh tokens are 256 random bits handed to the client once; only their SHA-256 is stored, so a copy of the
+// table cannot be used to log in. Each refresh consumes the token and issues the next one of the same family.
+@Service
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenServiceImpl.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final SecureRandom random = new SecureRandom();
+    private final long ttlDays;
+
+    @Autowired
+    public RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository,
+                                   @Value("${jwt.refresh-token.ttl-days:14}") long ttlDays) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.ttlDays = ttlDays;
+    }
+
+    @Override
+    @Transactional
+    public String issue(Long userId) {
+        // the user's expired tokens are cleaned up here instead of by a separate job
+        refreshTokenRepository.deleteExpiredByUserId(userId, LocalDateTime.now());
+        return issue(userId, UUID.randomUUID().toString());
+    }
+
+    // the family is deleted on reuse even though the exception is thrown
+    @Override
+    @Transactional(dontRollbackOn = InvalidValueException.class)
+    public Rotation rotate(String token) {
+        RefreshTokenEntity current = refreshTokenRepository.findByTokenHash(hash(token))
+                .orElseThrow(() -> new InvalidValueException("Refresh token is not valid!"));
+
+        LocalDateTime now = LocalDateTime.now();
+        if (!current.getExpiresAt().isAfter(now)) {
+            throw new InvalidValueException("Refresh token has expired!");
+        }
+        if (refreshTokenRepository.markUsed(current.getId(), now) == 0) {
+            // a token that was already exchanged is being replayed; whoever holds the family can no longer be trusted
+            logger.warn("Refresh token reuse for user {}, revoking its session", current.getUserId());
+            refreshTokenRepository.deleteByFamilyId(current.getFamilyId());
+            throw new InvalidValueException("Refresh token was already used!");
+        }
+
+        return new Rotation(current.getUserId(), issue(current.getUserId(), current.getFamilyId()));
+    }
+
+    @Override
+    @Transactional
+    public void revoke(String token) {
+        refreshTokenRepository.findByTokenHash(hash(token))
+                .ifPresent(current -> refreshTokenRepository.deleteByFamilyId(current.getFamilyId()));
+    }
+
+    @Override
+    @Transactional
+    public void deleteAllForUser(Long userId) {
+        refreshTokenRepository.deleteByUserId(userId);
+    }
+
+    private String issue(Long userId, String familyId) {
+        byte[] value = new byte[32];
+        random.nextBytes(value);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(value);
+
+        refreshTokenRepository.save(new RefreshTokenEntity(userId, hash(token), familyId, LocalDateTime.now().plusDays(ttlDays)));
+        return token;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package javaweb.task_management_system.services;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import javaweb.task_management_system.dtos.DeliveredNotification;
+import javaweb.task_management_system.dtos.NotificationDTO;
+import javaweb.task_management_system.exceptions.ResourceNotFoundException;
+import javaweb.task_management_system.models.NotificationEntity;
+import javaweb.task_management_system.models.NotificationOutboxEntity;
+import javaweb.task_management_system.models.UserEntity;
+import javaweb.task_management_system.repositories.NotificationRepository;
+import javaweb.task_management_system.utility.CursorCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// One notifications row per recipient
+@Component
+@ConditionalOnProperty(name = "notifications.storage", havingValue = "rows", matchIfMissing = true)
+public class RowNotificationStore implements NotificationStore {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final NotificationRepository notificationRepository;
+
+    @Autowired
+    public RowNotificationStore(NotificationRepository notificationRepository) {
+        this.notificationRepository = notificationRepository;
+    }
+
+    // Recipients are referenced by id, so no user rows are read
+    @Override
+    public List<DeliveredNotification> write(List<NotificationOutboxEntity> pending) {
+        List<DeliveredNotification> written = new ArrayList<>(pending.size());
+        for (NotificationOutboxEntity outbox : pending) {
+            NotificationEntity notification = new NotificationEntity(
+                    entityManager.getReference(UserEntity.class, outbox.getRecipientId()), outbox.getTemplate());
+            notification.setParams(outbox.getParams());
+            notification.setOccurrences(outbox.getOccurrences());
+            notification.setCreatedAt(outbox.getCreatedAt());
+            entityManager.persist(notification);
+            written.add(new DeliveredNotification(outbox.getRecipientId(), new NotificationDTO(notification.getId(),
+                    notification.getContent(), notification.getOccurrences(), notification.isRead(), notification.getCreatedAt())));
+        }
+        return written;
+    }
+
+    @Override
+    public List<NotificationDTO> findInbox(Long userId, CursorCodec.TimestampCursor after, boolean unreadOnly, Limit limit) {
+        if (after == null) {
+            return unreadOnly
+                    ? notificationRepository.findUnreadInbox(userId, limit)
+                    : notificationRepository.findInbox(userId, limit);
+        }
+        return unreadOnly
+                ? notificationRepository.findUnreadInboxAfter(userId, after.getTimestamp(), after.getId(), limit)
+                : notificationRepository.findInboxAfter(userId, after.getTimestamp(), after.getId(), limit);
+    }
+
+    @Override
+    public List<NotificationDTO> findInboxSince(Long userId, CursorCodec.TimestampCursor after, Limit limit) {
+        return notificationRepository.findInboxSince(userId, after.getTimestamp(), after.getId(), limit);
+    }
+
+    @Override
+    public List<DeliveredNotification> findCreatedSince(Collection<Long> userIds, LocalDateTime since, Limit limit) {
+        return notificationRepository.findCreatedSince(userIds, since, limit);
+    }
+
+    @Override
+    @Transactional
+    public Optional<Boolean> markRead(Long userId, Long id) {
+        return findOwned(userId, id).map(notification -> {
+            boolean wasUnread = !notification.isRead();
+            notification.setRead(true);
+            return wasUnread;
+        });
+    }
+
+    @Override
+    @Transactional
+    public Optional<Boolean> delete(Long userId, Long id) {
+        return findOwned(userId, id).map(notification -> {
+            notificationRepository.delete(notification);
+            return !notification.isRead();
+        });
+    }
+
+    @Override
+    public int markAllRead(Long userId, Long upToId) {
+        if (upToId == null) {
+            return notificationRepository.markAllRead(userId);
+        }
+        LocalDateTime createdAt = notificationRepository.findCreatedAtByIdAndRecipientId(upToId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Notification not found!"));
+        return notificationRepository.markReadUpTo(userId, createdAt, upToId);
+    }
+
+    @Override
+    public int deleteAll(Long userId, Collection<Boolean> readStates, LocalDateTime olderThan) {
+        return olderThan == null
+                ? notificationRepository.deleteByReadStates(userId, readStates)
+                : notificationRepository.deleteByReadStatesOlderThan(userId, readStates, olderThan);
+    }
+
+    @Override
+    public void deleteAllForUser(Long userId) {
+        notificationRepository.deleteByRecipientId(userId);
+    }
+
+    @Override
+    public long countUnread(Long userId) {
+        return notificationRepository.countByRecipientIdAndIsReadFalse(userId);
+    }
+
+    @Override
+    public List<NotificationRepository.UnreadCountView> countUnread(Collection<Long> userIds) {
+        return notificationRepository.countUnreadByRecipientIds(userIds);
+    }
+
+    @Override
+    public List<NotificationRepository.ExpiredView> findExpired(CursorCodec.TimestampCursor after, LocalDateTime before,
+                                                                Collection<Boolean> readStates, Limit limit) {
+        if (after == null) {
+            return notificationRepository.findExpired(before, readStates, limit);
+        }
+        return notificationRepository.findExpiredAfter(after.getTimestamp(), after.getId(), before, readStates, limit);
+    }
+
+    // findExpired already applied the read states
+    @Override
+    public int deleteExpired(List<Long> ids, Collection<Boolean> readStates) {
+        return notificationRepository.deleteByIds(ids);
+    }
+
+    @Override
+    public List<Long> findRecipientsOverLimit(long maxPerUser) {
+        return notificationRepository.findRecipientsOverLimit(maxPerUser);
+    }
+
+    @Override
+    public List<Long> findIdsPastNewest(Long userId, int keep, Collection<Boolean> readStates, Limit limit) {
+        List<NotificationDTO> boundary = notificationRepository.findInbox(userId, PageRequest.of(keep, 1));
+        if (boundary.isEmpty()) {
+            return List.of();
+        }
+        NotificationDTO firstRemoved = boundary.get(0);
+        return notificationRepository.findIdsUpTo(userId, firstRemoved.getCreatedAt(), firstRemoved.getId(), readStates, limit);
+    }
+
+    @Override
+    public int deleteForRecipient(Long userId, List<Long> ids) {
+        return notificationRepository.deleteByIds(ids);
+    }
+
+    private Optional<NotificationEntity> findOwned(Long userId, Long id) {
+        return notificationRepository.findById(id)
+                .filter(notification -> notification.getRecipient().getId().equals(userId));
+    }
+}
@@ -0,0 +1,211 @@
+package javaweb.task_management_system.services;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import javaweb.task_management_system.dtos.DeliveredNotification;
+import javaweb.task_management_system.dtos.NotificationDTO;
+import javaweb.task_management_system.exceptions.ResourceNotFoundException;
+import javaweb.task_management_system.models.NotificationEventEntity;
+import javaweb.task_management_system.models.NotificationOutboxEntity;
+import javaweb.task_management_system.models.NotificationRecipientEntity;
+import javaweb.task_management_system.models.NotificationRecipientId;
+import javaweb.task_management_system.repositories.NotificationEventRepository;
+import javaweb.task_management_system.repositories.NotificationRecipientRepository;
+import javaweb.task_management_system.repositories.NotificationRepository;
+import javaweb.task_management_system.utility.CursorCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Fan-out on read: a notification sent to many users (e.g. a deleted task with many assignees) is one wide
+// notification_events row plus one narrow (user_id, event_id, is_read) link per recipient, and the inbox joins
+// the event while reading. Event ids come from a pooled sequence, so on several nodes they do not follow creation
+// order: the inbox is ordered and paged by (created_at, event id), copied onto every link. Events left without recipients by single deletes and retention are removed right away;
+// the ones left behind by bulk inbox deletes are removed by the retention job once they expire.
+@Component
+@ConditionalOnProperty(name = "notifications.storage", havingValue = "shared-events")
+public class SharedEventNotificationStore implements NotificationStore {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final NotificationEventRepository eventRepository;
+    private final NotificationRecipientRepository recipientRepository;
+
+    @Autowired
+    public SharedEventNotificationStore(NotificationEventRepository eventRepository,
+                                        NotificationRecipientRepository recipientRepository) {
+        this.eventRepository = eventRepository;
+        this.recipientRepository = recipientRepository;
+    }
+
+    // Outbox rows of one chunk with the same template, parameters and merged update count become one event.
+    // Every outbox row still gets its own link: a recipient can be linked to an event only once, so when the same
+    // notification is queued more than once for a user in a chunk, the repeats go to further events.
+    // Sharing stops at the chunk: the outbox keeps one row per recipient, because coalescing merges a burst into
+    // the pending row of each recipient separately, so copies of one notification relayed in different chunks
+    // become separate events.
+    @Override
+    public List<DeliveredNotification> write(List<NotificationOutboxEntity> pending) {
+        Map<List<Object>, List<List<NotificationOutboxEntity>>> byContent = new LinkedHashMap<>();
+        Map<List<Object>, Integer> repeats = new HashMap<>();
+        for (NotificationOutboxEntity outbox : pending) {
+            List<Object> content = Arrays.asList(outbox.getTemplate(), outbox.getParams(), outbox.getOccurrences());
+            List<List<NotificationOutboxEntity>> events = byContent.computeIfAbsent(content, key -> new ArrayList<>());
+            // the n-th copy of a notification for a recipient goes to the n-th event of that content
+            int repeat = repeats.merge(Arrays.asList(content, outbox.getRecipientId()), 1, Integer::sum) - 1;
+            if (repeat == events.size()) {
+                events.add(new ArrayList<>());
+            }
+            events.get(repeat).add(outbox);
+        }
+
+        List<DeliveredNotification> written = new ArrayList<>(pending.size());
+        byContent.values().forEach(events -> events.forEach(recipients -> write(recipients, written)));
+        return written;
+    }
+
+    private void write(List<NotificationOutboxEntity> recipients, List<DeliveredNotification> written) {
+        NotificationOutboxEntity first = recipients.get(0);
+        NotificationEventEntity event = new NotificationEventEntity(first.getTemplate(), first.getParams(), first.getOccurrences(),
+                first.getCreatedAt());
+        entityManager.persist(event);
+        NotificationDTO notification = new NotificationDTO(event.getId(), event.getTemplate(), event.getParams(),
+                event.getOccurrences(), false, event.getCreatedAt());
+
+        for (NotificationOutboxEntity outbox : recipients) {
+            // persist rather than save: the key is assigned, so save would select the link first
+            entityManager.persist(new NotificationRecipientEntity(outbox.getRecipientId(), event.getId(), event.getCreatedAt()));
+            written.add(new DeliveredNotification(outbox.getRecipientId(), notification));
+        }
+    }
+
+    @Override
+    public List<NotificationDTO> findInbox(Long userId, CursorCodec.TimestampCursor after, boolean unreadOnly, Limit limit) {
+        if (after == null) {
+            return unreadOnly
+                    ? recipientRepository.findUnreadInbox(userId, limit)
+                    : recipientRepository.findInbox(userId, limit);
+        }
+        return unreadOnly
+                ? recipientRepository.findUnreadInboxAfter(userId, after.getTimestamp(), after.getId(), limit)
+                : recipientRepository.findInboxAfter(userId, after.getTimestamp(), after.getId(), limit);
+    }
+
+    @Override
+    public List<NotificationDTO> findInboxSince(Long userId, CursorCodec.TimestampCursor after, Limit limit) {
+        return recipientRepository.findInboxSince(userId, after.getTimestamp(), after.getId(), limit);
+    }
+
+    @Override
+    public List<DeliveredNotification> findCreatedSince(Collection<Long> userIds, LocalDateTime since, Limit limit) {
+        return recipientRepository.findCreatedSince(userIds, since, limit);
+    }
+
+    @Override
+    @Transactional
+    public Optional<Boolean> markRead(Long userId, Long id) {
+        return recipientRepository.findById(new NotificationRecipientId(userId, id)).map(link -> {
+            boolean wasUnread = !link.isRead();
+            link.setRead(true);
+            return wasUnread;
+        });
+    }
+
+    @Override
+    @Transactional
+    public Optional<Boolean> delete(Long userId, Long id) {
+        return recipientRepository.findById(new NotificationRecipientId(userId, id)).map(link -> {
+            recipientRepository.delete(link);
+            entityManager.flush();
+            eventRepository.deleteUnreferenced(List.of(id));
+            return !link.isRead();
+        });
+    }
+
+    @Override
+    public int markAllRead(Long userId, Long upToId) {
+        if (upToId == null) {
+            return recipientRepository.markAllRead(userId);
+        }
+        LocalDateTime createdAt = recipientRepository.findCreatedAtByUserIdAndEventId(userId, upToId)
+                .orElseThrow(() -> new ResourceNotFoundException("Notification not found!"));
+        return recipientRepository.markReadUpTo(userId, createdAt, upToId);
+    }
+
+    @Override
+    public int deleteAll(Long userId, Collection<Boolean> readStates, LocalDateTime olderThan) {
+        return olderThan == null
+                ? recipientRepository.deleteByReadStates(userId, readStates)
+                : recipientRepository.deleteByReadStatesOlderThan(userId, readStates, olderThan);
+    }
+
+    @Override
+    public void deleteAllForUser(Long userId) {
+        recipientRepository.deleteByUserId(userId);
+    }
+
+    @Override
+    public long countUnread(Long userId) {
+        return recipientRepository.countByUserIdAndIsReadFalse(userId);
+    }
+
+    @Override
+    public List<NotificationRepository.UnreadCountView> countUnread(Collection<Long> userIds) {
+        return recipientRepository.countUnreadByUserIds(userIds);
+    }
+
+    @Override
+    public List<NotificationRepository.ExpiredView> findExpired(CursorCodec.TimestampCursor after, LocalDateTime before,
+                                                                Collection<Boolean> readStates, Limit limit) {
+        if (after == null) {
+            return eventRepository.findExpired(before, limit);
+        }
+        return eventRepository.findExpiredAfter(after.getTimestamp(), after.getId(), before, limit);
+    }
+
+    // Counts removed links, i.e. notifications as the recipients saw them
+    @Override
+    @Transactional
+    public int deleteExpired(List<Long> ids, Collection<Boolean> readStates) {
+        int deleted = recipientRepository.deleteByEventIds(ids, readStates);
+        eventRepository.deleteUnreferenced(ids);
+        return deleted;
+    }
+
+    @Override
+    public List<Long> findRecipientsOverLimit(long maxPerUser) {
+        return recipientRepository.findRecipientsOverLimit(maxPerUser);
+    }
+
+    @Override
+    public List<Long> findIdsPastNewest(Long userId, int keep, Collection<Boolean> readStates, Limit limit) {
+        List<NotificationRecipientEntity> boundary = recipientRepository.findLinks(userId, PageRequest.of(keep, 1));
+        if (boundary.isEmpty()) {
+            return List.of();
+        }
+        NotificationRecipientEntity firstRemoved = boundary.get(0);
+        return recipientRepository.findEventIdsUpTo(userId, firstRemoved.getCreatedAt(), firstRemoved.getEventId(), readStates, limit);
+    }
+
+    @Override
+    @Transactional
+    public int deleteForRecipient(Long userId, List<Long> ids) {
+        int deleted = recipientRepository.deleteByUserIdAndEventIds(userId, ids);
+        eventRepository.deleteUnreferenced(ids);
+        return deleted;
+    }
+}
@@ -0,0 +1,9 @@
+package javaweb.task_management_system.services;
+
+import javaweb.task_management_system.dtos.ExportFormat;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+public interface TaskExportService {
+    StreamingResponseBody exportTasksForCurrentUser(ExportFormat format);
+    StreamingResponseBody exportTasksForProject(Long projectId, ExportFormat format);
+}
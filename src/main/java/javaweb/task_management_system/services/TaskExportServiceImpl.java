@@ -0,0 +1,49 @@
+package javaweb.task_management_system.services;
+
+import javaweb.task_management_system.dtos.ExportFormat;
+import javaweb.task_management_system.exceptions.InvalidValueException;
+import javaweb.task_management_system.exceptions.ResourceNotFoundException;
+import javaweb.task_management_system.models.ProjectEntity;
+import javaweb.task_management_system.repositories.ProjectRepository;
+import javaweb.task_management_system.repositories.TaskRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@Service
+public class TaskExportServiceImpl implements TaskExportService {
+
+    private final TaskRepository taskRepository;
+    private final ProjectRepository projectRepository;
+    private final TokenService tokenService;
+    private final TaskExportWriter exportWriter;
+
+    @Autowired
+    public TaskExportServiceImpl(TaskRepository taskRepository, ProjectRepository projectRepository, TokenService tokenService, TaskExportWriter exportWriter) {
+        this.taskRepository = taskRepository;
+        this.projectRepository = projectRepository;
+        this.tokenService = tokenService;
+        this.exportWriter = exportWriter;
+    }
+
+    // The caller is resolved and checked here, on the request thread, so errors still become regular error responses.
+    // The returned body runs later on an async thread and only streams rows.
+    @Override
+    public StreamingResponseBody exportTasksForCurrentUser(ExportFormat format) {
+        Long userId = tokenService.getCurrentUser().getId();
+
+        return out -> exportWriter.write(() -> taskRepository.streamExportRowsByAssignee(userId), format, out);
+    }
+
+    @Override
+    public StreamingResponseBody exportTasksForProject(Long projectId, ExportFormat format) {
+        ProjectEntity project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new ResourceNotFoundException("Project not found"));
+
+        if (!project.getOwner().getId().equals(tokenService.getCurrentUser().getId())) {
+            throw new InvalidValueException("You are not authorized to export this project");
+        }
+
+        return out -> exportWriter.write(() -> taskRepository.streamExportRowsByProject(projectId), format, out);
+    }
+}
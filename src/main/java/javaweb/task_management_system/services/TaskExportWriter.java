@@ -0,0 +1,90 @@
+package javaweb.task_management_system.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.transaction.Transactional;
+import javaweb.task_management_system.dtos.ExportFormat;
+import javaweb.task_management_system.dtos.TaskDetailsDTO;
+import javaweb.task_management_system.dtos.TaskExportRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+@Component
+public class TaskExportWriter {
+
+    private static final String CSV_HEADER = "id,name,status,project_id,project_name,task_owner,due_date,assigned_users";
+
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public TaskExportWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    // Rows arrive ordered by task id with one row per assignee, so only the task being assembled is held in memory
+    @Transactional
+    public void write(Supplier<Stream<TaskExportRow>> rows, ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try (Stream<TaskExportRow> stream = rows.get()) {
+            TaskDetailsDTO current = null;
+            Iterator<TaskExportRow> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                TaskExportRow row = iterator.next();
+                if (current == null || !current.getId().equals(row.getId())) {
+                    if (current != null) {
+                        writeTask(current, format, writer);
+                    }
+                    current = row.toTaskDetails();
+                }
+                if (row.getAssignee() != null) {
+                    current.addAssignedUser(row.getAssignee());
+                }
+            }
+            if (current != null) {
+                writeTask(current, format, writer);
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeTask(TaskDetailsDTO task, ExportFormat format, Writer writer) throws IOException {
+        if (format == ExportFormat.CSV) {
+            writer.write(String.join(",",
+                    String.valueOf(task.getId()),
+                    csvField(task.getName()),
+                    csvField(task.getStatus()),
+                    String.valueOf(task.getProjectId()),
+                    csvField(task.getProjectName()),
+                    csvField(task.getTaskOwner()),
+                    task.getDueDate() != null ? task.getDueDate().toString() : "",
+                    csvField(String.join(";", task.getAssignedUsers()))));
+        } else {
+            writer.write(objectMapper.writeValueAsString(task));
+        }
+        writer.write('\n');
+    }
+
+    private String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
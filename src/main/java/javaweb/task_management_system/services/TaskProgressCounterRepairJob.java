@@ -0,0 +1,69 @@
+package javaweb.task_management_system.services;
+
+import javaweb.task_management_system.dtos.CounterDriftReportDTO;
+import javaweb.task_management_system.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+// Nightly counter verification over every user in chunks, each chunk its own transaction. The cron fires on every
+// node, the lease lets only one of them run it.
+@Component
+public class TaskProgressCounterRepairJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskProgressCounterRepairJob.class);
+    private static final String JOB_NAME = "task-progress-counter-repair";
+    private static final int CHUNK_SIZE = 500;
+
+    private final TaskProgressCounterService progressCounterService;
+    private final UserRepository userRepository;
+    private final JobLeaseService jobLeaseService;
+    private final Duration leaseTime;
+
+    @Autowired
+    public TaskProgressCounterRepairJob(TaskProgressCounterService progressCounterService, UserRepository userRepository,
+                                        JobLeaseService jobLeaseService,
+                                        @Value("${tasks.progress.verify-lease:PT1H}") Duration leaseTime) {
+        this.progressCounterService = progressCounterService;
+        this.userRepository = userRepository;
+        this.jobLeaseService = jobLeaseService;
+        this.leaseTime = leaseTime;
+    }
+
+    @Scheduled(cron = "${tasks.progress.verify-cron:0 0 3 * * *}")
+    public void run() {
+        try {
+            if (!jobLeaseService.tryAcquire(JOB_NAME, leaseTime)) {
+                logger.debug("Task progress counter repair is running on another node");
+                return;
+            }
+            verifyAndRepair();
+        } catch (RuntimeException e) {
+            logger.error("Task progress counter repair failed", e);
+        }
+    }
+
+    // Also run on demand from the admin API, without the lease
+    public CounterDriftReportDTO verifyAndRepair() {
+        long checked = 0;
+        long drifted = 0;
+        Long afterId = 0L;
+        List<Long> userIds;
+        while (!(userIds = userRepository.findIdsAfter(afterId, Limit.of(CHUNK_SIZE))).isEmpty()) {
+            CounterDriftReportDTO report = progressCounterService.verifyAndRepair(userIds);
+            checked += report.getCheckedCounters();
+            drifted += report.getDriftedCounters();
+            afterId = userIds.get(userIds.size() - 1);
+        }
+
+        logger.info("Verified {} task progress counters, repaired {}", checked, drifted);
+        return new CounterDriftReportDTO(checked, drifted);
+    }
+}
@@ -0,0 +1,15 @@
+package javaweb.task_management_system.services;
+
+import javaweb.task_management_system.dtos.CounterDriftReportDTO;
+import javaweb.task_management_system.dtos.StatusCountDTO;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface TaskProgressCounterService {
+    void incrementForTasks(Collection<Long> taskIds);
+    void decrementForTasks(Collection<Long> taskIds);
+    void decrementForProject(Long projectId);
+    List<StatusCountDTO> getStatusCounts(Long userId);
+    CounterDriftReportDTO verifyAndRepair(Collection<Long> userIds);
+}
@@ -0,0 +1,93 @@
+package javaweb.task_management_system.services;
+
+import jakarta.transaction.Transactional;
+import javaweb.task_management_system.dtos.CounterDriftReportDTO;
+import javaweb.task_management_system.dtos.StatusCountDTO;
+import javaweb.task_management_system.models.TaskProgressCounterId;
+import javaweb.task_management_system.repositories.TaskProgressCounterRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class TaskProgressCounterServiceImpl implements TaskProgressCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskProgressCounterServiceImpl.class);
+
+    private final TaskProgressCounterRepository counterRepository;
+
+    @Autowired
+    public TaskProgressCounterServiceImpl(TaskProgressCounterRepository counterRepository) {
+        this.counterRepository = counterRepository;
+    }
+
+    // Both adjustments read the current status and assignees of the tasks from the database,
+    // so callers decrement before changing a task and increment once the change is written.
+    @Override
+    public void incrementForTasks(Collection<Long> taskIds) {
+        if (!taskIds.isEmpty()) {
+            counterRepository.incrementForTasks(taskIds);
+        }
+    }
+
+    @Override
+    public void decrementForTasks(Collection<Long> taskIds) {
+        if (!taskIds.isEmpty()) {
+            counterRepository.decrementForTasks(taskIds);
+        }
+    }
+
+    @Override
+    public void decrementForProject(Long projectId) {
+        counterRepository.decrementForProject(projectId);
+    }
+
+    @Override
+    public List<StatusCountDTO> getStatusCounts(Long userId) {
+        return counterRepository.findStatusCountsByUserId(userId);
+    }
+
+    // The counter rows are locked before the tasks are counted: a task change that already holds some of them commits
+    // first and is part of the count, one that has not reached them yet waits and is applied on top of the repair.
+    // Counters are corrected by the difference rather than overwritten, so a new counter row inserted meanwhile
+    // (not covered by the lock under READ COMMITTED) keeps its increment.
+    // Works on one chunk of users per transaction, so only that chunk's counter rows are locked.
+    @Override
+    @Transactional
+    public CounterDriftReportDTO verifyAndRepair(Collection<Long> userIds) {
+        Map<TaskProgressCounterId, Long> actual = new HashMap<>();
+        counterRepository.findAllForUpdate(userIds).forEach(counter ->
+                actual.put(new TaskProgressCounterId(counter.getUserId(), counter.getStatusId()), counter.getTaskCount()));
+
+        Map<TaskProgressCounterId, Long> expected = new HashMap<>();
+        counterRepository.computeCountsFromTasks(userIds).forEach(row ->
+                expected.put(new TaskProgressCounterId(row.getUserId(), row.getStatusId()), row.getTaskCount()));
+
+        Set<TaskProgressCounterId> keys = new HashSet<>(expected.keySet());
+        keys.addAll(actual.keySet());
+
+        long drifted = 0;
+        for (TaskProgressCounterId key : keys) {
+            long expectedCount = expected.getOrDefault(key, 0L);
+            long actualCount = actual.getOrDefault(key, 0L);
+            if (expectedCount == actualCount) {
+                continue;
+            }
+
+            drifted++;
+            logger.warn("Task progress counter drift for user {} and status {}: stored {}, expected {}",
+                    key.getUserId(), key.getStatusId(), actualCount, expectedCount);
+            counterRepository.adjust(key.getUserId(), key.getStatusId(), expectedCount - actualCount);
+        }
+        counterRepository.deleteEmpty(userIds);
+        return new CounterDriftReportDTO(keys.size(), drifted);
+    }
+}
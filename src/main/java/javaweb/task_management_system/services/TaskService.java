@@ -1,7 +1,9 @@
 package javaweb.task_management_system.services;
 
 import javaweb.task_management_system.dtos.ActionSuccessResponse;
+import javaweb.task_management_system.dtos.CursorPage;
 import javaweb.task_management_system.dtos.TaskDetailsDTO;
+import javaweb.task_management_system.dtos.TaskProgressDTO;
 import javaweb.task_management_system.models.TaskEntity;
 
 import java.time.LocalDateTime;
@@ -10,10 +12,12 @@ import java.util.List;
 
 public interface TaskService {
     ActionSuccessResponse addTask(TaskEntity task);
+    ActionSuccessResponse addTasks(List<TaskEntity> tasks);
     ActionSuccessResponse deleteTask(Long taskId);
     ActionSuccessResponse updateTask(Long taskId, TaskEntity updatedTask);
-    List<TaskDetailsDTO> getTasksForCurrentUser();
+    CursorPage<TaskDetailsDTO> getTasksForCurrentUser(String cursor, int limit);
     ActionSuccessResponse updateTaskStatus(Long taskId, Long statusId);
-    ActionSuccessResponse getTasksProgress();
-    List<TaskDetailsDTO> getFilteredTasksForCurrentUser(String projectName, Long statusId, LocalDateTime dueDate);
+    ActionSuccessResponse updateTasksStatus(List<Long> taskIds, Long statusId);
+    TaskProgressDTO getTasksProgress();
+    CursorPage<TaskDetailsDTO> getFilteredTasksForCurrentUser(String projectName, Long statusId, LocalDateTime dueDate, String cursor, int limit);
 }
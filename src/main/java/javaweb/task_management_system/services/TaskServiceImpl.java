@@ -2,9 +2,15 @@ package javaweb.task_management_system.services;
 
 import jakarta.transaction.Transactional;
 import javaweb.task_management_system.dtos.ActionSuccessResponse;
+import javaweb.task_management_system.dtos.CursorPage;
+import javaweb.task_management_system.dtos.StatusCountDTO;
 import javaweb.task_management_system.dtos.TaskDetailsDTO;
+import javaweb.task_management_system.dtos.TaskFilter;
+import javaweb.task_management_system.dtos.TaskProgressDTO;
 import javaweb.task_management_system.exceptions.InvalidUserException;
 import javaweb.task_management_system.exceptions.ResourceNotFoundException;
+import javaweb.task_management_system.models.NotificationEntity;
+import javaweb.task_management_system.models.NotificationTemplate;
 import javaweb.task_management_system.models.ProjectEntity;
 import javaweb.task_management_system.models.TaskEntity;
 import javaweb.task_management_system.models.TaskStatusEntity;
@@ -13,14 +19,21 @@ import javaweb.task_management_system.repositories.ProjectRepository;
 import javaweb.task_management_system.repositories.TaskRepository;
 import javaweb.task_management_system.repositories.TaskStatusRepository;
 import javaweb.task_management_system.repositories.UserRepository;
+import javaweb.task_management_system.utility.AuthenticatedUser;
+import javaweb.task_management_system.utility.CursorCodec;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.repository.CrudRepository;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -34,10 +47,14 @@ public class TaskServiceImpl implements TaskService{
     private final TokenService tokenService;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final TaskProgressCounterService progressCounterService;
+    private final DataVersionService dataVersionService;
 
     @Autowired
-    public TaskServiceImpl(TaskRepository taskRepository, ProjectRepository projectRepository, TaskStatusRepository taskStatusRepository, TokenService tokenService, UserRepository userRepository, NotificationService notificationService) {
+    public TaskServiceImpl(TaskRepository taskRepository, ProjectRepository projectRepository, TaskStatusRepository taskStatusRepository, TokenService tokenService, UserRepository userRepository, NotificationService notificationService, TaskProgressCounterService progressCounterService, DataVersionService dataVersionService) {
         this.taskRepository = taskRepository;
+        this.dataVersionService = dataVersionService;
+        this.progressCounterService = progressCounterService;
         this.notificationService = notificationService;
         this.projectRepository = projectRepository;
         this.taskStatusRepository = taskStatusRepository;
@@ -58,81 +75,100 @@ public class TaskServiceImpl implements TaskService{
         }
 
         taskRepository.save(task);
+        progressCounterService.incrementForTasks(List.of(task.getId()));
+        dataVersionService.bumpForTasks(List.of(task.getId()));
 
-        String userEmail = tokenService.getEmail();
-        UserEntity user = userRepository.findByEmail(userEmail).orElseThrow(() -> new InvalidUserException("User not found!"));
+        AuthenticatedUser currentUser = tokenService.getCurrentUser();
+        notificationService.addNotification(userRepository.getReferenceById(currentUser.getId()), NotificationTemplate.TASK_ADDED, task.getName());
 
-        notificationService.addNotification("Task: " + task.getName() + " has been added!", user);
-
-        return new ActionSuccessResponse(userEmail, "Task added successfully! " + task.getId());
+        return new ActionSuccessResponse(currentUser.getEmail(), "Task added successfully! " + task.getId());
     }
 
+    // Every referenced project, status and assignee is resolved with one IN query per table and the tasks,
+    // assignee links and notifications are written with JDBC batches (see hibernate.jdbc.batch_size).
+    @Transactional
     @Override
-    public ActionSuccessResponse deleteTask(Long taskId) {
-
-        TaskEntity taskToBeRemoved = taskRepository.findById(taskId)
-                .orElseThrow(() -> new ResourceNotFoundException("Task not found!"));
-
-        String userEmail = tokenService.getEmail();
-        String taskName = taskToBeRemoved.getName();
-
-
-        UserEntity user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new InvalidUserException("User not found!"));
-
-
-        taskToBeRemoved.getAssignees().forEach(assignee -> {
-            notificationService.addNotification("Task: " + taskName + " has been deleted!", assignee);
-        });
-
+    public ActionSuccessResponse addTasks(List<TaskEntity> tasks) {
+        AuthenticatedUser currentUser = tokenService.getCurrentUser();
+        UserEntity user = userRepository.getReferenceById(currentUser.getId());
+
+        // "assignees": null is a task without assignees
+        tasks.stream().filter(task -> task.getAssignees() == null).forEach(task -> task.setAssignee(new HashSet<>()));
+
+        Map<Long, ProjectEntity> projects = findAllById(projectRepository, tasks.stream()
+                .map(task -> task.getProject() != null ? task.getProject().getId() : null), ProjectEntity::getId, "Project not found");
+        Map<Long, TaskStatusEntity> statuses = findAllById(taskStatusRepository, tasks.stream()
+                .map(task -> task.getStatus() != null ? task.getStatus().getId() : null), TaskStatusEntity::getId, "Status not found");
+        Map<Long, UserEntity> assignees = findAllById(userRepository, tasks.stream()
+                .flatMap(task -> task.getAssignees().stream().map(assignee -> assignee != null ? assignee.getId() : null)),
+                UserEntity::getId, "Assignee not found");
+
+        List<NotificationEntity> notifications = new ArrayList<>(tasks.size());
+        for (TaskEntity task : tasks) {
+            task.setProject(projects.get(task.getProject().getId()));
+            task.setStatus(statuses.get(task.getStatus().getId()));
+            task.setAssignee(task.getAssignees().stream()
+                    .map(assignee -> assignees.get(assignee.getId()))
+                    .collect(Collectors.toCollection(HashSet::new)));
+            notifications.add(new NotificationEntity(user, NotificationTemplate.TASK_ADDED, task.getName()));
+        }
 
-        taskRepository.delete(taskToBeRemoved);
+        taskRepository.saveAll(tasks);
+        List<Long> taskIds = tasks.stream().map(TaskEntity::getId).toList();
+        progressCounterService.incrementForTasks(taskIds);
+        dataVersionService.bumpForTasks(taskIds);
+        notificationService.addNotifications(notifications);
 
+        return new ActionSuccessResponse(currentUser.getEmail(), "Tasks added successfully! " + tasks.size());
+    }
 
-        notificationService.addNotification("Task: " + taskName + " has been deleted!", user);
+    private <T> Map<Long, T> findAllById(CrudRepository<T, Long> repository, Stream<Long> ids, Function<T, Long> idOf, String notFoundMessage) {
+        List<Long> requestedIds = ids.toList();
+        if (requestedIds.contains(null)) {
+            throw new ResourceNotFoundException(notFoundMessage);
+        }
 
-        return new ActionSuccessResponse(userEmail, "Task deleted successfully! " + taskId);
+        Set<Long> uniqueIds = new HashSet<>(requestedIds);
+        Map<Long, T> found = new HashMap<>();
+        if (!uniqueIds.isEmpty()) {
+            repository.findAllById(uniqueIds).forEach(entity -> found.put(idOf.apply(entity), entity));
+        }
+        if (found.size() != uniqueIds.size()) {
+            throw new ResourceNotFoundException(notFoundMessage);
+        }
+        return found;
     }
 
     @Override
-    public List<TaskDetailsDTO> getFilteredTasksForCurrentUser(String projectName, Long statusId, LocalDateTime dueDate) {
-        String userEmail = tokenService.getEmail();
+    @Transactional
+    public ActionSuccessResponse deleteTask(Long taskId) {
 
-        List<TaskEntity> tasks = taskRepository.findByAssigneesEmail(userEmail);
+        TaskEntity taskToBeRemoved = taskRepository.findByIdForUpdate(taskId)
+                .orElseThrow(() -> new ResourceNotFoundException("Task not found!"));
 
-        Stream<TaskEntity> filteredTasksStream = tasks.stream();
+        AuthenticatedUser currentUser = tokenService.getCurrentUser();
+        String taskName = taskToBeRemoved.getName();
 
-        if (projectName != null && !projectName.isBlank()) {
-            filteredTasksStream = filteredTasksStream.filter(task -> task.getProject().getName().equalsIgnoreCase(projectName));
-        }
 
-        if (statusId != null) {
-            filteredTasksStream = filteredTasksStream.filter(task -> task.getStatus().getId().equals(statusId));
-        }
+        notificationService.addNotifications(taskToBeRemoved.getAssignees().stream()
+                .map(assignee -> new NotificationEntity(assignee, NotificationTemplate.TASK_DELETED, taskName))
+                .toList());
 
-        if (dueDate != null) {
-            filteredTasksStream = filteredTasksStream.filter(task -> task.getDueDate().toLocalDate().isEqual(dueDate.toLocalDate()));
-        }
+        progressCounterService.decrementForTasks(List.of(taskId));
+        dataVersionService.bumpForTasks(List.of(taskId));
+        taskRepository.delete(taskToBeRemoved);
 
-        return filteredTasksStream.map(task -> {
-            TaskDetailsDTO taskDetail = new TaskDetailsDTO();
-            taskDetail.setId(task.getId());
-            taskDetail.setName(task.getName());
-            taskDetail.setStatus(task.getStatus().getName());
 
-            List<String> assigneeEmails = task.getAssignees().stream()
-                    .filter(assignee -> assignee.getEmail() != null)
-                    .map(assignee -> assignee.getEmail())
-                    .collect(Collectors.toList());
+        notificationService.addNotification(userRepository.getReferenceById(currentUser.getId()), NotificationTemplate.TASK_DELETED, taskName);
 
-            taskDetail.setAssignedUsers(assigneeEmails);
+        return new ActionSuccessResponse(currentUser.getEmail(), "Task deleted successfully! " + taskId);
+    }
 
-            taskDetail.setTaskOwner(task.getProject().getOwner().getEmail());
-            taskDetail.setProjectName(task.getProject().getName());
-            taskDetail.setDueDate(task.getDueDate());
+    @Override
+    public CursorPage<TaskDetailsDTO> getFilteredTasksForCurrentUser(String projectName, Long statusId, LocalDateTime dueDate, String cursor, int limit) {
+        Long userId = tokenService.getCurrentUser().getId();
 
-            return taskDetail;
-        }).collect(Collectors.toList());
+        return findTaskPage(new TaskFilter(userId, projectName, statusId, dueDate), cursor, limit);
     }
 
 
@@ -142,16 +178,20 @@ public class TaskServiceImpl implements TaskService{
     public ActionSuccessResponse updateTask(Long taskId, TaskEntity updatedTask) {
         boolean isUpdated = false;
 
-        TaskEntity existingTask = taskRepository.findById(taskId)
+        TaskEntity existingTask = taskRepository.findByIdForUpdate(taskId)
                 .orElseThrow(() -> new ResourceNotFoundException("Task not found!"));
 
-        String ownerEmail = existingTask.getProject().getOwner().getEmail();
-        String userEmail = tokenService.getEmail();
+        AuthenticatedUser currentUser = tokenService.getCurrentUser();
 
-        if (!ownerEmail.equals(userEmail)) {
+        if (!existingTask.getProject().getOwner().getId().equals(currentUser.getId())) {
             throw new InvalidUserException("You are not authorized to update this task");
         }
 
+        // status and assignees may both change below, so the task's old counters are taken out first
+        // and the users who can see it now (including assignees about to be removed) get a new version
+        progressCounterService.decrementForTasks(List.of(taskId));
+        dataVersionService.bumpForTasks(List.of(taskId));
+
         if (updatedTask.getName() != null && !updatedTask.getName().isBlank()) {
             existingTask.setName(updatedTask.getName());
             isUpdated = true;
@@ -164,40 +204,47 @@ public class TaskServiceImpl implements TaskService{
 
 
         if (updatedTask.getAssignees() != null) {
-            Set<UserEntity> newAssignees = updatedTask.getAssignees();
-            Set<UserEntity> oldAssignees = existingTask.getAssignees();
-
-
-            for (UserEntity assignee : newAssignees) {
-                if (!userRepository.existsById(assignee.getId())) {
-                    throw new ResourceNotFoundException("Assignee with ID " + assignee.getId() + " does not exist");
+            Set<Long> newAssigneeIds = new HashSet<>();
+            for (UserEntity assignee : updatedTask.getAssignees()) {
+                if (assignee.getId() == null) {
+                    throw new ResourceNotFoundException("Assignee id is required");
                 }
+                newAssigneeIds.add(assignee.getId());
             }
+            Set<Long> oldAssigneeIds = taskRepository.findAssigneeIds(taskId);
 
-            // comparing existing assignees with new assignees
-            Set<UserEntity> addedAssignees = new HashSet<>(newAssignees);
-            Set<UserEntity> removedAssignees = new HashSet<>(oldAssignees);
-
-            //added assignees
-            addedAssignees.removeAll(oldAssignees);
-            // removed assignees
-            removedAssignees.removeAll(newAssignees);
-
-            // add new assignees
-            if (!addedAssignees.isEmpty()) {
-                existingTask.getAssignees().addAll(addedAssignees);
-                addedAssignees.forEach(assignee -> {
-                    notificationService.addNotification("You have been assigned to the task: " + existingTask.getName(), assignee);
-                });
-                isUpdated = true;
-            }
+            // comparing existing assignee ids with new assignee ids
+            Set<Long> addedAssigneeIds = new HashSet<>(newAssigneeIds);
+            addedAssigneeIds.removeAll(oldAssigneeIds);
+            Set<Long> removedAssigneeIds = new HashSet<>(oldAssigneeIds);
+            removedAssigneeIds.removeAll(newAssigneeIds);
+
+            Set<Long> changedAssigneeIds = new HashSet<>(addedAssigneeIds);
+            changedAssigneeIds.addAll(removedAssigneeIds);
 
-            // delete assignees
-            if (!removedAssignees.isEmpty()) {
-                existingTask.getAssignees().removeAll(removedAssignees);
-                removedAssignees.forEach(assignee -> {
-                    notificationService.addNotification("You have been removed from the task: " + existingTask.getName(), assignee);
-                });
+            if (!changedAssigneeIds.isEmpty()) {
+                Map<Long, UserEntity> changedAssignees = new HashMap<>();
+                userRepository.findAllById(changedAssigneeIds).forEach(user -> changedAssignees.put(user.getId(), user));
+
+                for (Long assigneeId : addedAssigneeIds) {
+                    if (!changedAssignees.containsKey(assigneeId)) {
+                        throw new ResourceNotFoundException("Assignee with ID " + assigneeId + " does not exist");
+                    }
+                }
+
+                // the link rows are written directly, so the (lazy) assignees collection of the task is never loaded
+                List<NotificationEntity> notifications = new ArrayList<>(changedAssigneeIds.size());
+                if (!addedAssigneeIds.isEmpty()) {
+                    taskRepository.addAssignees(taskId, addedAssigneeIds);
+                    addedAssigneeIds.forEach(assigneeId -> notifications.add(new NotificationEntity(
+                            changedAssignees.get(assigneeId), NotificationTemplate.TASK_ASSIGNED, existingTask.getName())));
+                }
+                if (!removedAssigneeIds.isEmpty()) {
+                    taskRepository.removeAssignees(taskId, removedAssigneeIds);
+                    removedAssigneeIds.forEach(assigneeId -> notifications.add(new NotificationEntity(
+                            changedAssignees.get(assigneeId), NotificationTemplate.TASK_UNASSIGNED, existingTask.getName())));
+                }
+                notificationService.addNotifications(notifications);
                 isUpdated = true;
             }
         }
@@ -211,23 +258,26 @@ public class TaskServiceImpl implements TaskService{
 
         if (isUpdated) {
             taskRepository.save(existingTask);
-            notificationService.addNotification("The task: " + existingTask.getName() + " has been updated!", existingTask.getProject().getOwner());
+            notificationService.addCoalescedNotification(existingTask.getProject().getOwner(), taskKey(taskId),
+                    NotificationTemplate.TASK_UPDATED, existingTask.getName());
         }
+        progressCounterService.incrementForTasks(List.of(taskId));
+        dataVersionService.bumpForTasks(List.of(taskId));
 
-        return new ActionSuccessResponse(ownerEmail, "Task updated successfully! " + existingTask.getId());
+        return new ActionSuccessResponse(currentUser.getEmail(), "Task updated successfully! " + existingTask.getId());
     }
 
     @Override
     @Transactional
     public ActionSuccessResponse updateTaskStatus(Long taskId, Long updatedTaskStatusId) {
-        String userEmail = tokenService.getEmail();
+        AuthenticatedUser currentUser = tokenService.getCurrentUser();
 
-        TaskEntity existingTask = taskRepository.findById(taskId)
+        TaskEntity existingTask = taskRepository.findByIdForUpdate(taskId)
                 .orElseThrow(() -> new ResourceNotFoundException("Task not found"));
 
 
         boolean isAssigned = existingTask.getAssignees().stream()
-                .anyMatch(assignee -> assignee.getEmail().equals(userEmail));
+                .anyMatch(assignee -> assignee.getId().equals(currentUser.getId()));
 
         if (!isAssigned) {
             throw new InvalidUserException("You are not assigned to this task");
@@ -236,63 +286,87 @@ public class TaskServiceImpl implements TaskService{
         TaskStatusEntity updatedStatus = taskStatusRepository.findById(updatedTaskStatusId)
                 .orElseThrow(() -> new ResourceNotFoundException("Status not found"));
 
+        progressCounterService.decrementForTasks(List.of(taskId));
         existingTask.setStatus(updatedStatus);
 
         taskRepository.save(existingTask);
+        progressCounterService.incrementForTasks(List.of(taskId));
+        dataVersionService.bumpForTasks(List.of(taskId));
 
-        UserEntity user = userRepository.findByEmail(userEmail).orElseThrow(() -> new InvalidUserException("User not found!"));
-
-        notificationService.addNotification("Task status updated", user);
+        notificationService.addCoalescedNotification(userRepository.getReferenceById(currentUser.getId()), taskKey(taskId), NotificationTemplate.TASK_STATUS_UPDATED);
 
-        return new ActionSuccessResponse(userEmail, "Task status updated successfully!");
+        return new ActionSuccessResponse(currentUser.getEmail(), "Task status updated successfully!");
     }
 
+    // One query checks the assignment of every task, one UPDATE moves them all and the notifications are saved as a batch
     @Override
-    public ActionSuccessResponse getTasksProgress() {
-        String userEmail = tokenService.getEmail();
+    @Transactional
+    public ActionSuccessResponse updateTasksStatus(List<Long> taskIds, Long statusId) {
+        AuthenticatedUser currentUser = tokenService.getCurrentUser();
+        String userEmail = currentUser.getEmail();
+        Set<Long> uniqueTaskIds = new HashSet<>(taskIds);
 
-        List<TaskEntity> tasks = taskRepository.findByAssigneesEmail(userEmail);
+        TaskStatusEntity updatedStatus = taskStatusRepository.findById(statusId)
+                .orElseThrow(() -> new ResourceNotFoundException("Status not found"));
 
-        long completedTasks = tasks.stream()
-                .filter(task -> task.getStatus().getName().equalsIgnoreCase("Completed"))
-                .count();
+        if (taskRepository.countAssignedTasks(uniqueTaskIds, currentUser.getId()) != uniqueTaskIds.size()) {
+            throw new InvalidUserException("You are not assigned to all of these tasks");
+        }
 
-        long pendingTasks = tasks.stream()
-                .filter(task -> !task.getStatus().getName().equalsIgnoreCase("Completed"))
-                .count();
+        UserEntity user = userRepository.getReferenceById(currentUser.getId());
 
-        return new ActionSuccessResponse(userEmail, "Progress Overview: " +
-                "Completed: " + completedTasks + ", Pending: " + pendingTasks);
-    }
+        taskRepository.findAllByIdForUpdate(uniqueTaskIds);
+        progressCounterService.decrementForTasks(uniqueTaskIds);
+        taskRepository.updateStatus(uniqueTaskIds, updatedStatus);
+        progressCounterService.incrementForTasks(uniqueTaskIds);
+        dataVersionService.bumpForTasks(uniqueTaskIds);
 
+        notificationService.addNotifications(uniqueTaskIds.stream()
+                .map(taskId -> new NotificationEntity(user, NotificationTemplate.TASK_STATUS_CHANGED, String.valueOf(taskId), updatedStatus.getName()))
+                .toList());
 
+        return new ActionSuccessResponse(userEmail, "Tasks status updated successfully! " + uniqueTaskIds.size());
+    }
 
     @Override
-    public List<TaskDetailsDTO> getTasksForCurrentUser() {
-        String userEmail = tokenService.getEmail();
+    public TaskProgressDTO getTasksProgress() {
+        AuthenticatedUser currentUser = tokenService.getCurrentUser();
+        String userEmail = currentUser.getEmail();
+
+        List<StatusCountDTO> statuses = progressCounterService.getStatusCounts(currentUser.getId());
+
+        long completedTasks = 0;
+        long pendingTasks = 0;
+        for (StatusCountDTO status : statuses) {
+            if (status.getStatus().equalsIgnoreCase("Completed")) {
+                completedTasks += status.getCount();
+            } else {
+                pendingTasks += status.getCount();
+            }
+        }
+
+        return new TaskProgressDTO(userEmail, completedTasks, pendingTasks, statuses);
+    }
+
 
-        // Find all tasks where the user is an assignee
-        List<TaskEntity> tasks = taskRepository.findByAssigneesEmail(userEmail);
 
-        return tasks.stream().map(task -> {
-            TaskDetailsDTO taskDetail = new TaskDetailsDTO();
-            taskDetail.setId(task.getId());
-            taskDetail.setName(task.getName());
-            taskDetail.setStatus(task.getStatus().getName());
+    @Override
+    public CursorPage<TaskDetailsDTO> getTasksForCurrentUser(String cursor, int limit) {
+        Long userId = tokenService.getCurrentUser().getId();
 
-            List<String> assigneeEmails = task.getAssignees().stream()
-                    .filter(assignee -> assignee.getEmail() != null)
-                    .map(assignee -> assignee.getEmail())
-                    .collect(Collectors.toList()); // Collect all the emails into a list
+        return findTaskPage(TaskFilter.forAssignee(userId), cursor, limit);
+    }
 
-            taskDetail.setAssignedUsers(assigneeEmails); // Set the list of assignees' emails
+    private CursorPage<TaskDetailsDTO> findTaskPage(TaskFilter filter, String cursor, int limit) {
+        int pageSize = CursorCodec.clampLimit(limit);
+        List<TaskDetailsDTO> rows = taskRepository.findTaskDetails(filter, CursorCodec.decodeId(cursor), pageSize + 1);
 
-            taskDetail.setTaskOwner(task.getProject().getOwner().getEmail());
-            taskDetail.setProjectName(task.getProject().getName());
-            taskDetail.setDueDate(task.getDueDate());
+        return CursorPage.of(rows, pageSize, task -> CursorCodec.encodeId(task.getId()));
+    }
 
-            return taskDetail;
-        }).collect(Collectors.toList());
+    // Coalescing key of the notifications about one task
+    private static String taskKey(Long taskId) {
+        return "task:" + taskId;
     }
 
 }
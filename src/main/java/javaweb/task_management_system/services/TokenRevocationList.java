@@ -0,0 +1,141 @@
+package javaweb.task_management_system.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import javaweb.task_management_system.models.RevokedTokenEntity;
+import javaweb.task_management_system.repositories.RevokedTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Access tokens revoked before they expire, checked by JwtCookieFilter on every request. A bloom filter answers
+// almost every check ("not revoked") from a few bit reads without locking; only when it reports a hit is the exact
+// set consulted, so a false positive never rejects a valid token. Revocations are written to revoked_tokens and
+// every sync-interval-ms the list is rebuilt from that table, which brings in the revocations made on other nodes
+// and drops the tokens that have expired since (a bloom filter cannot remove entries, so it is rebuilt whole).
+@Component
+public class TokenRevocationList {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int HASHES = 7;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedEntries;
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository, MeterRegistry meterRegistry,
+                               @Value("${jwt.revocation.expected-entries:10000}") int expectedEntries) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedEntries = expectedEntries;
+        this.snapshot = new Snapshot(Map.of(), expectedEntries);
+
+        meterRegistry.gauge("security.jwt.revoked.size", this, list -> list.snapshot.revoked.size());
+    }
+
+    public boolean isRevoked(String jti) {
+        Snapshot current = snapshot;
+        return current.mightContain(jti) && current.revoked.containsKey(jti);
+    }
+
+    public void revoke(String jti, Instant expiresAt) {
+        revokedTokenRepository.save(new RevokedTokenEntity(jti, LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault())));
+        synchronized (this) {
+            snapshot.add(jti, expiresAt);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:10000}")
+    public void reload() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            revokedTokenRepository.deleteExpired(now);
+            List<RevokedTokenEntity> rows = revokedTokenRepository.findActive(now);
+
+            Map<String, Instant> revoked = new HashMap<>();
+            rows.forEach(row -> revoked.put(row.getJti(), row.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant()));
+            synchronized (this) {
+                // tokens revoked on this node while the table was read are kept
+                Instant cutoff = Instant.now();
+                snapshot.revoked.forEach((jti, expiresAt) -> {
+                    if (expiresAt.isAfter(cutoff)) {
+                        revoked.putIfAbsent(jti, expiresAt);
+                    }
+                });
+                snapshot = new Snapshot(revoked, Math.max(expectedEntries, revoked.size() * 2));
+            }
+        } catch (RuntimeException e) {
+            logger.error("Could not reload the revoked tokens", e);
+        }
+    }
+
+    private static class Snapshot {
+        private final Map<String, Instant> revoked;
+        private final AtomicLongArray bits;
+        private final int size;
+
+        private Snapshot(Map<String, Instant> revoked, int expectedEntries) {
+            // optimal number of bits for the false positive rate, about 9.6 per entry at 1%
+            double bitsNeeded = -expectedEntries * Math.log(FALSE_POSITIVE_RATE) / (Math.log(2) * Math.log(2));
+            this.size = (int) Math.max(64, Math.min(Integer.MAX_VALUE / 2, Math.ceil(bitsNeeded)));
+            this.bits = new AtomicLongArray((size + 63) / 64);
+            this.revoked = new ConcurrentHashMap<>();
+            revoked.forEach(this::add);
+        }
+
+        private void add(String jti, Instant expiresAt) {
+            long hash = hash(jti);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = bitIndex(hash, i);
+                long mask = 1L << bit;
+                bits.accumulateAndGet(bit >>> 6, mask, (word, set) -> word | set);
+            }
+            revoked.put(jti, expiresAt);
+        }
+
+        private boolean mightContain(String jti) {
+            long hash = hash(jti);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = bitIndex(hash, i);
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // the i-th of the HASHES positions, derived from the two halves of one 64-bit hash
+        private int bitIndex(long hash, int i) {
+            int combined = (int) hash + i * (int) (hash >>> 32);
+            return (combined & Integer.MAX_VALUE) % size;
+        }
+
+        // FNV-1a followed by the murmur3 finalizer to spread the bits
+        private static long hash(String jti) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < jti.length(); i++) {
+                hash ^= jti.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -1,9 +1,10 @@
 package javaweb.task_management_system.services;
 
 
-import org.springframework.security.core.Authentication;
+import javaweb.task_management_system.utility.AuthenticatedUser;
 
 public interface TokenService {
-     String generateJwt(Authentication auth);
+     String generateJwt(AuthenticatedUser user);
+     AuthenticatedUser getCurrentUser();
      String getEmail();
 }
@@ -1,51 +1,62 @@
 package javaweb.task_management_system.services;
 
 
+import javaweb.task_management_system.exceptions.InvalidUserException;
+import javaweb.task_management_system.utility.AuthenticatedUser;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.*;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
-import java.util.stream.Collectors;
+import java.util.UUID;
 
 @Service
 public class TokenServiceImpl implements TokenService {
 
     private final JwtEncoder jwtEncoder;
+    private final long accessTokenTtlSeconds;
 
 
     @Autowired
-    public TokenServiceImpl(JwtEncoder jwtEncoder, JwtDecoder jwtDecoder){
+    public TokenServiceImpl(JwtEncoder jwtEncoder,
+                            @Value("${jwt.access-token.ttl-seconds:900}") long accessTokenTtlSeconds){
         this.jwtEncoder = jwtEncoder;
+        this.accessTokenTtlSeconds = accessTokenTtlSeconds;
     }
 
+    // Id and roles go into the token so requests can be served without looking the user up again.
+    // Access tokens are short-lived and carry a jti so they can be revoked before they expire.
     @Override
-    public String generateJwt(Authentication auth) {
+    public String generateJwt(AuthenticatedUser user) {
         Instant now = Instant.now();
 
-        String roles = auth.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.joining(" "));
-
-
         JwtClaimsSet claims = JwtClaimsSet.builder()
                 .issuer("self")
                 .issuedAt(now)
-                .subject(auth.getName())
-                .claim("roles", roles)
+                .expiresAt(now.plusSeconds(accessTokenTtlSeconds))
+                .id(UUID.randomUUID().toString())
+                .subject(user.getEmail())
+                .claim(AuthenticatedUser.USER_ID_CLAIM, user.getId())
+                .claim(AuthenticatedUser.ROLES_CLAIM, user.getRoles())
                 .build();
 
         return jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
     }
 
     @Override
-    public String getEmail() {
+    public AuthenticatedUser getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        Object principal = authentication.getPrincipal();
-        Jwt jwt = (Jwt) principal;
-        return jwt.getClaimAsString("sub");
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
+            throw new InvalidUserException("User not found!");
+        }
+        return user;
+    }
+
+    @Override
+    public String getEmail() {
+        return getCurrentUser().getEmail();
     }
 }
@@ -0,0 +1,68 @@
+package javaweb.task_management_system.services;
+
+import jakarta.transaction.Transactional;
+import javaweb.task_management_system.repositories.NotificationUnreadCounterRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+// Per-user unread counts kept in notification_unread_counters, so polling the unread badge reads one row by key
+// instead of running a COUNT per request, and every node reads the same value. Every write that changes the
+// number of unread notifications adjusts the row in its own transaction, so a rollback takes the adjustment with
+// it. A user without a row has no unread notifications. Deletes that do not report what they removed (the
+// retention purge) are corrected by UnreadNotificationReconcileJob.
+@Component
+public class UnreadNotificationCounter {
+
+    private final NotificationStore notificationStore;
+    private final NotificationUnreadCounterRepository counterRepository;
+
+    @Autowired
+    public UnreadNotificationCounter(NotificationStore notificationStore, NotificationUnreadCounterRepository counterRepository) {
+        this.notificationStore = notificationStore;
+        this.counterRepository = counterRepository;
+    }
+
+    public long get(Long userId) {
+        return Math.max(0, counterRepository.findUnreadCount(userId).orElse(0L));
+    }
+
+    // Joins the caller's transaction
+    public void increment(Long userId, long delta) {
+        if (delta != 0) {
+            counterRepository.adjust(userId, delta);
+        }
+    }
+
+    public void decrement(Long userId) {
+        increment(userId, -1);
+    }
+
+    public void delete(Long userId) {
+        counterRepository.deleteByUserId(userId);
+    }
+
+    // The counter rows are locked before the notifications are counted: a write that already adjusted a counter
+    // commits first and is part of the count, one that has not reached its counter yet waits and applies on top.
+    @Transactional
+    public int reconcile(Collection<Long> userIds) {
+        Map<Long, Long> stored = new HashMap<>();
+        counterRepository.findAllForUpdate(userIds).forEach(counter -> stored.put(counter.getUserId(), counter.getUnreadCount()));
+
+        Map<Long, Long> unread = new HashMap<>();
+        notificationStore.countUnread(userIds).forEach(row -> unread.put(row.getUserId(), row.getUnreadCount()));
+
+        int drifted = 0;
+        for (Long userId : userIds) {
+            long expected = unread.getOrDefault(userId, 0L);
+            if (stored.getOrDefault(userId, 0L) != expected) {
+                counterRepository.set(userId, expected);
+                drifted++;
+            }
+        }
+        return drifted;
+    }
+}
@@ -0,0 +1,59 @@
+package javaweb.task_management_system.services;
+
+import javaweb.task_management_system.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+// Recounts the unread notifications of every user in chunks, each chunk its own transaction. Only needed for
+// deletes that do not adjust the counters (the retention purge), so it runs on one node, after the purge.
+@Component
+public class UnreadNotificationReconcileJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnreadNotificationReconcileJob.class);
+    private static final String JOB_NAME = "unread-notification-reconcile";
+    private static final int CHUNK_SIZE = 500;
+
+    private final UnreadNotificationCounter unreadCounter;
+    private final UserRepository userRepository;
+    private final JobLeaseService jobLeaseService;
+    private final Duration leaseTime;
+
+    @Autowired
+    public UnreadNotificationReconcileJob(UnreadNotificationCounter unreadCounter, UserRepository userRepository,
+                                          JobLeaseService jobLeaseService,
+                                          @Value("${notifications.unread-counter.reconcile-lease:PT1H}") Duration leaseTime) {
+        this.unreadCounter = unreadCounter;
+        this.userRepository = userRepository;
+        this.jobLeaseService = jobLeaseService;
+        this.leaseTime = leaseTime;
+    }
+
+    @Scheduled(cron = "${notifications.unread-counter.reconcile-cron:0 30 3 * * *}")
+    public void run() {
+        try {
+            if (!jobLeaseService.tryAcquire(JOB_NAME, leaseTime)) {
+                logger.debug("Unread notification reconcile is running on another node");
+                return;
+            }
+
+            long drifted = 0;
+            Long afterId = 0L;
+            List<Long> userIds;
+            while (!(userIds = userRepository.findIdsAfter(afterId, Limit.of(CHUNK_SIZE))).isEmpty()) {
+                drifted += unreadCounter.reconcile(userIds);
+                afterId = userIds.get(userIds.size() - 1);
+            }
+            logger.info("Reconciled unread notification counters, repaired {}", drifted);
+        } catch (RuntimeException e) {
+            logger.error("Unread notification reconcile failed", e);
+        }
+    }
+}
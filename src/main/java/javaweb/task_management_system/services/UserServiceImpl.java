@@ -4,6 +4,7 @@
 package javaweb.task_management_system.services;
 
 
+import jakarta.transaction.Transactional;
 import javaweb.task_management_system.dtos.ActionSuccessResponse;
 import javaweb.task_management_system.dtos.UserDTO;
 import javaweb.task_management_system.exceptions.InvalidValueException;
@@ -15,6 +16,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,22 +25,33 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final TokenService tokenService;
+    private final NotificationService notificationService;
+    private final RefreshTokenService refreshTokenService;
+    private final DataVersionService dataVersionService;
 
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder, TokenService tokenService) {
+    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder, TokenService tokenService, NotificationService notificationService, RefreshTokenService refreshTokenService, DataVersionService dataVersionService) {
         this.userRepository = userRepository;
+        this.dataVersionService = dataVersionService;
         this.passwordEncoder = passwordEncoder;
         this.tokenService = tokenService;
+        this.notificationService = notificationService;
+        this.refreshTokenService = refreshTokenService;
 
     }
 
     @Override
+    @Transactional
     public ActionSuccessResponse deleteUser() {
         String email = tokenService.getEmail();
-        UserEntity user = findByEmail(email);
+        UserEntity user = currentUser();
 
         if (user != null) {
+            // the user's relations are read before they are deleted with the user
+            dataVersionService.bumpForUserRelations(user.getId());
+            notificationService.deleteAllForUser(user.getId());
+            refreshTokenService.deleteAllForUser(user.getId());
             userRepository.delete(user);
             return new ActionSuccessResponse(email, "Your account has been successfully deleted!");
         } else {
@@ -47,24 +60,33 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public ActionSuccessResponse updateUser(UserEntity updatedUser) {
-        String email = tokenService.getEmail();
-        UserEntity user = findByEmail(email);
+        UserEntity user = currentUser();
+        boolean isVisibleToOthers = false;
 
         if (updatedUser.getName() != null && !updatedUser.getName().isBlank()) {
             user.setName(updatedUser.getName());
+            isVisibleToOthers = true;
         }
         if (updatedUser.getLastname() != null && !updatedUser.getLastname().isBlank()) {
             user.setLastName(updatedUser.getLastname());
+            isVisibleToOthers = true;
         }
         if (updatedUser.getEmail() != null && !updatedUser.getEmail().isBlank()) {
             user.setEmail(updatedUser.getEmail());
+            isVisibleToOthers = true;
         }
         if (updatedUser.getPassword() != null && !updatedUser.getPassword().isBlank()) {
             user.setPassword(passwordEncoder.encode(updatedUser.getPassword()));
         }
 
         userRepository.save(user);
+        // task and project pages of the user and of the people sharing work with them show their name and email
+        if (isVisibleToOthers) {
+            dataVersionService.bumpForUsers(List.of(user.getId()));
+            dataVersionService.bumpForUserRelations(user.getId());
+        }
         return new ActionSuccessResponse(user.getEmail(), "User updated successfully!");
     }
 
@@ -77,6 +99,11 @@ public class UserServiceImpl implements UserService {
 
     }
 
+    private UserEntity currentUser() {
+        return userRepository.findById(tokenService.getCurrentUser().getId())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found."));
+    }
+
     @Override
     public UserDTO convertToDto(UserEntity user){
         return new UserDTO(user);
@@ -0,0 +1,88 @@
+package javaweb.task_management_system.utility;
+
+import javaweb.task_management_system.models.RoleEntity;
+import javaweb.task_management_system.models.UserEntity;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+
+// The caller of a request, built once from the token claims by JwtCookieFilter and read by the services through
+// TokenService.getCurrentUser(), so they can work with the user id without loading the UserEntity.
+// Roles travel as a bitmask in the "rol" claim, bit i standing for ROLES.get(i); new roles must be appended.
+public class AuthenticatedUser implements Principal {
+
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLES_CLAIM = "rol";
+
+    private static final List<String> ROLES = List.of("ADMIN", "USER", "PROJECT_OWNER");
+
+    private final Long id;
+    private final String email;
+    private final int roles;
+    private final List<GrantedAuthority> authorities;
+
+    public AuthenticatedUser(Long id, String email, int roles) {
+        this.id = id;
+        this.email = email;
+        this.roles = roles;
+
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        for (int bit = 0; bit < ROLES.size(); bit++) {
+            if ((roles & (1 << bit)) != 0) {
+                authorities.add(new SimpleGrantedAuthority("ROLE_" + ROLES.get(bit)));
+            }
+        }
+        this.authorities = List.copyOf(authorities);
+    }
+
+    public static AuthenticatedUser of(UserEntity user) {
+        int roles = 0;
+        for (RoleEntity role : user.getRoles()) {
+            int bit = ROLES.indexOf(role.getName());
+            if (bit < 0) {
+                throw new IllegalStateException("Role " + role.getName() + " has no bit in the token");
+            }
+            roles |= 1 << bit;
+        }
+        return new AuthenticatedUser(user.getId(), user.getEmail(), roles);
+    }
+
+    public static AuthenticatedUser of(Jwt jwt) {
+        Number id = jwt.getClaim(USER_ID_CLAIM);
+        Number roles = jwt.getClaim(ROLES_CLAIM);
+        if (id == null || roles == null) {
+            throw new IllegalArgumentException("Token has no " + USER_ID_CLAIM + " or " + ROLES_CLAIM + " claim");
+        }
+        return new AuthenticatedUser(id.longValue(), jwt.getSubject(), roles.intValue());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public int getRoles() {
+        return roles;
+    }
+
+    public boolean hasRole(String role) {
+        int bit = ROLES.indexOf(role);
+        return bit >= 0 && (roles & (1 << bit)) != 0;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -0,0 +1,81 @@
+package javaweb.task_management_system.utility;
+
+import javaweb.task_management_system.exceptions.InvalidValueException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+public class CursorCodec {
+
+    public static final int MAX_LIMIT = 200;
+
+    private static final String SEPARATOR = "|";
+
+    public static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    public static String encodeId(Long id) {
+        return encode(String.valueOf(id));
+    }
+
+    public static Long decodeId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(decode(cursor));
+        } catch (NumberFormatException e) {
+            throw new InvalidValueException("Invalid cursor!");
+        }
+    }
+
+    public static String encodeTimestampAndId(LocalDateTime timestamp, Long id) {
+        return encode(timestamp + SEPARATOR + id);
+    }
+
+    public static TimestampCursor decodeTimestampAndId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String value = decode(cursor);
+        int separator = value.indexOf(SEPARATOR);
+        try {
+            return new TimestampCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidValueException("Invalid cursor!");
+        }
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidValueException("Invalid cursor!");
+        }
+    }
+
+    public static class TimestampCursor {
+        private final LocalDateTime timestamp;
+        private final Long id;
+
+        public TimestampCursor(LocalDateTime timestamp, Long id) {
+            this.timestamp = timestamp;
+            this.id = id;
+        }
+
+        public LocalDateTime getTimestamp() {
+            return timestamp;
+        }
+
+        public Long getId() {
+            return id;
+        }
+    }
+}
@@ -6,43 +6,40 @@ import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import javaweb.task_management_system.exceptions.InvalidAction;
-import javaweb.task_management_system.exceptions.InvalidUserException;
+import javaweb.task_management_system.exceptions.InvalidValueException;
 import javaweb.task_management_system.exceptions.ResourceNotFoundException;
+import javaweb.task_management_system.services.TokenRevocationList;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @Component
 public class JwtCookieFilter extends OncePerRequestFilter {
 
     private final JwtDecoder jwtDecoder;
-//    private final JwtAuthenticationConverter jwtConverter;
+    private final VerifiedTokenCache tokenCache;
+    private final TokenRevocationList revocationList;
 
     @Autowired
-    public JwtCookieFilter(JwtDecoder jwtDecoder) {
+    public JwtCookieFilter(JwtDecoder jwtDecoder, VerifiedTokenCache tokenCache, TokenRevocationList revocationList) {
         this.jwtDecoder = jwtDecoder;
+        this.tokenCache = tokenCache;
+        this.revocationList = revocationList;
     }
 
 
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
-        if (request.getRequestURI().startsWith("/api/auth") && !request.getRequestURI().endsWith("logout") ) {
+        // logout reads its tokens from the cookies itself, it must work after the access token expired
+        if (request.getRequestURI().startsWith("/api/auth") || request.getRequestURI().startsWith("/.well-known/")) {
             filterChain.doFilter(request, response);  // Skip filter processing
             return;
         }
@@ -57,16 +54,23 @@ public class JwtCookieFilter extends OncePerRequestFilter {
             if("jwt".equals(cookie.getName())) {
                 String token = cookie.getValue();
                 try{
-                    Jwt jwt = jwtDecoder.decode(token);
-
-                    String roles = jwt.getClaimAsString("roles");
-
-
-                    List<GrantedAuthority> authorities = Arrays.stream(roles.split(" "))
-                            .map(SimpleGrantedAuthority::new)
-                            .collect(Collectors.toList());
-                    System.out.println("JWT SUBJECT HERE: "+ jwt.getSubject());
-                    Authentication authentication = new JwtAuthenticationToken(jwt, authorities, roles);
+                    // the signature is only verified the first time a token is seen
+                    VerifiedTokenCache.VerifiedToken verified = tokenCache.get(token);
+                    if (verified == null) {
+                        Jwt jwt = jwtDecoder.decode(token);
+                        if (jwt.getId() == null || jwt.getExpiresAt() == null) {
+                            throw new InvalidValueException("Token has no jti or exp claim");
+                        }
+                        verified = tokenCache.put(token, jwt, AuthenticatedUser.of(jwt));
+                    }
+                    // checked on every request, cached or not, so a revocation from any node takes effect
+                    if (revocationList.isRevoked(verified.getJwt().getId())) {
+                        throw new InvalidValueException("Token was revoked");
+                    }
+
+                    // the verified token is kept as the credentials
+                    AuthenticatedUser user = verified.getUser();
+                    Authentication authentication = UsernamePasswordAuthenticationToken.authenticated(user, verified.getJwt(), user.getAuthorities());
 
                     SecurityContextHolder.getContext().setAuthentication(authentication);
 
@@ -80,4 +84,3 @@ public class JwtCookieFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 }
-
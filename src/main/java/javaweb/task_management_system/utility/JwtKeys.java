@@ -0,0 +1,214 @@
+package javaweb.task_management_system.utility;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Token signing keys, read once at startup from jwt.keys.directory so every node signs and verifies with the same keys.
+// The directory holds PEM files named after their key id (kid):
+//   <kid>.pem      PKCS#8 private key ("BEGIN PRIVATE KEY"), can sign and verify
+//   <kid>.pub.pem  X.509 public key ("BEGIN PUBLIC KEY"), verify only
+// jwt.keys.active-kid picks the signing key; every key in the directory is accepted for verification and published
+// on /.well-known/jwks.json, which is what allows a key to be rotated without invalidating the tokens already issued.
+// jwt.keys.algorithm is RS256 (RSA keys) or ES256 (P-256 keys) and must match the active key. An EC private key does
+// not carry its public half, so an ES256 <kid>.pem needs its <kid>.pub.pem next to it.
+// Without a directory a throwaway key is generated, which only works for a single node.
+@Component
+public class JwtKeys {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeys.class);
+
+    private static final String PRIVATE_KEY_SUFFIX = ".pem";
+    private static final String PUBLIC_KEY_SUFFIX = ".pub.pem";
+    private static final Set<JWSAlgorithm> SUPPORTED_ALGORITHMS = Set.of(JWSAlgorithm.RS256, JWSAlgorithm.ES256);
+
+    private final JWSAlgorithm algorithm;
+    private final JWK signingKey;
+    private final JWKSet verificationKeys;
+
+    @Autowired
+    public JwtKeys(@Value("${jwt.keys.directory:}") String directory,
+                   @Value("${jwt.keys.active-kid:}") String activeKid,
+                   @Value("${jwt.keys.algorithm:RS256}") String algorithm) {
+        this.algorithm = parseAlgorithm(algorithm);
+        List<JWK> keys = directory.isBlank() ? List.of(generateKey(this.algorithm)) : readKeys(Path.of(directory));
+        this.signingKey = selectSigningKey(keys, activeKid);
+        if (!this.algorithm.equals(signingKey.getAlgorithm())) {
+            throw new IllegalStateException("Key " + signingKey.getKeyID() + " is a " + signingKey.getAlgorithm()
+                    + " key, jwt.keys.algorithm is " + this.algorithm);
+        }
+        this.verificationKeys = new JWKSet(keys.stream().map(JWK::toPublicJWK).toList());
+        logger.info("JWT signing key {} ({}), {} verification key(s)", signingKey.getKeyID(), this.algorithm, keys.size());
+    }
+
+    public JWSAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public JWK getSigningKey() {
+        return signingKey;
+    }
+
+    // Public parts only
+    public JWKSet getVerificationKeys() {
+        return verificationKeys;
+    }
+
+    // Algorithms of every verification key, so tokens of a retiring key of the other type still verify
+    public Set<JWSAlgorithm> getVerificationAlgorithms() {
+        return verificationKeys.getKeys().stream()
+                .map(key -> JWSAlgorithm.parse(key.getAlgorithm().getName()))
+                .collect(Collectors.toSet());
+    }
+
+    private static JWSAlgorithm parseAlgorithm(String name) {
+        JWSAlgorithm algorithm = JWSAlgorithm.parse(name.trim());
+        if (JWSAlgorithm.Family.ED.contains(algorithm)) {
+            // the JDK has Ed25519, but Nimbus only signs it through Google Tink and Spring has no EdDSA JwsAlgorithm
+            throw new IllegalStateException("jwt.keys.algorithm " + name + " is not supported, use RS256 or ES256");
+        }
+        if (!SUPPORTED_ALGORITHMS.contains(algorithm)) {
+            throw new IllegalStateException("Unknown jwt.keys.algorithm " + name + ", use RS256 or ES256");
+        }
+        return algorithm;
+    }
+
+    private static JWK selectSigningKey(List<JWK> keys, String activeKid) {
+        List<JWK> privateKeys = keys.stream().filter(JWK::isPrivate).toList();
+        if (!activeKid.isBlank()) {
+            return privateKeys.stream()
+                    .filter(key -> activeKid.equals(key.getKeyID()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No private key with kid " + activeKid + " in jwt.keys.directory"));
+        }
+        if (privateKeys.size() != 1) {
+            throw new IllegalStateException("Set jwt.keys.active-kid, jwt.keys.directory holds " + privateKeys.size() + " private keys");
+        }
+        return privateKeys.get(0);
+    }
+
+    private static List<JWK> readKeys(Path directory) {
+        Map<String, PrivateKey> privateKeys = new TreeMap<>();
+        Map<String, PublicKey> publicKeys = new TreeMap<>();
+        List<JWK> keys = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(PUBLIC_KEY_SUFFIX)) {
+                    publicKeys.put(name.substring(0, name.length() - PUBLIC_KEY_SUFFIX.length()), readPublicKey(file));
+                } else if (name.endsWith(PRIVATE_KEY_SUFFIX)) {
+                    privateKeys.put(name.substring(0, name.length() - PRIVATE_KEY_SUFFIX.length()), readPrivateKey(file));
+                }
+            }
+
+            Set<String> kids = new TreeSet<>(publicKeys.keySet());
+            kids.addAll(privateKeys.keySet());
+            for (String kid : kids) {
+                keys.add(toJwk(kid, publicKeys.get(kid), privateKeys.get(kid)));
+            }
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Could not read the JWT keys from " + directory, e);
+        }
+
+        if (keys.isEmpty()) {
+            throw new IllegalStateException("No JWT keys in " + directory);
+        }
+        return keys;
+    }
+
+    private static JWK toJwk(String kid, PublicKey publicKey, PrivateKey privateKey) throws GeneralSecurityException {
+        if (publicKey == null && privateKey instanceof RSAPrivateCrtKey rsaPrivateKey) {
+            publicKey = KeyFactory.getInstance("RSA")
+                    .generatePublic(new RSAPublicKeySpec(rsaPrivateKey.getModulus(), rsaPrivateKey.getPublicExponent()));
+        }
+        if (publicKey == null) {
+            throw new GeneralSecurityException(kid + PRIVATE_KEY_SUFFIX + " needs its public key in " + kid + PUBLIC_KEY_SUFFIX);
+        }
+
+        if (publicKey instanceof RSAPublicKey rsaPublicKey) {
+            RSAKey.Builder builder = new RSAKey.Builder(rsaPublicKey).keyID(kid).keyUse(KeyUse.SIGNATURE).algorithm(JWSAlgorithm.RS256);
+            return privateKey == null ? builder.build() : builder.privateKey(privateKey).build();
+        }
+        if (publicKey instanceof ECPublicKey ecPublicKey && Curve.P_256.equals(Curve.forECParameterSpec(ecPublicKey.getParams()))) {
+            ECKey.Builder builder = new ECKey.Builder(Curve.P_256, ecPublicKey).keyID(kid).keyUse(KeyUse.SIGNATURE).algorithm(JWSAlgorithm.ES256);
+            return privateKey == null ? builder.build() : builder.privateKey(privateKey).build();
+        }
+        throw new GeneralSecurityException(kid + " is neither an RSA nor a P-256 key");
+    }
+
+    private static PrivateKey readPrivateKey(Path file) throws IOException, GeneralSecurityException {
+        PKCS8EncodedKeySpec spec = new PKCS8EncodedKeySpec(readPem(file, "PRIVATE KEY"));
+        try {
+            return KeyFactory.getInstance("RSA").generatePrivate(spec);
+        } catch (InvalidKeySpecException e) {
+            return KeyFactory.getInstance("EC").generatePrivate(spec);
+        }
+    }
+
+    private static PublicKey readPublicKey(Path file) throws IOException, GeneralSecurityException {
+        X509EncodedKeySpec spec = new X509EncodedKeySpec(readPem(file, "PUBLIC KEY"));
+        try {
+            return KeyFactory.getInstance("RSA").generatePublic(spec);
+        } catch (InvalidKeySpecException e) {
+            return KeyFactory.getInstance("EC").generatePublic(spec);
+        }
+    }
+
+    private static byte[] readPem(Path file, String type) throws IOException {
+        String pem = Files.readString(file, StandardCharsets.US_ASCII);
+        String begin = "-----BEGIN " + type + "-----";
+        String end = "-----END " + type + "-----";
+        int start = pem.indexOf(begin);
+        int stop = pem.indexOf(end);
+        if (start < 0 || stop < start) {
+            throw new IOException(file + " is not a PEM " + type);
+        }
+        return Base64.getMimeDecoder().decode(pem.substring(start + begin.length(), stop));
+    }
+
+    private static JWK generateKey(JWSAlgorithm algorithm) {
+        logger.warn("jwt.keys.directory is not set, signing with a generated key; tokens will not verify on other nodes or after a restart");
+        try {
+            KeyPair pair = JWSAlgorithm.ES256.equals(algorithm) ? KeyGeneratorUtility.generateEcKey() : KeyGeneratorUtility.generateRsaKey();
+            return toJwk(UUID.randomUUID().toString(), pair.getPublic(), pair.getPrivate());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not generate a JWT signing key", e);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import javaweb.task_management_system.exceptions.InvalidValueException;
 
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
 
 public class KeyGeneratorUtility {
 
@@ -21,4 +22,18 @@ public class KeyGeneratorUtility {
         }
         return keyPair;
     }
+
+    public static KeyPair generateEcKey(){
+        KeyPair keyPair;
+
+        try{
+            KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("EC");
+            keyPairGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+            keyPair = keyPairGenerator.generateKeyPair();
+
+        }catch (Exception e){
+            throw new InvalidAction("Something went wrong while trying to generate the EC key!");
+        }
+        return keyPair;
+    }
 }
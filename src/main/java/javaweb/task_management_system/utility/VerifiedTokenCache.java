@@ -0,0 +1,128 @@
+package javaweb.task_management_system.utility;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Tokens whose signature was already verified, so a client sending the same cookie on every request pays for the
+// RSA verification once. Entries are keyed by the SHA-256 of the token (the token itself is never kept as a key)
+// and live until the token expires or for ttl-seconds, whichever comes first. max-entries=0 turns the cache off.
+@Component
+public class VerifiedTokenCache {
+
+    private final Map<String, VerifiedToken> tokens = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final Duration ttl;
+    private final Counter hits;
+    private final Counter misses;
+
+    @Autowired
+    public VerifiedTokenCache(MeterRegistry meterRegistry,
+                              @Value("${jwt.cache.max-entries:10000}") int maxEntries,
+                              @Value("${jwt.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+
+        this.hits = meterRegistry.counter("security.jwt.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("security.jwt.cache.requests", "result", "miss");
+        meterRegistry.gaugeMapSize("security.jwt.cache.size", List.of(), tokens);
+        meterRegistry.gauge("security.jwt.cache.hit-ratio", this, cache -> {
+            double total = cache.hits.count() + cache.misses.count();
+            return total == 0 ? 0 : cache.hits.count() / total;
+        });
+    }
+
+    // Returns null when the token has to be decoded and verified
+    public VerifiedToken get(String token) {
+        String digest = digest(token);
+        VerifiedToken verified = tokens.get(digest);
+        if (verified != null && verified.validUntil.isBefore(Instant.now())) {
+            tokens.remove(digest, verified);
+            verified = null;
+        }
+
+        if (verified == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return verified;
+    }
+
+    public VerifiedToken put(String token, Jwt jwt, AuthenticatedUser user) {
+        Instant validUntil = Instant.now().plus(ttl);
+        if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isBefore(validUntil)) {
+            validUntil = jwt.getExpiresAt();
+        }
+
+        VerifiedToken verified = new VerifiedToken(jwt, user, validUntil);
+        if (maxEntries <= 0) {
+            return verified;
+        }
+        evictIfFull();
+        tokens.put(digest(token), verified);
+        return verified;
+    }
+
+    public void invalidate(String token) {
+        tokens.remove(digest(token));
+    }
+
+    // Expired entries go first; if that is not enough, any entry can go since it is simply verified again
+    private void evictIfFull() {
+        if (tokens.size() < maxEntries) {
+            return;
+        }
+        Instant now = Instant.now();
+        tokens.values().removeIf(verified -> verified.validUntil.isBefore(now));
+
+        Iterator<String> digests = tokens.keySet().iterator();
+        while (tokens.size() >= maxEntries && digests.hasNext()) {
+            digests.next();
+            digests.remove();
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public static class VerifiedToken {
+        private final Jwt jwt;
+        private final AuthenticatedUser user;
+        private final Instant validUntil;
+
+        private VerifiedToken(Jwt jwt, AuthenticatedUser user, Instant validUntil) {
+            this.jwt = jwt;
+            this.user = user;
+            this.validUntil = validUntil;
+        }
+
+        public Jwt getJwt() {
+            return jwt;
+        }
+
+        public AuthenticatedUser getUser() {
+            return user;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package javaweb.task_management_system;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Opt-in measurement, skipped in the normal build: mvn test -Dtest=<test class> -Dbenchmark=true.
+// Results are logged at INFO by the test class.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Test
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public @interface Benchmark {
+}
@@ -1,6 +1,7 @@
 package javaweb.task_management_system.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.Cookie;
 import javaweb.task_management_system.controllers.AuthController;
 import javaweb.task_management_system.dtos.ActionSuccessResponse;
 import javaweb.task_management_system.dtos.LoginRequest;
@@ -8,6 +9,8 @@ import javaweb.task_management_system.dtos.LoginResponseDTO;
 import javaweb.task_management_system.dtos.UserDTO;
 import javaweb.task_management_system.exceptions.GlobalExceptionHandler;
 import javaweb.task_management_system.exceptions.InvalidUserException;
+import javaweb.task_management_system.exceptions.InvalidValueException;
+import javaweb.task_management_system.exceptions.ResourceNotFoundException;
 import javaweb.task_management_system.models.RoleEntity;
 import javaweb.task_management_system.models.UserEntity;
 import javaweb.task_management_system.services.AuthenticationService;
@@ -29,6 +32,7 @@ import java.util.TreeSet;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -143,7 +147,7 @@ public class AuthControllerTest {
 
     @Test
     void loginSuccess() throws Exception {
-        LoginResponseDTO loginResponse = new LoginResponseDTO(testUserDTO, "test.jwt.token");
+        LoginResponseDTO loginResponse = new LoginResponseDTO(testUserDTO, "test.jwt.token", "refresh-token");
         when(authenticationService.login(loginRequest.getEmail(), loginRequest.getPassword()))
                 .thenReturn(loginResponse);
 
@@ -153,6 +157,10 @@ public class AuthControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(cookie().exists("jwt"))
                 .andExpect(cookie().httpOnly("jwt", true))
+                .andExpect(cookie().maxAge("jwt", 900))
+                .andExpect(cookie().value("refresh_token", "refresh-token"))
+                .andExpect(cookie().path("refresh_token", "/api/auth"))
+                .andExpect(cookie().httpOnly("refresh_token", true))
                 .andExpect(jsonPath("$.email").value(testUser.getEmail()))
                 .andReturn();
 
@@ -160,6 +168,28 @@ public class AuthControllerTest {
         assert jwt != null && jwt.equals("test.jwt.token");
     }
 
+    @Test
+    void refreshSuccess() throws Exception {
+        when(authenticationService.refresh("old-refresh-token"))
+                .thenReturn(new LoginResponseDTO(testUserDTO, "new.jwt.token", "new-refresh-token"));
+
+        mockMvc.perform(post("/api/auth/refresh").cookie(new Cookie("refresh_token", "old-refresh-token")))
+                .andExpect(status().isOk())
+                .andExpect(cookie().value("jwt", "new.jwt.token"))
+                .andExpect(cookie().value("refresh_token", "new-refresh-token"))
+                .andExpect(jsonPath("$.email").value(testUser.getEmail()));
+    }
+
+    @Test
+    void refreshWithReusedToken() throws Exception {
+        when(authenticationService.refresh("used-refresh-token"))
+                .thenThrow(new InvalidValueException("Refresh token was already used!"));
+
+        mockMvc.perform(post("/api/auth/refresh").cookie(new Cookie("refresh_token", "used-refresh-token")))
+                .andExpect(status().isUnauthorized())
+                .andExpect(cookie().doesNotExist("jwt"));
+    }
+
     @Test
     void loginWithInvalidCredentials() throws Exception {
         // Simulate the exception being thrown during login
@@ -175,27 +205,43 @@ public class AuthControllerTest {
     }
 
 
-        @Test
+    @Test
     @WithMockUser
     void logoutSuccess() throws Exception {
         ActionSuccessResponse logoutResponse = new ActionSuccessResponse("mircea@yahoo.com", "Logout successfully");
-        when(authenticationService.logout()).thenReturn(logoutResponse);
+        when(authenticationService.logout("access-token", "refresh-token")).thenReturn(logoutResponse);
 
-        mockMvc.perform(post("/api/auth/logout"))
+        mockMvc.perform(post("/api/auth/logout")
+                        .cookie(new Cookie("jwt", "access-token"), new Cookie("refresh_token", "refresh-token")))
                 .andExpect(status().isOk())
                 .andExpect(cookie().value("jwt", (String) null))
                 .andExpect(cookie().maxAge("jwt", 0))
+                .andExpect(cookie().maxAge("refresh_token", 0))
                 .andExpect(jsonPath("$.email").value("mircea@yahoo.com"))
                 .andExpect(jsonPath("$.message").value("Logout successfully"));
     }
 
     @Test
-    void logoutWithoutAuthentication() throws Exception {
-        // No @WithMockUser annotation here
-        when(authenticationService.logout())
-                .thenThrow(new RuntimeException("Authentication context is not present!"));
+    void logoutWithExpiredAccessToken() throws Exception {
+        // No @WithMockUser annotation here, an expired access token does not authenticate the request
+        when(authenticationService.logout("expired-token", "refresh-token"))
+                .thenReturn(new ActionSuccessResponse(null, "Logout successfully"));
+
+        mockMvc.perform(post("/api/auth/logout")
+                        .cookie(new Cookie("jwt", "expired-token"), new Cookie("refresh_token", "refresh-token")))
+                .andExpect(status().isOk())
+                .andExpect(cookie().maxAge("jwt", 0))
+                .andExpect(cookie().maxAge("refresh_token", 0))
+                .andExpect(jsonPath("$.message").value("Logout successfully"));
+        verify(authenticationService).logout("expired-token", "refresh-token");
+    }
+
+    @Test
+    void logoutWithoutTokens() throws Exception {
+        when(authenticationService.logout(null, null))
+                .thenThrow(new ResourceNotFoundException("No session to log out of!"));
 
         mockMvc.perform(post("/api/auth/logout"))
-                .andExpect(status().isUnauthorized());  // Changed from isInternalServerError to isUnauthorized
+                .andExpect(status().isNotFound());
     }
 }
\ No newline at end of file
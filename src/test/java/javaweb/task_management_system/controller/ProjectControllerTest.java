@@ -4,9 +4,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import javaweb.task_management_system.controllers.AuthController;
 import javaweb.task_management_system.controllers.ProjectController;
 import javaweb.task_management_system.dtos.ActionSuccessResponse;
+import javaweb.task_management_system.dtos.CursorPage;
 import javaweb.task_management_system.dtos.ProjectDetailsDTO;
 import javaweb.task_management_system.exceptions.GlobalExceptionHandler;
 import javaweb.task_management_system.models.ProjectEntity;
+import javaweb.task_management_system.services.DataVersionService;
 import javaweb.task_management_system.services.ProjectService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -42,6 +44,9 @@ public class ProjectControllerTest {
     @MockBean
     private ProjectService projectService;
 
+    @MockBean
+    private DataVersionService dataVersionService;
+
     private ProjectEntity sampleProject;
     private ActionSuccessResponse successResponse;
 
@@ -57,6 +62,7 @@ public class ProjectControllerTest {
         );
 
         successResponse = new ActionSuccessResponse("test@example.com", "Operation successful");
+        Mockito.when(dataVersionService.getCurrentETag()).thenReturn("\"1.7\"");
     }
 
     @Test
@@ -108,14 +114,25 @@ public class ProjectControllerTest {
         projectDetailsDTO.setDescription("Test Description");
         projectDetailsDTO.setTasks(List.of()); // Assuming no tasks for simplicity
 
-        Mockito.when(projectService.getProjectsForCurrentUserWithTasks())
-                .thenReturn(Arrays.asList(projectDetailsDTO));
+        Mockito.when(projectService.getProjectsForCurrentUserWithTasks(null, 50))
+                .thenReturn(new CursorPage<>(Arrays.asList(projectDetailsDTO), "next-cursor"));
 
         mockMvc.perform(get("/api/projects/details"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(projectDetailsDTO.getId()))
-                .andExpect(jsonPath("$[0].name").value(projectDetailsDTO.getName()))
-                .andExpect(jsonPath("$[0].description").value(projectDetailsDTO.getDescription()));
+                .andExpect(jsonPath("$.items[0].id").value(projectDetailsDTO.getId()))
+                .andExpect(jsonPath("$.items[0].name").value(projectDetailsDTO.getName()))
+                .andExpect(jsonPath("$.items[0].description").value(projectDetailsDTO.getDescription()))
+                .andExpect(jsonPath("$.next").value("next-cursor"))
+                .andExpect(header().string("ETag", "\"1.7\""));
+    }
+
+    @Test
+    public void getProjectsForCurrentUser_ShouldReturnNotModified_WhenETagMatches() throws Exception {
+        mockMvc.perform(get("/api/projects/details").header("If-None-Match", "\"1.7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        Mockito.verify(projectService, Mockito.never()).getProjectsForCurrentUserWithTasks(any(), Mockito.anyInt());
     }
 
 
@@ -0,0 +1,200 @@
+package javaweb.task_management_system.repository;
+
+import javaweb.task_management_system.dtos.DeliveredNotification;
+import javaweb.task_management_system.models.NotificationEntity;
+import javaweb.task_management_system.models.NotificationOutboxEntity;
+import javaweb.task_management_system.models.NotificationTemplate;
+import javaweb.task_management_system.models.UserEntity;
+import javaweb.task_management_system.repositories.NotificationOutboxRepository;
+import javaweb.task_management_system.services.NotificationWriter;
+import javaweb.task_management_system.services.RowNotificationStore;
+import javaweb.task_management_system.services.UnreadNotificationCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static javaweb.task_management_system.repository.UserFixtures.persistUser;
+import static org.junit.jupiter.api.Assertions.*;
+
+// MySQL mode for the ON DUPLICATE KEY upserts of the unread counters
+@DataJpaTest(properties = {
+        "spring.test.database.replace=none",
+        "spring.datasource.url=jdbc:h2:mem:outbox;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "notifications.outbox.max-attempts=2"
+})
+@Import({NotificationWriter.class, RowNotificationStore.class, UnreadNotificationCounter.class})
+class NotificationOutboxRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @Autowired
+    private NotificationWriter notificationWriter;
+
+    @Autowired
+    private UnreadNotificationCounter unreadCounter;
+
+    private UserEntity recipient;
+
+    @BeforeEach
+    void setUp() {
+        recipient = persistUser(entityManager, "recipient@example.com");
+    }
+
+    @Test
+    void claimBatch_shouldReturnTheRowsAvailableFirst_upToTheLimit() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        outboxRepository.saveAll(List.of(
+                new NotificationOutboxEntity(recipient.getId(), NotificationTemplate.TASK_ADDED, "Second", null, now.minusMinutes(2)),
+                new NotificationOutboxEntity(recipient.getId(), NotificationTemplate.TASK_ADDED, "Third", null, now.minusMinutes(1)),
+                new NotificationOutboxEntity(recipient.getId(), NotificationTemplate.TASK_ADDED, "First", null, now.minusMinutes(3))));
+        entityManager.flush();
+
+        // Act
+        List<NotificationOutboxEntity> claimed = outboxRepository.claimBatch(now, 2);
+
+        // Assert
+        assertEquals(List.of("First", "Second"), claimed.stream().map(NotificationOutboxEntity::getParams).toList());
+    }
+
+    @Test
+    void coalesce_shouldMergeUpdatesIntoThePendingRow_untilItsWindowCloses() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        outboxRepository.save(new NotificationOutboxEntity(recipient.getId(), NotificationTemplate.TASK_UPDATED, "Report", "task:1", now.plusSeconds(30)));
+        outboxRepository.save(new NotificationOutboxEntity(recipient.getId(), NotificationTemplate.TASK_UPDATED, "Other", "task:2", now.minusSeconds(1)));
+        entityManager.flush();
+
+        // Act
+        int merged = outboxRepository.coalesce(recipient.getId(), "task:1", NotificationTemplate.TASK_UPDATED, "Report v2", now);
+        int mergedAgain = outboxRepository.coalesce(recipient.getId(), "task:1", NotificationTemplate.TASK_UPDATED, "Report v3", now.plusSeconds(1));
+        int otherKind = outboxRepository.coalesce(recipient.getId(), "task:1", NotificationTemplate.TASK_STATUS_UPDATED, null, now);
+        int windowClosed = outboxRepository.coalesce(recipient.getId(), "task:2", NotificationTemplate.TASK_UPDATED, "Other v2", now);
+        entityManager.clear();
+
+        // Assert
+        assertEquals(1, merged);
+        assertEquals(1, mergedAgain);
+        assertEquals(0, otherKind);
+        assertEquals(0, windowClosed);
+        List<NotificationOutboxEntity> claimable = outboxRepository.claimBatch(now, 10);
+        assertEquals(List.of("Other"), claimable.stream().map(NotificationOutboxEntity::getParams).toList());
+        // the merged row became available last
+        List<NotificationOutboxEntity> claimableLater = outboxRepository.claimBatch(now.plusMinutes(1), 10);
+        NotificationOutboxEntity pending = claimableLater.get(claimableLater.size() - 1);
+        assertEquals("Report v3", pending.getParams());
+        assertEquals(3, pending.getOccurrences());
+    }
+
+    @Test
+    void recordFailure_shouldBackTheRowOff_andDeadLetterItAfterTheLastAttempt() {
+        // Arrange
+        NotificationOutboxEntity failing = outboxRepository.save(
+                new NotificationOutboxEntity(recipient.getId(), NotificationTemplate.TASK_UPDATED, "Report", "task:1", LocalDateTime.now()));
+        NotificationOutboxEntity healthy = outboxRepository.save(new NotificationOutboxEntity(recipient.getId(), NotificationTemplate.TASK_ADDED, "Budget"));
+        entityManager.flush();
+        IllegalStateException failure = new IllegalStateException("foreign key");
+
+        // Act
+        boolean deadAfterFirst = notificationWriter.recordFailure(failing.getId(), failure);
+        entityManager.flush();
+        entityManager.clear();
+        List<Long> relayableWhileBackingOff = outboxRepository.findRelayableIds(LocalDateTime.now(), Limit.of(10));
+        boolean deadAfterSecond = notificationWriter.recordFailure(failing.getId(), failure);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert
+        assertFalse(deadAfterFirst);
+        assertEquals(List.of(healthy.getId()), relayableWhileBackingOff);
+        assertTrue(deadAfterSecond);
+        NotificationOutboxEntity deadLettered = outboxRepository.findById(failing.getId()).orElseThrow();
+        assertEquals(2, deadLettered.getAttempts());
+        assertNotNull(deadLettered.getDeadLetteredAt());
+        assertEquals("java.lang.IllegalStateException: foreign key", deadLettered.getLastError());
+        assertEquals(List.of(healthy.getId()), outboxRepository.claimBatch(LocalDateTime.now().plusDays(1), 10)
+                .stream().map(NotificationOutboxEntity::getId).toList());
+        assertEquals(0, outboxRepository.coalesce(recipient.getId(), "task:1", NotificationTemplate.TASK_UPDATED, "Report v2", LocalDateTime.now()));
+        assertEquals(1, outboxRepository.countByDeadLetteredAtIsNotNull());
+    }
+
+    @Test
+    void relayRow_shouldRelayOnlyThatRow() {
+        // Arrange
+        outboxRepository.save(new NotificationOutboxEntity(recipient.getId(), NotificationTemplate.TASK_ADDED, "Report"));
+        NotificationOutboxEntity second = outboxRepository.save(new NotificationOutboxEntity(recipient.getId(), NotificationTemplate.TASK_ADDED, "Budget"));
+        entityManager.flush();
+
+        // Act
+        List<DeliveredNotification> relayed = notificationWriter.relayRow(second.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert
+        assertEquals(1, relayed.size());
+        assertEquals(1, outboxRepository.count());
+        assertTrue(outboxRepository.findById(second.getId()).isEmpty());
+        assertEquals(1, unreadCounter.get(recipient.getId()));
+    }
+
+    @Test
+    void relayChunk_shouldMoveOutboxRowsIntoNotifications() {
+        // Arrange
+        NotificationOutboxEntity pending = outboxRepository.save(new NotificationOutboxEntity(recipient.getId(), NotificationTemplate.TASK_ADDED, "Report"));
+        outboxRepository.save(new NotificationOutboxEntity(recipient.getId(), NotificationTemplate.TASK_UPDATED, "Report"));
+        entityManager.flush();
+
+        // Act
+        List<DeliveredNotification> relayed = notificationWriter.relayChunk(10);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert
+        assertEquals(2, relayed.size());
+        assertEquals(recipient.getId(), relayed.get(0).getRecipientId());
+        assertEquals(0, outboxRepository.count());
+        List<NotificationEntity> notifications = entityManager.getEntityManager()
+                .createQuery("SELECT n FROM NotificationEntity n ORDER BY n.id", NotificationEntity.class)
+                .getResultList();
+        assertEquals(List.of("Task: Report has been added!", "The task: Report has been updated!"), notifications.stream().map(NotificationEntity::getContent).toList());
+        assertEquals(recipient.getId(), notifications.get(0).getRecipient().getId());
+        assertEquals(pending.getCreatedAt().withNano(0), notifications.get(0).getCreatedAt().withNano(0));
+        assertEquals(2, unreadCounter.get(recipient.getId()));
+    }
+
+    @Test
+    void unreadCounter_shouldBeAdjustedInTheWritingTransaction_andReconciledFromTheStore() {
+        // Arrange
+        outboxRepository.save(new NotificationOutboxEntity(recipient.getId(), NotificationTemplate.TASK_ADDED, "Report"));
+        outboxRepository.save(new NotificationOutboxEntity(recipient.getId(), NotificationTemplate.TASK_ADDED, "Budget"));
+        entityManager.flush();
+        notificationWriter.relayChunk(10);
+
+        // Act
+        unreadCounter.decrement(recipient.getId());
+        long afterMarkRead = unreadCounter.get(recipient.getId());
+        int drifted = unreadCounter.reconcile(List.of(recipient.getId()));
+
+        // Assert
+        assertEquals(1, afterMarkRead);
+        assertEquals(1, drifted);
+        assertEquals(2, unreadCounter.get(recipient.getId()));
+        assertEquals(0, unreadCounter.reconcile(List.of(recipient.getId())));
+    }
+}
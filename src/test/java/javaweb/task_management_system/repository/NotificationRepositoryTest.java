@@ -0,0 +1,182 @@
+package javaweb.task_management_system.repository;
+
+import javaweb.task_management_system.dtos.NotificationDTO;
+import javaweb.task_management_system.models.NotificationEntity;
+import javaweb.task_management_system.models.UserEntity;
+import javaweb.task_management_system.repositories.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static javaweb.task_management_system.repository.UserFixtures.persistUser;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class NotificationRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    private UserEntity recipient;
+    private UserEntity other;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        recipient = persistUser(entityManager, "recipient@example.com");
+        other = persistUser(entityManager, "other@example.com");
+        now = LocalDateTime.now().withNano(0);
+
+        persistNotification("Oldest", recipient, now.minusMinutes(3), false);
+        persistNotification("Same time, read", recipient, now.minusMinutes(2), true);
+        persistNotification("Same time, unread", recipient, now.minusMinutes(2), false);
+        persistNotification("Newest", recipient, now, true);
+        persistNotification("Someone else's", other, now, false);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findInbox_shouldWalkPagesNewestFirstAcrossEqualTimestamps() {
+        // Act
+        List<NotificationDTO> firstPage = notificationRepository.findInbox(recipient.getId(), Limit.of(2));
+        NotificationDTO last = firstPage.get(1);
+        List<NotificationDTO> secondPage = notificationRepository.findInboxAfter(
+                recipient.getId(), last.getCreatedAt(), last.getId(), Limit.of(2));
+
+        // Assert
+        assertEquals(List.of("Newest", "Same time, unread"), firstPage.stream().map(NotificationDTO::getContent).toList());
+        assertEquals(List.of("Same time, read", "Oldest"), secondPage.stream().map(NotificationDTO::getContent).toList());
+    }
+
+    @Test
+    void findInboxSince_shouldReturnLaterNotificationsOldestFirst() {
+        // Arrange
+        List<NotificationDTO> all = notificationRepository.findInbox(recipient.getId(), Limit.of(10));
+        NotificationDTO oldest = all.get(all.size() - 1);
+        NotificationDTO sameTimeRead = all.get(2);
+
+        // Act
+        List<NotificationDTO> since = notificationRepository.findInboxSince(recipient.getId(), oldest.getCreatedAt(), oldest.getId(), Limit.of(2));
+        // the last one the stream sent came from another node's id block, above every id here
+        List<NotificationDTO> sinceHigherId = notificationRepository.findInboxSince(
+                recipient.getId(), now.minusMinutes(1), all.get(0).getId() + 100, Limit.of(10));
+
+        // Assert
+        assertEquals(List.of("Same time, read", "Same time, unread"), since.stream().map(NotificationDTO::getContent).toList());
+        assertEquals(List.of("Same time, unread", "Newest"), notificationRepository.findInboxSince(
+                recipient.getId(), sameTimeRead.getCreatedAt(), sameTimeRead.getId(), Limit.of(10)).stream().map(NotificationDTO::getContent).toList());
+        assertEquals(List.of("Newest"), sinceHigherId.stream().map(NotificationDTO::getContent).toList());
+    }
+
+    @Test
+    void findUnreadInbox_shouldSkipReadNotifications() {
+        // Act
+        List<NotificationDTO> firstPage = notificationRepository.findUnreadInbox(recipient.getId(), Limit.of(1));
+        NotificationDTO last = firstPage.get(0);
+        List<NotificationDTO> secondPage = notificationRepository.findUnreadInboxAfter(
+                recipient.getId(), last.getCreatedAt(), last.getId(), Limit.of(10));
+
+        // Assert
+        assertEquals(List.of("Same time, unread"), firstPage.stream().map(NotificationDTO::getContent).toList());
+        assertEquals(List.of("Oldest"), secondPage.stream().map(NotificationDTO::getContent).toList());
+        assertFalse(secondPage.get(0).isRead());
+    }
+
+    @Test
+    void countUnreadByRecipientIds_shouldGroupUnreadNotificationsPerUser() {
+        // Act
+        List<NotificationRepository.UnreadCountView> counts = notificationRepository.countUnreadByRecipientIds(List.of(recipient.getId()));
+
+        // Assert
+        assertEquals(1, counts.size());
+        assertEquals(recipient.getId(), counts.get(0).getUserId());
+        assertEquals(2, counts.get(0).getUnreadCount());
+        assertEquals(2, notificationRepository.countByRecipientIdAndIsReadFalse(recipient.getId()));
+    }
+
+    @Test
+    void markReadUpTo_shouldOnlyTouchTheCallersOlderUnreadNotifications() {
+        // Arrange
+        NotificationDTO sameTimeUnread = notificationRepository.findUnreadInbox(recipient.getId(), Limit.of(1)).get(0);
+
+        // Act
+        int updated = notificationRepository.markReadUpTo(recipient.getId(), sameTimeUnread.getCreatedAt(), sameTimeUnread.getId() - 1);
+        int updatedAll = notificationRepository.markAllRead(recipient.getId());
+
+        // Assert
+        assertEquals(1, updated);
+        assertEquals(1, updatedAll);
+        assertEquals(0, notificationRepository.countByRecipientIdAndIsReadFalse(recipient.getId()));
+        assertEquals(1, notificationRepository.countUnreadByRecipientIds(List.of(other.getId())).get(0).getUnreadCount());
+    }
+
+    @Test
+    void deleteByReadStates_shouldDeleteReadOrOlderNotificationsOfTheCaller() {
+        // Act
+        int deletedRead = notificationRepository.deleteByReadStates(recipient.getId(), List.of(true));
+        int deletedOlder = notificationRepository.deleteByReadStatesOlderThan(
+                recipient.getId(), List.of(true, false), now.minusMinutes(1));
+
+        // Assert
+        assertEquals(2, deletedRead);
+        assertEquals(2, deletedOlder);
+        assertTrue(notificationRepository.findInbox(recipient.getId(), Limit.of(10)).isEmpty());
+        assertEquals(1, notificationRepository.findInbox(other.getId(), Limit.of(10)).size());
+    }
+
+    @Test
+    void retentionQueries_shouldSelectExpiredAndOverLimitRowsByPrimaryKey() {
+        // Arrange
+        NotificationDTO secondNewest = notificationRepository.findInbox(recipient.getId(), PageRequest.of(1, 1)).get(0);
+
+        // Act
+        List<Long> expiredRead = ids(notificationRepository.findExpired(now.minusMinutes(1), List.of(true), Limit.of(10)));
+        List<NotificationRepository.ExpiredView> firstExpired = notificationRepository.findExpired(
+                now.minusMinutes(1), List.of(true, false), Limit.of(1));
+        List<Long> expiredAll = new ArrayList<>(ids(firstExpired));
+        expiredAll.addAll(ids(notificationRepository.findExpiredAfter(firstExpired.get(0).getCreatedAt(),
+                firstExpired.get(0).getId(), now.minusMinutes(1), List.of(true, false), Limit.of(10))));
+        List<Long> overLimit = notificationRepository.findRecipientsOverLimit(1);
+        List<Long> pastNewest = notificationRepository.findIdsUpTo(recipient.getId(), secondNewest.getCreatedAt(),
+                secondNewest.getId(), List.of(true, false), Limit.of(10));
+        int deleted = notificationRepository.deleteByIds(pastNewest);
+
+        // Assert
+        assertEquals(1, expiredRead.size());
+        assertEquals(3, expiredAll.size());
+        assertEquals(List.of(recipient.getId()), overLimit);
+        assertEquals(expiredAll.stream().sorted().toList(), pastNewest.stream().sorted().toList());
+        assertEquals(3, deleted);
+        assertEquals(List.of("Newest"), notificationRepository.findInbox(recipient.getId(), Limit.of(10)).stream()
+                .map(NotificationDTO::getContent).toList());
+    }
+
+    private List<Long> ids(List<NotificationRepository.ExpiredView> expired) {
+        return expired.stream().map(NotificationRepository.ExpiredView::getId).toList();
+    }
+
+    // stored as full text, like rows written before templates existed
+    private void persistNotification(String content, UserEntity user, LocalDateTime createdAt, boolean read) {
+        NotificationEntity notification = new NotificationEntity();
+        notification.setRecipient(user);
+        notification.setContent(content);
+        notification.setCreatedAt(createdAt);
+        notification.setRead(read);
+        entityManager.persist(notification);
+    }
+}
@@ -0,0 +1,126 @@
+package javaweb.task_management_system.repository;
+
+import javaweb.task_management_system.Benchmark;
+import javaweb.task_management_system.dtos.NotificationDTO;
+import javaweb.task_management_system.models.NotificationEntity;
+import javaweb.task_management_system.models.NotificationTemplate;
+import javaweb.task_management_system.models.UserEntity;
+import javaweb.task_management_system.repositories.NotificationRepository;
+import javaweb.task_management_system.services.NotificationTemplateMigrator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static javaweb.task_management_system.repository.UserFixtures.persistUser;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import(NotificationTemplateMigrator.class)
+class NotificationTemplateStorageTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationTemplateStorageTest.class);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationTemplateMigrator templateMigrator;
+
+    private UserEntity recipient;
+
+    @BeforeEach
+    void setUp() {
+        recipient = persistUser(entityManager, "recipient@example.com");
+    }
+
+    @Test
+    void findInbox_shouldRenderTemplateRowsOnRead() {
+        // Arrange
+        entityManager.persist(new NotificationEntity(recipient, NotificationTemplate.TASK_STATUS_CHANGED, "42", "DONE"));
+        entityManager.persist(new NotificationEntity(recipient, NotificationTemplate.TASK_STATUS_UPDATED));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        List<NotificationDTO> inbox = notificationRepository.findInbox(recipient.getId(), Limit.of(10));
+
+        // Assert
+        assertEquals(List.of("Task status updated", "Task 42 status updated to DONE"),
+                inbox.stream().map(NotificationDTO::getContent).toList());
+    }
+
+    @Test
+    void migrateChunk_shouldRewriteMatchingFullTextRows() {
+        // Arrange
+        NotificationEntity added = persistLegacy("Task: Quarterly report has been added!");
+        NotificationEntity owner = persistLegacy("You are now the owner of the project: Apollo");
+        NotificationEntity custom = persistLegacy("Welcome to the team!");
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        List<NotificationEntity> checked = templateMigrator.migrateChunk(0L);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert
+        assertEquals(3, checked.size());
+        NotificationEntity migratedAdded = entityManager.find(NotificationEntity.class, added.getId());
+        assertEquals(NotificationTemplate.TASK_ADDED, migratedAdded.getTemplate());
+        assertEquals("Quarterly report", migratedAdded.getParams());
+        assertEquals("Task: Quarterly report has been added!", migratedAdded.getContent());
+        assertEquals(NotificationTemplate.PROJECT_OWNER_GRANTED, entityManager.find(NotificationEntity.class, owner.getId()).getTemplate());
+        assertNull(entityManager.find(NotificationEntity.class, custom.getId()).getTemplate());
+        assertEquals(List.of(custom.getId()), templateMigrator.migrateChunk(0L).stream().map(NotificationEntity::getId).toList());
+    }
+
+    @Benchmark
+    void benchmark_storagePerMillionNotifications() {
+        int rows = 20_000;
+        for (int i = 0; i < rows; i++) {
+            String taskName = "Quarterly report " + i;
+            persistLegacy("You have been assigned to the task: " + taskName);
+            entityManager.persist(new NotificationEntity(recipient, NotificationTemplate.TASK_ASSIGNED, taskName));
+            if (i % 500 == 0) {
+                entityManager.flush();
+                entityManager.clear();
+                recipient = entityManager.find(UserEntity.class, recipient.getId());
+            }
+        }
+        entityManager.flush();
+
+        // a template code is a SMALLINT, 2 bytes
+        long fullTextBytes = sumBytes("SELECT SUM(OCTET_LENGTH(content)) FROM notifications WHERE content IS NOT NULL");
+        long templateBytes = sumBytes("SELECT SUM(OCTET_LENGTH(params) + 2) FROM notifications WHERE template IS NOT NULL");
+
+        double perMillion = 1_000_000.0 / rows / (1024 * 1024);
+        logger.info("message payload per million notifications: full text {} MiB, template {} MiB",
+                String.format("%.1f", fullTextBytes * perMillion), String.format("%.1f", templateBytes * perMillion));
+        assertTrue(templateBytes < fullTextBytes);
+    }
+
+    private long sumBytes(String sql) {
+        return ((Number) entityManager.getEntityManager().createNativeQuery(sql).getSingleResult()).longValue();
+    }
+
+    private NotificationEntity persistLegacy(String content) {
+        NotificationEntity notification = new NotificationEntity();
+        notification.setRecipient(recipient);
+        notification.setContent(content);
+        return entityManager.persist(notification);
+    }
+}
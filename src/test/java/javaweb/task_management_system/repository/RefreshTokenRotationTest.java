@@ -0,0 +1,72 @@
+package javaweb.task_management_system.repository;
+
+import javaweb.task_management_system.exceptions.InvalidValueException;
+import javaweb.task_management_system.repositories.RefreshTokenRepository;
+import javaweb.task_management_system.services.RefreshTokenService;
+import javaweb.task_management_system.services.RefreshTokenServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import(RefreshTokenServiceImpl.class)
+class RefreshTokenRotationTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Test
+    void rotate_shouldReplaceTheToken_andStoreOnlyItsHash() {
+        // Arrange
+        String first = refreshTokenService.issue(1L);
+
+        // Act
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(first);
+
+        // Assert
+        assertEquals(1L, rotation.getUserId());
+        assertNotEquals(first, rotation.getToken());
+        assertEquals(2, refreshTokenRepository.count());
+        refreshTokenRepository.findAll().forEach(row -> {
+            assertEquals(64, row.getTokenHash().length());
+            assertNotEquals(first, row.getTokenHash());
+        });
+        assertEquals(1L, refreshTokenService.rotate(rotation.getToken()).getUserId());
+    }
+
+    @Test
+    void rotate_shouldRevokeTheWholeFamily_whenAUsedTokenComesBack() {
+        // Arrange
+        String stolen = refreshTokenService.issue(1L);
+        String current = refreshTokenService.rotate(stolen).getToken();
+        String otherSession = refreshTokenService.issue(1L);
+
+        // Act & Assert
+        assertThrows(InvalidValueException.class, () -> refreshTokenService.rotate(stolen));
+        assertThrows(InvalidValueException.class, () -> refreshTokenService.rotate(current));
+        assertEquals(1L, refreshTokenService.rotate(otherSession).getUserId());
+    }
+
+    @Test
+    void revoke_shouldEndTheSession_andIgnoreUnknownTokens() {
+        // Arrange
+        String token = refreshTokenService.issue(1L);
+
+        // Act
+        refreshTokenService.revoke(token);
+        refreshTokenService.revoke("unknown");
+
+        // Assert
+        assertThrows(InvalidValueException.class, () -> refreshTokenService.rotate(token));
+        assertEquals(0, refreshTokenRepository.count());
+    }
+}
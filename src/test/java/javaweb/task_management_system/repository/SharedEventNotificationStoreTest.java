@@ -0,0 +1,197 @@
+package javaweb.task_management_system.repository;
+
+import javaweb.task_management_system.dtos.DeliveredNotification;
+import javaweb.task_management_system.dtos.NotificationDTO;
+import javaweb.task_management_system.models.NotificationEventEntity;
+import javaweb.task_management_system.models.NotificationOutboxEntity;
+import javaweb.task_management_system.models.NotificationRecipientEntity;
+import javaweb.task_management_system.models.NotificationTemplate;
+import javaweb.task_management_system.repositories.NotificationRepository;
+import javaweb.task_management_system.services.SharedEventNotificationStore;
+import javaweb.task_management_system.utility.CursorCodec;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "notifications.storage=shared-events"
+})
+@Import(SharedEventNotificationStore.class)
+class SharedEventNotificationStoreTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private SharedEventNotificationStore notificationStore;
+
+    @Test
+    void write_shouldStoreOneEventPerDistinctNotification_andOneLinkPerRecipient() {
+        // Act
+        List<DeliveredNotification> delivered = notificationStore.write(List.of(
+                pending(1L, NotificationTemplate.TASK_DELETED, "Release"),
+                pending(2L, NotificationTemplate.TASK_DELETED, "Release"),
+                pending(3L, NotificationTemplate.TASK_DELETED, "Release"),
+                pending(3L, NotificationTemplate.TASK_DELETED, "Release"),
+                pending(1L, NotificationTemplate.TASK_ADDED, "Release")));
+        flushAndClear();
+
+        // Assert: the repeat for user 3 is kept, on an event of its own
+        assertEquals(5, delivered.size());
+        assertEquals(List.of(1L, 2L, 3L, 3L, 1L), delivered.stream().map(DeliveredNotification::getRecipientId).toList());
+        assertEquals("Task: Release has been deleted!", delivered.get(0).getNotification().getContent());
+        assertEquals(delivered.get(0).getNotification().getId(), delivered.get(2).getNotification().getId());
+        assertNotEquals(delivered.get(2).getNotification().getId(), delivered.get(3).getNotification().getId());
+        assertEquals(3, count(NotificationEventEntity.class));
+        assertEquals(5, count(NotificationRecipientEntity.class));
+        assertEquals(2, notificationStore.countUnread(3L));
+    }
+
+    @Test
+    void findInbox_shouldJoinTheEventAndWalkPagesNewestFirst() {
+        // Arrange
+        notificationStore.write(List.of(pending(1L, NotificationTemplate.TASK_ADDED, "First"), pending(2L, NotificationTemplate.TASK_ADDED, "First")));
+        notificationStore.write(List.of(pending(1L, NotificationTemplate.TASK_ADDED, "Second")));
+        notificationStore.write(List.of(pending(1L, NotificationTemplate.TASK_ADDED, "Third")));
+        flushAndClear();
+
+        // Act
+        List<NotificationDTO> firstPage = notificationStore.findInbox(1L, null, false, Limit.of(2));
+        NotificationDTO last = firstPage.get(1);
+        List<NotificationDTO> secondPage = notificationStore.findInbox(1L,
+                CursorCodec.decodeTimestampAndId(CursorCodec.encodeTimestampAndId(last.getCreatedAt(), last.getId())), false, Limit.of(2));
+
+        // Assert
+        assertEquals(List.of("Task: Third has been added!", "Task: Second has been added!"), contents(firstPage));
+        assertEquals(List.of("Task: First has been added!"), contents(secondPage));
+        assertEquals(1, notificationStore.findInbox(2L, null, false, Limit.of(10)).size());
+    }
+
+    @Test
+    void inboxReplayAndMarkAllRead_shouldFollowCreationTime_whenEventIdsDoNot() {
+        // Arrange: another node relayed the newer event from a lower id block
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        Long newerId = event(1L, "Newer", now);
+        Long olderId = event(1L, "Older", now.minusMinutes(1));
+        Long oldestId = event(1L, "Oldest", now.minusMinutes(2));
+        assertTrue(newerId < olderId);
+        flushAndClear();
+
+        // Act
+        List<NotificationDTO> firstPage = notificationStore.findInbox(1L, null, false, Limit.of(1));
+        List<NotificationDTO> secondPage = notificationStore.findInbox(1L,
+                new CursorCodec.TimestampCursor(firstPage.get(0).getCreatedAt(), firstPage.get(0).getId()), false, Limit.of(5));
+        int marked = notificationStore.markAllRead(1L, olderId);
+        flushAndClear();
+
+        // Assert
+        assertEquals(List.of(newerId), firstPage.stream().map(NotificationDTO::getId).toList());
+        assertEquals(List.of(olderId, oldestId), secondPage.stream().map(NotificationDTO::getId).toList());
+        assertEquals(2, marked);
+        assertEquals(List.of(newerId), notificationStore.findInbox(1L, null, true, Limit.of(5)).stream().map(NotificationDTO::getId).toList());
+        assertEquals(List.of(olderId, oldestId), notificationStore.findIdsPastNewest(1L, 1, List.of(true, false), Limit.of(5)));
+        assertEquals(List.of(olderId, newerId), notificationStore.findInboxSince(1L,
+                new CursorCodec.TimestampCursor(now.minusMinutes(2), oldestId), Limit.of(5)).stream().map(NotificationDTO::getId).toList());
+    }
+
+    @Test
+    void markReadAndDelete_shouldOnlyTouchTheRecipientsOwnLink() {
+        // Arrange
+        Long eventId = notificationStore.write(List.of(pending(1L, NotificationTemplate.TASK_DELETED, "Release"),
+                pending(2L, NotificationTemplate.TASK_DELETED, "Release"))).get(0).getNotification().getId();
+        flushAndClear();
+
+        // Act
+        assertEquals(true, notificationStore.markRead(1L, eventId).orElseThrow());
+        assertEquals(false, notificationStore.markRead(1L, eventId).orElseThrow());
+        assertTrue(notificationStore.markRead(3L, eventId).isEmpty());
+        flushAndClear();
+
+        // Assert
+        assertEquals(0, notificationStore.countUnread(1L));
+        assertEquals(1, notificationStore.countUnread(2L));
+        assertEquals(true, notificationStore.delete(2L, eventId).orElseThrow());
+        assertEquals(1, count(NotificationEventEntity.class));
+        assertEquals(false, notificationStore.delete(1L, eventId).orElseThrow());
+        assertEquals(0, count(NotificationEventEntity.class));
+    }
+
+    @Test
+    void deleteExpired_shouldKeepUnreadLinksAndTheirEvent() {
+        // Arrange
+        Long eventId = notificationStore.write(List.of(pending(1L, NotificationTemplate.TASK_DELETED, "Release"),
+                pending(2L, NotificationTemplate.TASK_DELETED, "Release"))).get(0).getNotification().getId();
+        Long readOnlyEventId = notificationStore.write(List.of(pending(1L, NotificationTemplate.TASK_ADDED, "Release")))
+                .get(0).getNotification().getId();
+        notificationStore.markRead(1L, eventId);
+        notificationStore.markRead(1L, readOnlyEventId);
+        flushAndClear();
+
+        // Act
+        List<Long> expired = notificationStore.findExpired(null, LocalDateTime.now().plusMinutes(1), List.of(true), Limit.of(10))
+                .stream().map(NotificationRepository.ExpiredView::getId).toList();
+        int deleted = notificationStore.deleteExpired(expired, List.of(true));
+        flushAndClear();
+
+        // Assert
+        assertEquals(List.of(eventId, readOnlyEventId), expired);
+        assertEquals(2, deleted);
+        assertEquals(1, count(NotificationEventEntity.class));
+        assertEquals(1, notificationStore.countUnread(2L));
+    }
+
+    @Test
+    void findIdsPastNewest_shouldReturnTheUsersOldestEvents() {
+        // Arrange
+        for (int i = 0; i < 4; i++) {
+            notificationStore.write(List.of(pending(1L, NotificationTemplate.TASK_ADDED, "Task " + i)));
+        }
+        flushAndClear();
+        List<Long> newestFirst = notificationStore.findInbox(1L, null, false, Limit.of(10)).stream().map(NotificationDTO::getId).toList();
+
+        // Act
+        List<Long> pastNewest = notificationStore.findIdsPastNewest(1L, 2, List.of(true, false), Limit.of(10));
+        int deleted = notificationStore.deleteForRecipient(1L, pastNewest);
+
+        // Assert
+        assertEquals(List.of(newestFirst.get(3), newestFirst.get(2)), pastNewest);
+        assertEquals(2, deleted);
+        assertEquals(List.of(1L), notificationStore.findRecipientsOverLimit(1));
+        assertEquals(2, count(NotificationEventEntity.class));
+    }
+
+    private NotificationOutboxEntity pending(Long recipientId, NotificationTemplate template, String params) {
+        return new NotificationOutboxEntity(recipientId, template, params);
+    }
+
+    private Long event(Long recipientId, String params, LocalDateTime createdAt) {
+        NotificationEventEntity event = entityManager.persist(new NotificationEventEntity(NotificationTemplate.TASK_ADDED, params, 1, createdAt));
+        entityManager.persist(new NotificationRecipientEntity(recipientId, event.getId(), createdAt));
+        return event.getId();
+    }
+
+    private List<String> contents(List<NotificationDTO> notifications) {
+        return notifications.stream().map(NotificationDTO::getContent).toList();
+    }
+
+    private long count(Class<?> entity) {
+        return entityManager.getEntityManager()
+                .createQuery("SELECT COUNT(e) FROM " + entity.getSimpleName() + " e", Long.class)
+                .getSingleResult();
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
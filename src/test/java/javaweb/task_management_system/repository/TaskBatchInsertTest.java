@@ -0,0 +1,111 @@
+package javaweb.task_management_system.repository;
+
+import javaweb.task_management_system.Benchmark;
+import javaweb.task_management_system.models.ProjectEntity;
+import javaweb.task_management_system.models.TaskEntity;
+import javaweb.task_management_system.models.TaskStatusEntity;
+import javaweb.task_management_system.models.UserEntity;
+import javaweb.task_management_system.repositories.TaskRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static javaweb.task_management_system.repository.UserFixtures.persistUser;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+class TaskBatchInsertTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskBatchInsertTest.class);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private UserEntity assignee;
+    private ProjectEntity project;
+    private TaskStatusEntity status;
+
+    @BeforeEach
+    void setUp() {
+        UserEntity owner = persistUser(entityManager, "owner@example.com");
+        assignee = persistUser(entityManager, "assignee@example.com");
+        project = entityManager.persist(new ProjectEntity("Test Project", "A description that is long enough for validation", owner));
+        status = entityManager.persist(new TaskStatusEntity("TODO"));
+        entityManager.flush();
+    }
+
+    @Test
+    void saveAll_shouldGroupInsertsIntoJdbcBatches() {
+        // Arrange
+        List<TaskEntity> tasks = newTasks(500);
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        // Act
+        taskRepository.saveAll(tasks);
+        entityManager.flush();
+
+        // Assert
+        // 500 task rows and 500 assignee links in batches of 50, plus one sequence call per 50 ids
+        assertEquals(500, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() < 50,
+                "expected batched inserts, got " + statistics.getPrepareStatementCount() + " statements");
+    }
+
+    @Benchmark
+    void benchmark_batchInsertVersusOneTaskPerRequest() {
+        int rows = 5000;
+
+        long start = System.nanoTime();
+        for (TaskEntity task : newTasks(rows)) {
+            // the single endpoint writes and commits one task per request
+            taskRepository.save(task);
+            entityManager.flush();
+            entityManager.clear();
+        }
+        double singleSeconds = (System.nanoTime() - start) / 1e9;
+
+        project = entityManager.find(ProjectEntity.class, project.getId());
+        status = entityManager.find(TaskStatusEntity.class, status.getId());
+        assignee = entityManager.find(UserEntity.class, assignee.getId());
+
+        start = System.nanoTime();
+        taskRepository.saveAll(newTasks(rows));
+        entityManager.flush();
+        double batchSeconds = (System.nanoTime() - start) / 1e9;
+
+        logger.info("single: {} rows/s, batch: {} rows/s", Math.round(rows / singleSeconds), Math.round(rows / batchSeconds));
+    }
+
+    private List<TaskEntity> newTasks(int count) {
+        List<TaskEntity> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TaskEntity task = new TaskEntity("Task " + i, project, status, LocalDateTime.now().plusDays(7));
+            task.getAssignees().add(assignee);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private Statistics statistics() {
+        return entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,284 @@
+package javaweb.task_management_system.repository;
+
+import javaweb.task_management_system.dtos.TaskDetailsDTO;
+import javaweb.task_management_system.dtos.TaskExportRow;
+import javaweb.task_management_system.dtos.TaskFilter;
+import javaweb.task_management_system.models.ProjectEntity;
+import javaweb.task_management_system.models.TaskEntity;
+import javaweb.task_management_system.models.TaskStatusEntity;
+import javaweb.task_management_system.models.UserEntity;
+import javaweb.task_management_system.repositories.TaskRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static javaweb.task_management_system.repository.UserFixtures.persistUser;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+class TaskRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private UserEntity assignee;
+    private UserEntity teammate;
+    private ProjectEntity project;
+    private TaskStatusEntity status;
+    private int createdTasks;
+
+    @BeforeEach
+    void setUp() {
+        UserEntity owner = persistUser(entityManager, "owner@example.com");
+        assignee = persistUser(entityManager, "assignee@example.com");
+        teammate = persistUser(entityManager, "teammate@example.com");
+
+        project = entityManager.persist(new ProjectEntity("Test Project", "A description that is long enough for validation", owner));
+        status = entityManager.persist(new TaskStatusEntity("TODO"));
+        createdTasks = 0;
+    }
+
+    @Test
+    void findTaskDetails_shouldMapAllFields() {
+        // Arrange
+        createTasks(1);
+
+        // Act
+        List<TaskDetailsDTO> tasks = findAssignedTasks();
+
+        // Assert
+        assertEquals(1, tasks.size());
+        TaskDetailsDTO task = tasks.get(0);
+        assertEquals("Task 0", task.getName());
+        assertEquals("TODO", task.getStatus());
+        assertEquals("Test Project", task.getProjectName());
+        assertEquals("owner@example.com", task.getTaskOwner());
+        assertNotNull(task.getDueDate());
+        assertEquals(2, task.getAssignedUsers().size());
+        assertTrue(task.getAssignedUsers().containsAll(List.of("assignee@example.com", "teammate@example.com")));
+    }
+
+    @Test
+    void findTaskDetails_shouldApplyOnlyActiveFilters() {
+        // Arrange
+        TaskStatusEntity completed = entityManager.persist(new TaskStatusEntity("COMPLETED"));
+        LocalDateTime dueDate = LocalDateTime.now().plusDays(3).withHour(10);
+
+        TaskEntity matching = new TaskEntity("Matching", project, completed, dueDate);
+        matching.getAssignees().add(assignee);
+        entityManager.persist(matching);
+
+        TaskEntity otherDay = new TaskEntity("Other day", project, completed, dueDate.plusDays(1));
+        otherDay.getAssignees().add(assignee);
+        entityManager.persist(otherDay);
+
+        createTasks(2);
+        entityManager.flush();
+
+        // Act
+        List<TaskDetailsDTO> byStatus = taskRepository.findTaskDetails(
+                new TaskFilter(assignee.getId(), null, completed.getId(), null), null, 50);
+        List<TaskDetailsDTO> byStatusAndDay = taskRepository.findTaskDetails(
+                new TaskFilter(assignee.getId(), "Test Project", completed.getId(), dueDate.withHour(18)), null, 50);
+        List<TaskDetailsDTO> byUnknownProject = taskRepository.findTaskDetails(
+                new TaskFilter(assignee.getId(), "Unknown", null, null), null, 50);
+
+        // Assert
+        assertEquals(2, byStatus.size());
+        assertEquals(1, byStatusAndDay.size());
+        assertEquals("Matching", byStatusAndDay.get(0).getName());
+        assertEquals(List.of("assignee@example.com"), byStatusAndDay.get(0).getAssignedUsers());
+        assertTrue(byUnknownProject.isEmpty());
+    }
+
+    @Test
+    void findTaskDetails_shouldUseConstantStatementCount() {
+        // Arrange
+        createTasks(10);
+        long statementsForTen = countStatements(10);
+
+        createTasks(10_000 - 10);
+        long statementsForTenThousand = countStatements(10_000);
+
+        // Assert
+        assertEquals(2, statementsForTen);
+        assertEquals(statementsForTen, statementsForTenThousand);
+    }
+
+    @Test
+    void findTaskDetails_shouldReadPagesAfterTheGivenId() {
+        // Arrange
+        createTasks(5);
+        entityManager.flush();
+        List<TaskDetailsDTO> allTasks = findAssignedTasks();
+
+        // Act
+        List<TaskDetailsDTO> firstPage = taskRepository.findTaskDetails(TaskFilter.forAssignee(assignee.getId()), null, 2);
+        List<TaskDetailsDTO> secondPage = taskRepository.findTaskDetails(TaskFilter.forAssignee(assignee.getId()), firstPage.get(1).getId(), 2);
+        List<TaskDetailsDTO> lastPage = taskRepository.findTaskDetails(TaskFilter.forAssignee(assignee.getId()), allTasks.get(3).getId(), 2);
+
+        // Assert
+        assertEquals(List.of("Task 0", "Task 1"), firstPage.stream().map(TaskDetailsDTO::getName).toList());
+        assertEquals(List.of("Task 2", "Task 3"), secondPage.stream().map(TaskDetailsDTO::getName).toList());
+        assertEquals(List.of("Task 4"), lastPage.stream().map(TaskDetailsDTO::getName).toList());
+    }
+
+    @Test
+    void countAssignedTasks_shouldOnlyCountTasksOfTheAssignee() {
+        // Arrange
+        createTasks(2);
+        TaskEntity unassigned = entityManager.persist(new TaskEntity("Unassigned", project, status, LocalDateTime.now().plusDays(1)));
+        entityManager.flush();
+        List<Long> assignedIds = findAssignedTasks().stream().map(TaskDetailsDTO::getId).toList();
+
+        // Act
+        long assignedOnly = taskRepository.countAssignedTasks(assignedIds, assignee.getId());
+        long withUnassigned = taskRepository.countAssignedTasks(
+                List.of(assignedIds.get(0), unassigned.getId()), assignee.getId());
+
+        // Assert
+        assertEquals(2, assignedOnly);
+        assertEquals(1, withUnassigned);
+    }
+
+    @Test
+    void updateStatus_shouldMoveAllGivenTasksInOneStatement() {
+        // Arrange
+        TaskStatusEntity completed = entityManager.persist(new TaskStatusEntity("COMPLETED"));
+        createTasks(3);
+        entityManager.flush();
+        List<Long> taskIds = findAssignedTasks().stream().map(TaskDetailsDTO::getId).toList();
+
+        // Act
+        int updated = taskRepository.updateStatus(taskIds.subList(0, 2), completed);
+
+        // Assert
+        assertEquals(2, updated);
+        assertEquals(List.of("COMPLETED", "COMPLETED", "TODO"),
+                findAssignedTasks().stream().map(TaskDetailsDTO::getStatus).toList());
+    }
+
+    @Test
+    void findForUpdate_shouldLockTheRequestedTasksInIdOrder() {
+        // Arrange
+        createTasks(3);
+        entityManager.flush();
+        entityManager.clear();
+        List<Long> taskIds = findAssignedTasks().stream().map(TaskDetailsDTO::getId).toList();
+
+        // Act
+        List<TaskEntity> locked = taskRepository.findAllByIdForUpdate(Set.of(taskIds.get(2), taskIds.get(0)));
+
+        // Assert
+        assertEquals(List.of(taskIds.get(0), taskIds.get(2)), locked.stream().map(TaskEntity::getId).toList());
+        assertEquals("Task 1", taskRepository.findByIdForUpdate(taskIds.get(1)).orElseThrow().getName());
+        assertTrue(taskRepository.findByIdForUpdate(-1L).isEmpty());
+    }
+
+    @Test
+    void addAndRemoveAssignees_shouldRewriteOnlyTheChangedLinks() {
+        // Arrange
+        UserEntity newcomer = persistUser(entityManager, "newcomer@example.com");
+        createTasks(1);
+        entityManager.flush();
+        Long taskId = findAssignedTasks().get(0).getId();
+
+        // Act
+        int added = taskRepository.addAssignees(taskId, List.of(newcomer.getId()));
+        int removed = taskRepository.removeAssignees(taskId, List.of(teammate.getId()));
+
+        // Assert
+        assertEquals(1, added);
+        assertEquals(1, removed);
+        assertEquals(Set.of(assignee.getId(), newcomer.getId()), taskRepository.findAssigneeIds(taskId));
+    }
+
+    @Test
+    void findFirstIdsPerProject_shouldCapEveryProjectSeparately() {
+        // Arrange
+        ProjectEntity other = entityManager.persist(new ProjectEntity("Other Project", "A description that is long enough for validation",
+                project.getOwner()));
+        createTasks(3);
+        TaskEntity otherTask = entityManager.persist(new TaskEntity("Other", other, status, LocalDateTime.now().plusDays(1)));
+        createTasks(1);
+        entityManager.flush();
+        List<Long> projectTaskIds = taskRepository.findTaskDetails(TaskFilter.forProjects(List.of(project.getId())), null, 10)
+                .stream().map(TaskDetailsDTO::getId).toList();
+
+        // Act
+        List<Long> firstIds = taskRepository.findFirstIdsPerProject(List.of(project.getId(), other.getId()), 2);
+        List<TaskDetailsDTO> details = taskRepository.findTaskDetails(TaskFilter.forTasks(firstIds), null, firstIds.size());
+
+        // Assert
+        assertEquals(List.of(projectTaskIds.get(0), projectTaskIds.get(1), otherTask.getId()), firstIds);
+        assertEquals(firstIds, details.stream().map(TaskDetailsDTO::getId).toList());
+    }
+
+    @Test
+    void streamExportRowsByAssignee_shouldReturnOneRowPerAssigneeInTaskOrder() {
+        // Arrange
+        createTasks(2);
+        entityManager.persist(new TaskEntity("Unassigned", project, status, LocalDateTime.now().plusDays(1)));
+        entityManager.flush();
+
+        // Act
+        List<TaskExportRow> rows;
+        try (Stream<TaskExportRow> stream = taskRepository.streamExportRowsByAssignee(assignee.getId())) {
+            rows = stream.toList();
+        }
+        List<TaskExportRow> projectRows;
+        try (Stream<TaskExportRow> stream = taskRepository.streamExportRowsByProject(project.getId())) {
+            projectRows = stream.toList();
+        }
+
+        // Assert
+        assertEquals(4, rows.size());
+        assertEquals(rows.get(0).getId(), rows.get(1).getId());
+        assertTrue(rows.get(1).getId() < rows.get(2).getId());
+        assertEquals(5, projectRows.size());
+        assertNull(projectRows.get(4).getAssignee());
+    }
+
+    private List<TaskDetailsDTO> findAssignedTasks() {
+        return taskRepository.findTaskDetails(TaskFilter.forAssignee(assignee.getId()), null, Integer.MAX_VALUE);
+    }
+
+    private long countStatements(int expectedTasks) {
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<TaskDetailsDTO> tasks = findAssignedTasks();
+
+        assertEquals(expectedTasks, tasks.size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void createTasks(int count) {
+        for (int i = 0; i < count; i++) {
+            TaskEntity task = new TaskEntity("Task " + createdTasks++, project, status, LocalDateTime.now().plusDays(7));
+            task.getAssignees().add(assignee);
+            task.getAssignees().add(teammate);
+            entityManager.persist(task);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package javaweb.task_management_system.repository;
+
+import javaweb.task_management_system.models.UserEntity;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+// Users the repository tests hang their rows on
+final class UserFixtures {
+
+    private UserFixtures() {
+    }
+
+    static UserEntity persistUser(TestEntityManager entityManager, String email) {
+        UserEntity user = new UserEntity();
+        user.setName("Test");
+        user.setLastName("User");
+        user.setEmail(email);
+        user.setPassword("securepassword123");
+        return entityManager.persist(user);
+    }
+}
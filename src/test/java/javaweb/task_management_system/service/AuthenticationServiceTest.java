@@ -5,23 +5,30 @@ import javaweb.task_management_system.dtos.LoginRequest;
 import javaweb.task_management_system.dtos.LoginResponseDTO;
 import javaweb.task_management_system.dtos.UserDTO;
 import javaweb.task_management_system.exceptions.InvalidUserException;
+import javaweb.task_management_system.exceptions.InvalidValueException;
 import javaweb.task_management_system.exceptions.ResourceNotFoundException;
 import javaweb.task_management_system.models.RoleEntity;
 import javaweb.task_management_system.models.UserEntity;
 import javaweb.task_management_system.repositories.RoleRepository;
 import javaweb.task_management_system.repositories.UserRepository;
 import javaweb.task_management_system.services.*;
+import javaweb.task_management_system.utility.AuthenticatedUser;
+import javaweb.task_management_system.utility.VerifiedTokenCache;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.core.OAuth2Error;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -48,6 +55,18 @@ public class AuthenticationServiceTest {
     @Mock
     private UserServiceImpl userService;
 
+    @Mock
+    private VerifiedTokenCache tokenCache;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private TokenRevocationList revocationList;
+
+    @Mock
+    private JwtDecoder jwtDecoder;
+
     @Test
     public void register_shouldRegisterUserSuccessfully_whenValidInput() {
         // Arrange
@@ -116,14 +135,17 @@ public class AuthenticationServiceTest {
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
         when(passwordEncoder.matches(password, user.getPassword())).thenReturn(true);
         when(tokenService.generateJwt(any())).thenReturn("mockJwtToken");
+        when(refreshTokenService.issue(any())).thenReturn("mockRefreshToken");
 
         // Act
         LoginResponseDTO response = authenticationService.login(email, password);
 
         // Assert
         assertNotNull(response.getJwt());
+        assertEquals("mockRefreshToken", response.getRefreshToken());
         assertEquals(email, response.getUser().getEmail());
-        verify(tokenService).generateJwt(any(Authentication.class));
+        verify(tokenService).generateJwt(argThat(authenticated -> authenticated.getEmail().equals(email)
+                && authenticated.hasRole("USER") && !authenticated.hasRole("ADMIN")));
     }
 
     @Test
@@ -156,33 +178,82 @@ public class AuthenticationServiceTest {
     }
 
     @Test
-    public void logout_shouldClearSecurityContext_whenAuthenticated() {
+    public void logout_shouldRevokeBothTokens_whenTheAccessTokenIsValid() {
         // Arrange
-        // Mock the Jwt object
-        Jwt jwt = mock(Jwt.class);
-        when(jwt.getClaimAsString("sub")).thenReturn("test@example.com");  // Mock the subject claim
-
-        // Create the Authentication token with the mocked Jwt
-        Authentication authentication = new UsernamePasswordAuthenticationToken(jwt, null);
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+        Instant expiresAt = Instant.now().plusSeconds(600);
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "RS256")
+                .subject("test@example.com").jti("jti").expiresAt(expiresAt).build();
+        when(jwtDecoder.decode("token")).thenReturn(jwt);
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                new AuthenticatedUser(1L, "test@example.com", 0b10), jwt, List.of()));
 
         // Act
-        ActionSuccessResponse response = authenticationService.logout();
+        ActionSuccessResponse response = authenticationService.logout("token", "refresh");
 
         // Assert
         assertEquals("test@example.com", response.getEmail());
         assertEquals("Logout successfully", response.getMessage().trim());
         assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(tokenCache).invalidate("token");
+        verify(revocationList).revoke("jti", expiresAt);
+        verify(refreshTokenService).revoke("refresh");
+    }
+
+    @Test
+    public void logout_shouldRevokeTheRefreshToken_whenTheAccessTokenExpired() {
+        // Arrange
+        when(jwtDecoder.decode("expired")).thenThrow(new JwtValidationException("Jwt expired", List.of(new OAuth2Error("invalid_token", "Jwt expired", null))));
+
+        // Act
+        ActionSuccessResponse response = authenticationService.logout("expired", "refresh");
+
+        // Assert
+        assertEquals("Logout successfully", response.getMessage().trim());
+        verify(refreshTokenService).revoke("refresh");
+        verify(tokenCache).invalidate("expired");
+        verifyNoInteractions(revocationList);
     }
 
 
     @Test
-    public void logout_shouldThrowException_whenNotAuthenticated() {
+    public void logout_shouldThrowException_whenNoTokenIsPresent() {
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> authenticationService.logout(null, " "));
+        verifyNoInteractions(refreshTokenService, revocationList);
+    }
+
+    @Test
+    public void refresh_shouldIssueTokensWithTheCurrentRoles() {
+        // Arrange
+        UserEntity user = new UserEntity();
+        user.setId(3L);
+        user.setEmail("test@example.com");
+        RoleEntity role = new RoleEntity();
+        role.setName("PROJECT_OWNER");
+        user.getRoles().add(role);
+
+        when(refreshTokenService.rotate("old")).thenReturn(new RefreshTokenService.Rotation(3L, "new"));
+        when(userRepository.findById(3L)).thenReturn(Optional.of(user));
+        when(tokenService.generateJwt(any())).thenReturn("mockJwtToken");
+
+        // Act
+        LoginResponseDTO response = authenticationService.refresh("old");
+
+        // Assert
+        assertEquals("mockJwtToken", response.getJwt());
+        assertEquals("new", response.getRefreshToken());
+        verify(tokenService).generateJwt(argThat(authenticated -> authenticated.getId().equals(3L) && authenticated.hasRole("PROJECT_OWNER")));
+    }
+
+    @Test
+    public void refresh_shouldFail_whenTheTokenIsMissingOrRejected() {
         // Arrange
-        SecurityContextHolder.clearContext();
+        when(refreshTokenService.rotate("used")).thenThrow(new InvalidValueException("Refresh token was already used!"));
 
         // Act & Assert
-        assertThrows(ResourceNotFoundException.class, () -> authenticationService.logout());
+        assertThrows(InvalidValueException.class, () -> authenticationService.refresh(null));
+        assertThrows(InvalidValueException.class, () -> authenticationService.refresh("used"));
+        verify(tokenService, never()).generateJwt(any());
     }
 
 
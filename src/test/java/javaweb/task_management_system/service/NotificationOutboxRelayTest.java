@@ -0,0 +1,140 @@
+package javaweb.task_management_system.service;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import javaweb.task_management_system.dtos.DeliveredNotification;
+import javaweb.task_management_system.dtos.NotificationDTO;
+import javaweb.task_management_system.repositories.NotificationOutboxRepository;
+import javaweb.task_management_system.services.NotificationOutboxRelay;
+import javaweb.task_management_system.services.NotificationStreamHub;
+import javaweb.task_management_system.services.NotificationWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+class NotificationOutboxRelayTest {
+
+    @Mock
+    private NotificationWriter notificationWriter;
+
+    @Mock
+    private NotificationOutboxRepository outboxRepository;
+
+    @Mock
+    private NotificationStreamHub streamHub;
+
+    private SimpleMeterRegistry meterRegistry;
+    private NotificationOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new NotificationOutboxRelay(notificationWriter, outboxRepository, streamHub, meterRegistry, 3);
+    }
+
+    @Test
+    void relay_shouldKeepClaimingChunks_untilTheOutboxIsDrained() {
+        // Arrange
+        when(notificationWriter.relayChunk(3)).thenReturn(chunk(3), chunk(3), chunk(1));
+
+        // Act
+        relay.relay();
+
+        // Assert
+        verify(notificationWriter, times(3)).relayChunk(3);
+        assertEquals(7, meterRegistry.counter("notifications.outbox.relayed").count());
+        assertEquals(7, meterRegistry.timer("notifications.outbox.lag").count());
+        verify(streamHub, times(3)).publish(anyList());
+    }
+
+    @Test
+    void relay_shouldRelayRowByRow_andBackOffTheFailingRow_whenAChunkFails() {
+        // Arrange
+        IllegalStateException failure = new IllegalStateException("foreign key");
+        when(notificationWriter.relayChunk(3)).thenThrow(failure);
+        when(outboxRepository.findRelayableIds(any(), eq(Limit.of(3)))).thenReturn(List.of(1L, 2L, 3L));
+        when(notificationWriter.relayRow(1L)).thenReturn(chunk(1));
+        when(notificationWriter.relayRow(2L)).thenThrow(failure);
+        when(notificationWriter.relayRow(3L)).thenReturn(chunk(1));
+        when(notificationWriter.recordFailure(2L, failure)).thenReturn(false);
+
+        // Act
+        relay.relay();
+
+        // Assert
+        verify(notificationWriter, times(1)).relayChunk(3);
+        verify(notificationWriter).recordFailure(2L, failure);
+        assertEquals(2, meterRegistry.counter("notifications.outbox.relayed").count());
+        assertEquals(1, meterRegistry.counter("notifications.outbox.failed").count());
+        assertEquals(0, meterRegistry.counter("notifications.outbox.dead-lettered").count());
+        verify(streamHub).publish(argThat(delivered -> delivered.size() == 2));
+    }
+
+    @Test
+    void relay_shouldCountTheDeadLetter_whenARowRunsOutOfAttempts() {
+        // Arrange
+        IllegalStateException failure = new IllegalStateException("foreign key");
+        when(notificationWriter.relayChunk(3)).thenThrow(failure);
+        when(outboxRepository.findRelayableIds(any(), eq(Limit.of(3)))).thenReturn(List.of(1L));
+        when(notificationWriter.relayRow(1L)).thenThrow(failure);
+        when(notificationWriter.recordFailure(1L, failure)).thenReturn(true);
+
+        // Act
+        relay.relay();
+
+        // Assert
+        assertEquals(1, meterRegistry.counter("notifications.outbox.dead-lettered").count());
+    }
+
+    @Test
+    void relay_shouldStopAndCountTheFailure_whenTheRowsCannotBeReadEither() {
+        // Arrange
+        when(notificationWriter.relayChunk(3)).thenThrow(new IllegalStateException("connection refused"));
+        when(outboxRepository.findRelayableIds(any(), any())).thenThrow(new IllegalStateException("connection refused"));
+
+        // Act
+        relay.relay();
+
+        // Assert
+        verify(notificationWriter, times(1)).relayChunk(3);
+        verify(notificationWriter, never()).relayRow(any());
+        assertEquals(1, meterRegistry.counter("notifications.outbox.failed").count());
+    }
+
+    @Test
+    void relay_shouldDoNothing_afterStop() {
+        // Act
+        relay.stop();
+        relay.relay();
+
+        // Assert
+        verifyNoInteractions(notificationWriter);
+    }
+
+    @Test
+    void backlogGauge_shouldReportTheOutboxSize() {
+        // Arrange
+        when(outboxRepository.countByDeadLetteredAtIsNull()).thenReturn(42L);
+        when(outboxRepository.countByDeadLetteredAtIsNotNull()).thenReturn(2L);
+
+        // Act & Assert
+        assertEquals(42, meterRegistry.get("notifications.outbox.backlog").gauge().value());
+        assertEquals(2, meterRegistry.get("notifications.outbox.dead-letters").gauge().value());
+    }
+
+    private List<DeliveredNotification> chunk(int size) {
+        List<DeliveredNotification> chunk = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            chunk.add(new DeliveredNotification(1L, new NotificationDTO((long) i, "Task " + i, false, LocalDateTime.now())));
+        }
+        return chunk;
+    }
+}
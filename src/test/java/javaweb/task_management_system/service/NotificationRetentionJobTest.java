@@ -0,0 +1,122 @@
+package javaweb.task_management_system.service;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import javaweb.task_management_system.repositories.NotificationRepository;
+import javaweb.task_management_system.services.JobLeaseService;
+import javaweb.task_management_system.services.NotificationRetentionJob;
+import javaweb.task_management_system.services.NotificationStore;
+import javaweb.task_management_system.utility.CursorCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+class NotificationRetentionJobTest {
+
+    @Mock
+    private NotificationStore notificationStore;
+
+    @Mock
+    private JobLeaseService jobLeaseService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private NotificationRetentionJob retentionJob;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        retentionJob = new NotificationRetentionJob(notificationStore, jobLeaseService, meterRegistry, Duration.ofHours(1),
+                30, 100, true, 2, 0);
+        when(jobLeaseService.tryAcquire(eq("notification-retention"), any())).thenReturn(true);
+        when(notificationStore.deleteExpired(anyList(), anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        when(notificationStore.deleteForRecipient(anyLong(), anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(1)).size());
+    }
+
+    @Test
+    void purge_shouldDeleteExpiredRowsInChunks_walkingForwardByCreationTime() {
+        // Arrange
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(40);
+        ArgumentCaptor<CursorCodec.TimestampCursor> after = ArgumentCaptor.forClass(CursorCodec.TimestampCursor.class);
+        when(notificationStore.findExpired(isNull(), any(), eq(List.of(true)), eq(Limit.of(2))))
+                .thenReturn(List.of(expired(5L, createdAt), expired(2L, createdAt.plusSeconds(1))));
+        when(notificationStore.findExpired(notNull(), any(), eq(List.of(true)), eq(Limit.of(2))))
+                .thenReturn(List.of(expired(1L, createdAt.plusSeconds(2))));
+
+        // Act
+        retentionJob.purge();
+
+        // Assert
+        verify(notificationStore).deleteExpired(List.of(5L, 2L), List.of(true));
+        verify(notificationStore).deleteExpired(List.of(1L), List.of(true));
+        verify(notificationStore, times(2)).findExpired(after.capture(), any(), any(), any());
+        assertEquals(createdAt.plusSeconds(1), after.getValue().getTimestamp());
+        assertEquals(2L, after.getValue().getId());
+        assertEquals(3, meterRegistry.counter("notifications.retention.purged").count());
+        assertEquals(1, meterRegistry.timer("notifications.retention.run").count());
+    }
+
+    @Test
+    void purge_shouldSkipTheRun_whenAnotherNodeHoldsTheLease() {
+        // Arrange
+        when(jobLeaseService.tryAcquire(eq("notification-retention"), any())).thenReturn(false);
+
+        // Act
+        retentionJob.purge();
+
+        // Assert
+        verify(notificationStore, never()).findExpired(any(), any(), any(), any());
+        verify(notificationStore, never()).findRecipientsOverLimit(anyLong());
+    }
+
+    @Test
+    void purge_shouldTrimUsersOverTheLimit_fromTheFirstRowPastTheNewest() {
+        // Arrange
+        when(notificationStore.findExpired(any(), any(), any(), any())).thenReturn(List.of());
+        when(notificationStore.findRecipientsOverLimit(100)).thenReturn(List.of(7L));
+        when(notificationStore.findIdsPastNewest(7L, 100, List.of(true), Limit.of(2)))
+                .thenReturn(List.of(10L, 11L), List.of(40L), List.of());
+
+        // Act
+        retentionJob.purge();
+
+        // Assert
+        verify(notificationStore).deleteForRecipient(7L, List.of(10L, 11L));
+        verify(notificationStore).deleteForRecipient(7L, List.of(40L));
+        assertEquals(3, meterRegistry.counter("notifications.retention.purged").count());
+    }
+
+    @Test
+    void purge_shouldDoNothing_afterStop() {
+        // Arrange
+        when(notificationStore.findRecipientsOverLimit(100)).thenReturn(List.of());
+
+        // Act
+        retentionJob.stop();
+        retentionJob.purge();
+
+        // Assert
+        verify(notificationStore, never()).deleteExpired(anyList(), anyList());
+    }
+
+    private NotificationRepository.ExpiredView expired(Long id, LocalDateTime createdAt) {
+        return new NotificationRepository.ExpiredView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getCreatedAt() {
+                return createdAt;
+            }
+        };
+    }
+}
@@ -0,0 +1,143 @@
+package javaweb.task_management_system.service;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import javaweb.task_management_system.dtos.DeliveredNotification;
+import javaweb.task_management_system.dtos.NotificationDTO;
+import javaweb.task_management_system.repositories.NotificationOutboxRepository;
+import javaweb.task_management_system.services.NotificationOutboxRelay;
+import javaweb.task_management_system.services.NotificationStore;
+import javaweb.task_management_system.services.NotificationStreamHub;
+import javaweb.task_management_system.services.NotificationWriter;
+import javaweb.task_management_system.services.UnreadNotificationCounter;
+import javaweb.task_management_system.utility.CursorCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.data.domain.Limit;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+class NotificationStreamHubTest {
+
+    @Mock
+    private NotificationStore notificationStore;
+
+    @Mock
+    private UnreadNotificationCounter unreadCounter;
+
+    private SimpleMeterRegistry meterRegistry;
+    private NotificationStreamHub streamHub;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        streamHub = newHub();
+    }
+
+    @AfterEach
+    void tearDown() {
+        streamHub.shutdown();
+    }
+
+    @Test
+    void open_shouldRejectStreams_overTheNodeLimit() {
+        // Act
+        assertNotNull(streamHub.open(1L, null));
+        assertNotNull(streamHub.open(2L, null));
+
+        // Assert
+        assertNull(streamHub.open(3L, null));
+        assertEquals(2, streamHub.getOpenConnections());
+        assertEquals(2, meterRegistry.get("notifications.stream.connections").gauge().value());
+    }
+
+    @Test
+    void open_shouldReplayNotificationsAfterTheLastEventId() {
+        // Arrange
+        LocalDateTime createdAt = LocalDateTime.now();
+        ArgumentCaptor<CursorCodec.TimestampCursor> after = ArgumentCaptor.forClass(CursorCodec.TimestampCursor.class);
+
+        // Act
+        streamHub.open(1L, CursorCodec.encodeTimestampAndId(createdAt, 40L));
+        streamHub.open(1L, null);
+
+        // Assert: one more than a replay holds, to tell when the client has to resync
+        verify(notificationStore).findInboxSince(eq(1L), after.capture(), eq(Limit.of(9)));
+        verify(notificationStore, times(1)).findInboxSince(any(), any(), any());
+        assertEquals(createdAt, after.getValue().getTimestamp());
+        assertEquals(40L, after.getValue().getId());
+        verify(unreadCounter, times(2)).get(1L);
+    }
+
+    @Test
+    void open_shouldKeepTheStream_whenTheLastEventIdCannotBeRead() {
+        // Act
+        SseEmitter emitter = streamHub.open(1L, "40");
+
+        // Assert
+        assertNotNull(emitter);
+        verify(notificationStore, never()).findInboxSince(any(), any(), any());
+        verify(unreadCounter).get(1L);
+        assertEquals(1, streamHub.getOpenConnections());
+    }
+
+    @Test
+    void publish_shouldOnlyTouchUsersWithOpenStreams() {
+        // Arrange
+        streamHub.open(1L, null);
+        clearInvocations(unreadCounter);
+
+        // Act
+        streamHub.publish(List.of(notificationFor(1L), notificationFor(1L), notificationFor(2L)));
+
+        // Assert
+        verify(unreadCounter, times(1)).get(1L);
+        verify(unreadCounter, never()).get(2L);
+    }
+
+    @Test
+    void poll_shouldDeliverOnce_whatTheRelayOfAnotherNodeWrote() {
+        // Arrange: the relay runs on the node of user 1, user 2 is connected to the other node
+        NotificationStreamHub otherHub = newHub();
+        NotificationWriter notificationWriter = mock(NotificationWriter.class);
+        NotificationOutboxRelay relay = new NotificationOutboxRelay(notificationWriter, mock(NotificationOutboxRepository.class),
+                streamHub, meterRegistry, 3);
+        streamHub.open(1L, null);
+        otherHub.open(2L, null);
+        List<DeliveredNotification> written = List.of(notificationFor(2L));
+        when(notificationWriter.relayChunk(3)).thenReturn(written);
+        when(notificationStore.findCreatedSince(eq(List.of(2L)), any(), any())).thenReturn(written);
+        clearInvocations(unreadCounter);
+
+        try {
+            // Act
+            relay.relay();
+            streamHub.poll();
+            otherHub.poll();
+            otherHub.poll();
+
+            // Assert
+            verify(unreadCounter, never()).get(1L);
+            verify(unreadCounter, times(1)).get(2L);
+        } finally {
+            otherHub.shutdown();
+        }
+    }
+
+    private NotificationStreamHub newHub() {
+        return new NotificationStreamHub(notificationStore, unreadCounter, meterRegistry, 2, 10, 60_000, 1,
+                Duration.ofSeconds(30), 100);
+    }
+
+    private DeliveredNotification notificationFor(Long userId) {
+        return new DeliveredNotification(userId, new NotificationDTO(1L, "Task Report updated", false, LocalDateTime.now()));
+    }
+}
@@ -4,33 +4,40 @@ import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 import javaweb.task_management_system.dtos.ActionSuccessResponse;
+import javaweb.task_management_system.dtos.CursorPage;
 import javaweb.task_management_system.dtos.ProjectDetailsDTO;
+import javaweb.task_management_system.dtos.TaskDetailsDTO;
+import javaweb.task_management_system.dtos.TaskFilter;
 import javaweb.task_management_system.exceptions.InvalidValueException;
 import javaweb.task_management_system.exceptions.ResourceNotFoundException;
 import javaweb.task_management_system.exceptions.InvalidUserException;
+import javaweb.task_management_system.models.NotificationTemplate;
 import javaweb.task_management_system.models.ProjectEntity;
 import javaweb.task_management_system.models.UserEntity;
 import javaweb.task_management_system.repositories.ProjectRepository;
+import javaweb.task_management_system.repositories.TaskRepository;
 import javaweb.task_management_system.repositories.UserRepository;
+import javaweb.task_management_system.services.DataVersionService;
 import javaweb.task_management_system.services.NotificationService;
+import javaweb.task_management_system.services.TaskProgressCounterService;
 import javaweb.task_management_system.services.TokenService;
-import javaweb.task_management_system.services.UserService;
 import javaweb.task_management_system.services.ProjectServiceImpl;
+import javaweb.task_management_system.utility.AuthenticatedUser;
+import javaweb.task_management_system.utility.CursorCodec;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.data.domain.Limit;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 class ProjectServiceTest {
 
     @Mock
     private ProjectRepository projectRepository;
 
-    @Mock
-    private UserService userService;
-
     @Mock
     private TokenService tokenService;
 
@@ -40,17 +47,29 @@ class ProjectServiceTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private TaskProgressCounterService progressCounterService;
+
+    @Mock
+    private DataVersionService dataVersionService;
+
     @InjectMocks
     private ProjectServiceImpl projectService;
 
     private UserEntity mockUser;
+    private AuthenticatedUser currentUser;
     private ProjectEntity mockProject;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
         mockUser = new UserEntity();
+        mockUser.setId(1L);
         mockUser.setEmail("owner@example.com");
+        currentUser = new AuthenticatedUser(1L, "owner@example.com", 0b100);
 
         mockProject = new ProjectEntity("Test Project", "A description of the project", mockUser);
         mockProject.setId(1L);
@@ -59,8 +78,8 @@ class ProjectServiceTest {
     @Test
     void addProject_shouldReturnSuccess_whenValidData() {
         // Arrange
-        when(tokenService.getEmail()).thenReturn("owner@example.com");
-        when(userService.findByEmail("owner@example.com")).thenReturn(mockUser);
+        when(tokenService.getCurrentUser()).thenReturn(currentUser);
+        when(userRepository.getReferenceById(1L)).thenReturn(mockUser);
         when(projectRepository.save(mockProject)).thenReturn(mockProject);
 
         // Act
@@ -69,7 +88,7 @@ class ProjectServiceTest {
         // Assert
         assertEquals("owner@example.com", response.getEmail());
         assertTrue(response.getMessage().contains("Project added"));
-        verify(notificationService, times(1)).addNotification(anyString(), eq(mockUser));
+        verify(notificationService, times(1)).addNotification(eq(mockUser), any(NotificationTemplate.class), anyString());
     }
 
     @Test
@@ -87,7 +106,7 @@ class ProjectServiceTest {
         // Arrange
         Long projectId = mockProject.getId();
         when(projectRepository.findById(projectId)).thenReturn(Optional.of(mockProject));
-        when(tokenService.getEmail()).thenReturn("owner@example.com");
+        when(tokenService.getCurrentUser()).thenReturn(currentUser);
 
         // Mocking the void method with doNothing()
         doNothing().when(projectRepository).delete(mockProject);
@@ -97,7 +116,9 @@ class ProjectServiceTest {
         // Assert
         assertEquals("owner@example.com", response.getEmail());
         assertTrue(response.getMessage().contains("Project removed"));
-        verify(notificationService, times(1)).addNotification(anyString(), eq(mockUser));
+        verify(notificationService, times(1)).addNotification(eq(mockUser), any(NotificationTemplate.class), anyString());
+        verify(progressCounterService, times(1)).decrementForProject(projectId);
+        verify(dataVersionService, times(1)).bumpForProject(projectId);
     }
 
     @Test
@@ -107,7 +128,7 @@ class ProjectServiceTest {
         ProjectEntity updatedProject = new ProjectEntity("Updated Project", "Updated Description");
         updatedProject.setOwner(mockUser);
         when(projectRepository.findById(projectId)).thenReturn(Optional.of(mockProject));
-        when(tokenService.getEmail()).thenReturn("owner@example.com");
+        when(tokenService.getCurrentUser()).thenReturn(currentUser);
 
         // Act
         ActionSuccessResponse response = projectService.updateProject(projectId, updatedProject);
@@ -127,7 +148,7 @@ class ProjectServiceTest {
         ProjectEntity updatedProject = new ProjectEntity("Updated Project", "Updated Description");
         updatedProject.setOwner(new UserEntity());  // Not the original owner
         when(projectRepository.findById(projectId)).thenReturn(Optional.of(mockProject));
-        when(tokenService.getEmail()).thenReturn("notowner@example.com");
+        when(tokenService.getCurrentUser()).thenReturn(new AuthenticatedUser(2L, "notowner@example.com", 0b100));
 
         // Act & Assert
         assertThrows(InvalidValueException.class, () -> projectService.updateProject(projectId, updatedProject));
@@ -136,15 +157,85 @@ class ProjectServiceTest {
     @Test
     void getProjectsForCurrentUserWithTasks_shouldReturnListOfProjects() {
         // Arrange
-        when(tokenService.getEmail()).thenReturn("owner@example.com");
-        when(projectRepository.findByOwnerEmail("owner@example.com")).thenReturn(List.of(mockProject));
+        when(tokenService.getCurrentUser()).thenReturn(currentUser);
+        ProjectDetailsDTO projectRow = new ProjectDetailsDTO(mockProject.getId(), mockProject.getName(), mockProject.getDescription());
+        TaskDetailsDTO taskRow = new TaskDetailsDTO(10L, "Task", "TODO", mockProject.getId(), mockProject.getName(), "owner@example.com", null);
+        when(projectRepository.findDetailsByOwnerId(eq(1L), eq(0L), any(Limit.class))).thenReturn(List.of(projectRow));
+        when(taskRepository.findFirstIdsPerProject(any(), eq(ProjectServiceImpl.TASKS_PER_PROJECT + 1))).thenReturn(List.of(10L));
+        when(taskRepository.findTaskDetails(any(TaskFilter.class), isNull(), eq(1))).thenReturn(List.of(taskRow));
 
         // Act
-        List<ProjectDetailsDTO> projectDetails = projectService.getProjectsForCurrentUserWithTasks();
+        CursorPage<ProjectDetailsDTO> projectDetails = projectService.getProjectsForCurrentUserWithTasks(null, 50);
 
         // Assert
         assertNotNull(projectDetails);
-        assertEquals(1, projectDetails.size());
-        assertEquals(mockProject.getName(), projectDetails.get(0).getName());
+        assertEquals(1, projectDetails.getItems().size());
+        assertNull(projectDetails.getNext());
+        assertEquals(mockProject.getName(), projectDetails.getItems().get(0).getName());
+        assertEquals(List.of(taskRow), projectDetails.getItems().get(0).getTasks());
+        assertNull(projectDetails.getItems().get(0).getTasksNext());
+    }
+
+    @Test
+    void getProjectsForCurrentUserWithTasks_shouldCapTheEmbeddedTasks_andReturnATasksCursor() {
+        // Arrange
+        when(tokenService.getCurrentUser()).thenReturn(currentUser);
+        when(projectRepository.findDetailsByOwnerId(eq(1L), eq(0L), any(Limit.class)))
+                .thenReturn(List.of(new ProjectDetailsDTO(mockProject.getId(), mockProject.getName(), mockProject.getDescription())));
+        List<Long> taskIds = LongStream.rangeClosed(1, ProjectServiceImpl.TASKS_PER_PROJECT + 1).boxed().toList();
+        when(taskRepository.findFirstIdsPerProject(any(), anyInt())).thenReturn(taskIds);
+        when(taskRepository.findTaskDetails(any(TaskFilter.class), isNull(), eq(taskIds.size()))).thenReturn(taskIds.stream()
+                .map(id -> new TaskDetailsDTO(id, "Task " + id, "TODO", mockProject.getId(), mockProject.getName(), "owner@example.com", null))
+                .toList());
+
+        // Act
+        ProjectDetailsDTO project = projectService.getProjectsForCurrentUserWithTasks(null, 50).getItems().get(0);
+
+        // Assert
+        assertEquals(ProjectServiceImpl.TASKS_PER_PROJECT, project.getTasks().size());
+        assertEquals((long) ProjectServiceImpl.TASKS_PER_PROJECT, CursorCodec.decodeId(project.getTasksNext()));
+    }
+
+    @Test
+    void getTasksForProject_shouldPageTheProjectsTasks_forItsOwner() {
+        // Arrange
+        when(projectRepository.findById(1L)).thenReturn(Optional.of(mockProject));
+        when(tokenService.getCurrentUser()).thenReturn(currentUser);
+        TaskDetailsDTO taskRow = new TaskDetailsDTO(30L, "Task", "TODO", mockProject.getId(), mockProject.getName(), "owner@example.com", null);
+        when(taskRepository.findTaskDetails(any(TaskFilter.class), eq(20L), eq(11))).thenReturn(List.of(taskRow));
+
+        // Act
+        CursorPage<TaskDetailsDTO> tasks = projectService.getTasksForProject(1L, CursorCodec.encodeId(20L), 10);
+
+        // Assert
+        assertEquals(List.of(taskRow), tasks.getItems());
+        assertNull(tasks.getNext());
+    }
+
+    @Test
+    void getTasksForProject_shouldThrowException_whenNotAuthorized() {
+        // Arrange
+        when(projectRepository.findById(1L)).thenReturn(Optional.of(mockProject));
+        when(tokenService.getCurrentUser()).thenReturn(new AuthenticatedUser(2L, "notowner@example.com", 0b100));
+
+        // Act & Assert
+        assertThrows(InvalidValueException.class, () -> projectService.getTasksForProject(1L, null, 10));
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void getProjectsForCurrentUserWithTasks_shouldReturnCursor_whenMoreProjectsExist() {
+        // Arrange
+        when(tokenService.getCurrentUser()).thenReturn(currentUser);
+        when(projectRepository.findDetailsByOwnerId(eq(1L), eq(0L), eq(Limit.of(2)))).thenReturn(List.of(
+                new ProjectDetailsDTO(1L, "First", "Description"),
+                new ProjectDetailsDTO(2L, "Second", "Description")));
+
+        // Act
+        CursorPage<ProjectDetailsDTO> firstPage = projectService.getProjectsForCurrentUserWithTasks(null, 1);
+
+        // Assert
+        assertEquals(1, firstPage.getItems().size());
+        assertEquals(1L, CursorCodec.decodeId(firstPage.getNext()));
     }
 }
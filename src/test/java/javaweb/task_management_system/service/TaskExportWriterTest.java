@@ -0,0 +1,78 @@
+package javaweb.task_management_system.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import javaweb.task_management_system.dtos.ExportFormat;
+import javaweb.task_management_system.dtos.TaskExportRow;
+import javaweb.task_management_system.services.TaskExportWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+class TaskExportWriterTest {
+
+    private TaskExportWriter exportWriter;
+
+    private final LocalDateTime dueDate = LocalDateTime.of(2030, 1, 15, 10, 0);
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportWriter = new TaskExportWriter(objectMapper);
+    }
+
+    @Test
+    void write_shouldGroupAssigneeRowsIntoOneNdjsonLinePerTask() throws Exception {
+        // Arrange
+        List<TaskExportRow> rows = List.of(
+                row(1L, "First", "a@example.com"),
+                row(1L, "First", "b@example.com"),
+                row(2L, "Second", null));
+
+        // Act
+        String output = export(rows, ExportFormat.NDJSON);
+
+        // Assert
+        String[] lines = output.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"id\":1"));
+        assertTrue(lines[0].contains("\"assignedUsers\":[\"a@example.com\",\"b@example.com\"]"));
+        assertTrue(lines[1].contains("\"assignedUsers\":[]"));
+    }
+
+    @Test
+    void write_shouldQuoteCsvFieldsThatNeedIt() throws Exception {
+        // Arrange
+        List<TaskExportRow> rows = List.of(
+                row(1L, "Fix \"login\", then deploy", "a@example.com"),
+                row(1L, "Fix \"login\", then deploy", "b@example.com"));
+
+        // Act
+        String output = export(rows, ExportFormat.CSV);
+
+        // Assert
+        String[] lines = output.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("id,name,status,project_id,project_name,task_owner,due_date,assigned_users", lines[0]);
+        assertEquals("1,\"Fix \"\"login\"\", then deploy\",TODO,7,Project,owner@example.com,2030-01-15T10:00,a@example.com;b@example.com", lines[1]);
+    }
+
+    private String export(List<TaskExportRow> rows, ExportFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportWriter.write(rows::stream, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private TaskExportRow row(Long id, String name, String assignee) {
+        return new TaskExportRow(id, name, "TODO", 7L, "Project", "owner@example.com", dueDate, assignee);
+    }
+}
@@ -0,0 +1,145 @@
+package javaweb.task_management_system.service;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import javaweb.task_management_system.dtos.CounterDriftReportDTO;
+import javaweb.task_management_system.models.TaskProgressCounterEntity;
+import javaweb.task_management_system.repositories.TaskProgressCounterRepository;
+import javaweb.task_management_system.repositories.UserRepository;
+import javaweb.task_management_system.services.JobLeaseService;
+import javaweb.task_management_system.services.TaskProgressCounterRepairJob;
+import javaweb.task_management_system.services.TaskProgressCounterService;
+import javaweb.task_management_system.services.TaskProgressCounterServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+
+import java.time.Duration;
+import java.util.List;
+
+class TaskProgressCounterServiceTest {
+
+    @Mock
+    private TaskProgressCounterRepository counterRepository;
+
+    @InjectMocks
+    private TaskProgressCounterServiceImpl counterService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void incrementForTasks_shouldSkipEmptyCollections() {
+        // Act
+        counterService.incrementForTasks(List.of());
+        counterService.decrementForTasks(List.of());
+
+        // Assert
+        verifyNoInteractions(counterRepository);
+    }
+
+    @Test
+    void verifyAndRepair_shouldReportNoDrift_whenCountersMatch() {
+        // Arrange
+        when(counterRepository.findAllForUpdate(List.of(1L))).thenReturn(List.of(new TaskProgressCounterEntity(1L, 1L, 3)));
+        when(counterRepository.computeCountsFromTasks(List.of(1L))).thenReturn(List.of(counterView(1L, 1L, 3L)));
+
+        // Act
+        CounterDriftReportDTO report = counterService.verifyAndRepair(List.of(1L));
+
+        // Assert
+        assertEquals(1, report.getCheckedCounters());
+        assertEquals(0, report.getDriftedCounters());
+        verify(counterRepository, never()).adjust(any(), any(), anyLong());
+    }
+
+    @Test
+    void verifyAndRepair_shouldLockTheCountersFirst_andRepairByTheDifference() {
+        // Arrange
+        List<Long> userIds = List.of(1L, 2L, 3L);
+        when(counterRepository.findAllForUpdate(userIds)).thenReturn(List.of(
+                new TaskProgressCounterEntity(1L, 1L, 5),
+                new TaskProgressCounterEntity(2L, 1L, 2),
+                new TaskProgressCounterEntity(3L, 1L, 0)));
+        when(counterRepository.computeCountsFromTasks(userIds)).thenReturn(List.of(
+                counterView(1L, 1L, 3L),
+                counterView(1L, 2L, 4L)));
+
+        // Act
+        CounterDriftReportDTO report = counterService.verifyAndRepair(userIds);
+
+        // Assert
+        assertEquals(4, report.getCheckedCounters());
+        assertEquals(3, report.getDriftedCounters());
+        InOrder inOrder = inOrder(counterRepository);
+        inOrder.verify(counterRepository).findAllForUpdate(userIds);
+        inOrder.verify(counterRepository).computeCountsFromTasks(userIds);
+        verify(counterRepository).adjust(1L, 1L, -2);
+        verify(counterRepository).adjust(2L, 1L, -2);
+        verify(counterRepository).adjust(1L, 2L, 4);
+        verify(counterRepository, never()).adjust(eq(3L), any(), anyLong());
+        verify(counterRepository).deleteEmpty(userIds);
+    }
+
+    @Test
+    void repairJob_shouldOnlyRun_onTheNodeHoldingTheLease() {
+        // Arrange
+        TaskProgressCounterService service = mock(TaskProgressCounterService.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        JobLeaseService leaseService = mock(JobLeaseService.class);
+        TaskProgressCounterRepairJob job = new TaskProgressCounterRepairJob(service, userRepository, leaseService, Duration.ofHours(1));
+        when(leaseService.tryAcquire(anyString(), eq(Duration.ofHours(1)))).thenReturn(true, false);
+        when(userRepository.findIdsAfter(eq(0L), any())).thenReturn(List.of(1L, 2L));
+        when(service.verifyAndRepair(any())).thenReturn(new CounterDriftReportDTO(2, 0));
+
+        // Act
+        job.run();
+        job.run();
+
+        // Assert
+        verify(service, times(1)).verifyAndRepair(List.of(1L, 2L));
+    }
+
+    @Test
+    void repairJob_shouldRepairUsersChunkByChunk_andAddUpTheReports() {
+        // Arrange
+        TaskProgressCounterService service = mock(TaskProgressCounterService.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        TaskProgressCounterRepairJob job = new TaskProgressCounterRepairJob(service, userRepository,
+                mock(JobLeaseService.class), Duration.ofHours(1));
+        when(userRepository.findIdsAfter(eq(0L), any())).thenReturn(List.of(1L, 4L));
+        when(userRepository.findIdsAfter(eq(4L), any())).thenReturn(List.of(9L));
+        when(service.verifyAndRepair(List.of(1L, 4L))).thenReturn(new CounterDriftReportDTO(5, 1));
+        when(service.verifyAndRepair(List.of(9L))).thenReturn(new CounterDriftReportDTO(2, 2));
+
+        // Act
+        CounterDriftReportDTO report = job.verifyAndRepair();
+
+        // Assert
+        assertEquals(7, report.getCheckedCounters());
+        assertEquals(3, report.getDriftedCounters());
+        verify(userRepository).findIdsAfter(eq(9L), any());
+    }
+
+    private TaskProgressCounterRepository.CounterView counterView(Long userId, Long statusId, Long taskCount) {
+        return new TaskProgressCounterRepository.CounterView() {
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public Long getStatusId() {
+                return statusId;
+            }
+
+            @Override
+            public Long getTaskCount() {
+                return taskCount;
+            }
+        };
+    }
+}
@@ -0,0 +1,102 @@
+package javaweb.task_management_system.service;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import javaweb.task_management_system.dtos.ActionSuccessResponse;
+import javaweb.task_management_system.exceptions.ResourceNotFoundException;
+import javaweb.task_management_system.models.ProjectEntity;
+import javaweb.task_management_system.models.TaskEntity;
+import javaweb.task_management_system.models.TaskStatusEntity;
+import javaweb.task_management_system.models.UserEntity;
+import javaweb.task_management_system.repositories.ProjectRepository;
+import javaweb.task_management_system.repositories.TaskRepository;
+import javaweb.task_management_system.repositories.TaskStatusRepository;
+import javaweb.task_management_system.repositories.UserRepository;
+import javaweb.task_management_system.services.DataVersionService;
+import javaweb.task_management_system.services.NotificationService;
+import javaweb.task_management_system.services.TaskProgressCounterService;
+import javaweb.task_management_system.services.TaskServiceImpl;
+import javaweb.task_management_system.services.TokenService;
+import javaweb.task_management_system.utility.AuthenticatedUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+
+class TaskServiceTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private ProjectRepository projectRepository;
+
+    @Mock
+    private TaskStatusRepository taskStatusRepository;
+
+    @Mock
+    private TokenService tokenService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private TaskProgressCounterService progressCounterService;
+
+    @Mock
+    private DataVersionService dataVersionService;
+
+    @InjectMocks
+    private TaskServiceImpl taskService;
+
+    private ProjectEntity project;
+    private TaskStatusEntity status;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(tokenService.getCurrentUser()).thenReturn(new AuthenticatedUser(1L, "owner@example.com", 0b100));
+
+        project = new ProjectEntity("Test Project", "A description of the project", null);
+        project.setId(1L);
+        status = new TaskStatusEntity(1L);
+        when(projectRepository.findAllById(any())).thenReturn(List.of(project));
+        when(taskStatusRepository.findAllById(any())).thenReturn(List.of(status));
+    }
+
+    @Test
+    void addTasks_shouldTreatNullAssigneesAsNone() {
+        // Arrange
+        TaskEntity task = new TaskEntity("Task", project, status, LocalDateTime.now().plusDays(1));
+        task.setAssignee(null);
+
+        // Act
+        ActionSuccessResponse response = taskService.addTasks(List.of(task));
+
+        // Assert
+        assertEquals("Tasks added successfully! 1", response.getMessage());
+        assertTrue(task.getAssignees().isEmpty());
+        verify(userRepository, never()).findAllById(any());
+        verify(taskRepository).saveAll(List.of(task));
+    }
+
+    @Test
+    void addTasks_shouldThrowException_whenAnAssigneeIsNull() {
+        // Arrange
+        TaskEntity task = new TaskEntity("Task", project, status, LocalDateTime.now().plusDays(1));
+        HashSet<UserEntity> assignees = new HashSet<>();
+        assignees.add(null);
+        task.setAssignee(assignees);
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> taskService.addTasks(List.of(task)));
+        verify(taskRepository, never()).saveAll(any());
+    }
+}
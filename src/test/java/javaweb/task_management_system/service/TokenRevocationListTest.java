@@ -0,0 +1,104 @@
+package javaweb.task_management_system.service;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import javaweb.task_management_system.Benchmark;
+import javaweb.task_management_system.models.RevokedTokenEntity;
+import javaweb.task_management_system.repositories.RevokedTokenRepository;
+import javaweb.task_management_system.services.TokenRevocationList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+class TokenRevocationListTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationListTest.class);
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        revocationList = new TokenRevocationList(revokedTokenRepository, new SimpleMeterRegistry(), 100);
+    }
+
+    @Test
+    void revoke_shouldPersistTheJti_andRejectItRightAway() {
+        // Act
+        revocationList.revoke("revoked", Instant.now().plusSeconds(60));
+
+        // Assert
+        assertTrue(revocationList.isRevoked("revoked"));
+        assertFalse(revocationList.isRevoked("other"));
+        verify(revokedTokenRepository).save(argThat(row -> row.getJti().equals("revoked")));
+    }
+
+    @Test
+    void reload_shouldPickUpOtherNodes_andKeepLocalRevocationsUntilTheyExpire() {
+        // Arrange
+        revocationList.revoke("local", Instant.now().plusSeconds(60));
+        revocationList.revoke("expired", Instant.now().minusSeconds(1));
+        when(revokedTokenRepository.findActive(any(LocalDateTime.class)))
+                .thenReturn(List.of(new RevokedTokenEntity("remote", LocalDateTime.now().plusMinutes(1))));
+
+        // Act
+        revocationList.reload();
+
+        // Assert
+        assertTrue(revocationList.isRevoked("remote"));
+        assertTrue(revocationList.isRevoked("local"));
+        assertFalse(revocationList.isRevoked("expired"));
+        verify(revokedTokenRepository).deleteExpired(any(LocalDateTime.class));
+    }
+
+    @Test
+    void isRevoked_shouldNeverRejectAValidToken_whenTheListIsOverfull() {
+        // Arrange
+        for (int i = 0; i < 1_000; i++) {
+            revocationList.revoke("revoked-" + i, Instant.now().plusSeconds(60));
+        }
+
+        // Act & Assert
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(revocationList.isRevoked("revoked-" + i));
+            assertFalse(revocationList.isRevoked("valid-" + i));
+        }
+    }
+
+    @Benchmark
+    void benchmark_checkCostPerRequest() {
+        TokenRevocationList list = new TokenRevocationList(revokedTokenRepository, new SimpleMeterRegistry(), 10_000);
+        for (int i = 0; i < 10_000; i++) {
+            list.revoke(UUID.randomUUID().toString(), Instant.now().plusSeconds(900));
+        }
+        List<String> valid = IntStream.range(0, 100_000).mapToObj(i -> UUID.randomUUID().toString()).toList();
+
+        int falsePositives = 0;
+        for (String jti : valid) {
+            list.isRevoked(jti);
+        }
+        long started = System.nanoTime();
+        for (String jti : valid) {
+            if (list.isRevoked(jti)) {
+                falsePositives++;
+            }
+        }
+        long nanos = (System.nanoTime() - started) / valid.size();
+
+        logger.info("revocation check: {} ns per token, {} false positives", nanos, falsePositives);
+        assertEquals(0, falsePositives);
+    }
+}
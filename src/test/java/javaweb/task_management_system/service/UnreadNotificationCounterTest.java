@@ -0,0 +1,120 @@
+package javaweb.task_management_system.service;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import javaweb.task_management_system.models.NotificationUnreadCounterEntity;
+import javaweb.task_management_system.repositories.NotificationRepository;
+import javaweb.task_management_system.repositories.NotificationUnreadCounterRepository;
+import javaweb.task_management_system.repositories.UserRepository;
+import javaweb.task_management_system.services.JobLeaseService;
+import javaweb.task_management_system.services.NotificationStore;
+import javaweb.task_management_system.services.UnreadNotificationCounter;
+import javaweb.task_management_system.services.UnreadNotificationReconcileJob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+class UnreadNotificationCounterTest {
+
+    @Mock
+    private NotificationStore notificationStore;
+
+    @Mock
+    private NotificationUnreadCounterRepository counterRepository;
+
+    private UnreadNotificationCounter unreadCounter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        unreadCounter = new UnreadNotificationCounter(notificationStore, counterRepository);
+    }
+
+    @Test
+    void get_shouldReadTheStoredCount_andTreatAMissingRowAsZero() {
+        // Arrange
+        when(counterRepository.findUnreadCount(1L)).thenReturn(Optional.of(4L));
+        when(counterRepository.findUnreadCount(2L)).thenReturn(Optional.empty());
+        when(counterRepository.findUnreadCount(3L)).thenReturn(Optional.of(-1L));
+
+        // Act & Assert
+        assertEquals(4, unreadCounter.get(1L));
+        assertEquals(0, unreadCounter.get(2L));
+        assertEquals(0, unreadCounter.get(3L));
+        verifyNoInteractions(notificationStore);
+    }
+
+    @Test
+    void increment_shouldAdjustTheRow_andSkipEmptyChanges() {
+        // Act
+        unreadCounter.increment(1L, 3);
+        unreadCounter.decrement(1L);
+        unreadCounter.increment(1L, 0);
+
+        // Assert
+        verify(counterRepository).adjust(1L, 3);
+        verify(counterRepository).adjust(1L, -1);
+        verifyNoMoreInteractions(counterRepository);
+    }
+
+    @Test
+    void reconcile_shouldLockTheCountersFirst_andOnlyRewriteDriftedOnes() {
+        // Arrange
+        when(counterRepository.findAllForUpdate(List.of(1L, 2L, 3L))).thenReturn(List.of(
+                new NotificationUnreadCounterEntity(1L, 12),
+                new NotificationUnreadCounterEntity(2L, 3)));
+        when(notificationStore.countUnread(List.of(1L, 2L, 3L))).thenReturn(List.of(unreadCount(1L, 2L), unreadCount(2L, 3L)));
+
+        // Act
+        int drifted = unreadCounter.reconcile(List.of(1L, 2L, 3L));
+
+        // Assert
+        assertEquals(1, drifted);
+        InOrder inOrder = inOrder(counterRepository, notificationStore);
+        inOrder.verify(counterRepository).findAllForUpdate(anyCollection());
+        inOrder.verify(notificationStore).countUnread(anyCollection());
+        inOrder.verify(counterRepository).set(1L, 2L);
+        verify(counterRepository, never()).set(eq(2L), anyLong());
+        verify(counterRepository, never()).set(eq(3L), anyLong());
+    }
+
+    @Test
+    void reconcileJob_shouldWalkAllUsersInChunks_onTheNodeHoldingTheLease() {
+        // Arrange
+        UnreadNotificationCounter counter = mock(UnreadNotificationCounter.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        JobLeaseService leaseService = mock(JobLeaseService.class);
+        UnreadNotificationReconcileJob job = new UnreadNotificationReconcileJob(counter, userRepository, leaseService, Duration.ofHours(1));
+        when(leaseService.tryAcquire(anyString(), any())).thenReturn(true, false);
+        when(userRepository.findIdsAfter(eq(0L), any(Limit.class))).thenReturn(List.of(1L, 2L));
+        when(userRepository.findIdsAfter(eq(2L), any(Limit.class))).thenReturn(List.of());
+
+        // Act
+        job.run();
+        job.run();
+
+        // Assert
+        verify(counter, times(1)).reconcile(List.of(1L, 2L));
+        verify(userRepository, times(2)).findIdsAfter(anyLong(), any(Limit.class));
+    }
+
+    private NotificationRepository.UnreadCountView unreadCount(Long userId, Long unread) {
+        return new NotificationRepository.UnreadCountView() {
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public Long getUnreadCount() {
+                return unread;
+            }
+        };
+    }
+}
@@ -0,0 +1,189 @@
+package javaweb.task_management_system.utility;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.Cookie;
+import javaweb.task_management_system.Benchmark;
+import javaweb.task_management_system.exceptions.InvalidAction;
+import javaweb.task_management_system.repositories.RevokedTokenRepository;
+import javaweb.task_management_system.services.TokenRevocationList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import java.security.KeyPair;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.List;
+
+class JwtCookieFilterTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtCookieFilterTest.class);
+
+    @Mock
+    private JwtDecoder jwtDecoder;
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private VerifiedTokenCache tokenCache;
+    private TokenRevocationList revocationList;
+    private JwtCookieFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        tokenCache = new VerifiedTokenCache(meterRegistry, 100, 300);
+        revocationList = new TokenRevocationList(revokedTokenRepository, meterRegistry, 100);
+        filter = new JwtCookieFilter(jwtDecoder, tokenCache, revocationList);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_shouldVerifyATokenOnce_andReuseItsAuthorities() throws Exception {
+        // Arrange
+        when(jwtDecoder.decode("token")).thenReturn(jwt("token", Instant.now().plusSeconds(60)));
+
+        // Act
+        filter.doFilter(request("token"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(request("token"), new MockHttpServletResponse(), new MockFilterChain());
+
+        // Assert
+        verify(jwtDecoder, times(1)).decode("token");
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertEquals(List.of("ROLE_USER", "ROLE_PROJECT_OWNER"),
+                authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        assertEquals(7L, user.getId());
+        assertEquals("user@example.com", user.getEmail());
+        assertTrue(user.hasRole("PROJECT_OWNER"));
+        assertFalse(user.hasRole("ADMIN"));
+        assertEquals(0.5, meterRegistry.get("security.jwt.cache.hit-ratio").gauge().value());
+    }
+
+    @Test
+    void doFilter_shouldVerifyAgain_afterTheTokenIsInvalidatedOrExpired() throws Exception {
+        // Arrange
+        when(jwtDecoder.decode("token")).thenReturn(jwt("token", Instant.now().plusSeconds(60)));
+        when(jwtDecoder.decode("expiring")).thenReturn(jwt("expiring", Instant.now().minusSeconds(1)));
+
+        // Act
+        filter.doFilter(request("token"), new MockHttpServletResponse(), new MockFilterChain());
+        tokenCache.invalidate("token");
+        filter.doFilter(request("token"), new MockHttpServletResponse(), new MockFilterChain());
+        Jwt expiring = jwt("expiring", Instant.now().minusSeconds(1));
+        tokenCache.put("expiring", expiring, AuthenticatedUser.of(expiring));
+
+        // Assert
+        verify(jwtDecoder, times(2)).decode("token");
+        assertNull(tokenCache.get("expiring"));
+    }
+
+    @Test
+    void doFilter_shouldRejectARevokedToken_evenWhenItIsCached() throws Exception {
+        // Arrange
+        Jwt jwt = jwt("token", Instant.now().plusSeconds(60));
+        when(jwtDecoder.decode("token")).thenReturn(jwt);
+        filter.doFilter(request("token"), new MockHttpServletResponse(), new MockFilterChain());
+
+        // Act
+        revocationList.revoke(jwt.getId(), jwt.getExpiresAt());
+
+        // Assert
+        assertThrows(InvalidAction.class, () -> filter.doFilter(request("token"), new MockHttpServletResponse(), new MockFilterChain()));
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(jwtDecoder, times(1)).decode("token");
+    }
+
+    @Test
+    void doFilter_shouldLetLogoutThrough_whenTheAccessTokenExpired() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = request("expired");
+        request.setRequestURI("/api/auth/logout");
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertNotNull(chain.getRequest());
+        verifyNoInteractions(jwtDecoder);
+    }
+
+    @Benchmark
+    void benchmark_filterCostPerRequest() throws Exception {
+        KeyPair keys = KeyGeneratorUtility.generateRsaKey();
+        JwtEncoder encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(
+                new RSAKey.Builder((RSAPublicKey) keys.getPublic()).privateKey(keys.getPrivate()).build())));
+        JwtDecoder decoder = NimbusJwtDecoder.withPublicKey((RSAPublicKey) keys.getPublic()).build();
+        String token = encoder.encode(JwtEncoderParameters.from(JwtClaimsSet.builder()
+                .subject("user@example.com").issuedAt(Instant.now()).expiresAt(Instant.now().plusSeconds(900)).id("jti")
+                .claim(AuthenticatedUser.USER_ID_CLAIM, 7L).claim(AuthenticatedUser.ROLES_CLAIM, 0b10).build())).getTokenValue();
+
+        JwtCookieFilter uncached = new JwtCookieFilter(decoder, new VerifiedTokenCache(new SimpleMeterRegistry(), 0, 300), revocationList);
+        JwtCookieFilter cached = new JwtCookieFilter(decoder, new VerifiedTokenCache(new SimpleMeterRegistry(), 100, 300), revocationList);
+
+        int requests = 20_000;
+        long uncachedNanos = nanosPerRequest(uncached, token, requests);
+        long cachedNanos = nanosPerRequest(cached, token, requests);
+
+        logger.info("filter cost per request: without cache {} ns, with cache {} ns", uncachedNanos, cachedNanos);
+        assertTrue(cachedNanos < uncachedNanos);
+    }
+
+    private long nanosPerRequest(JwtCookieFilter filter, String token, int requests) throws Exception {
+        for (int i = 0; i < requests / 10; i++) {
+            filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+        }
+        return (System.nanoTime() - started) / requests;
+    }
+
+    private MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notifications");
+        request.setCookies(new Cookie("jwt", token));
+        return request;
+    }
+
+    private Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("user@example.com")
+                .jti("jti-" + token)
+                .claim(AuthenticatedUser.USER_ID_CLAIM, 7L)
+                .claim(AuthenticatedUser.ROLES_CLAIM, 0b110)
+                .issuedAt(expiresAt.minusSeconds(120))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
@@ -0,0 +1,163 @@
+package javaweb.task_management_system.utility;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import javaweb.task_management_system.Benchmark;
+import javaweb.task_management_system.configs.SecurityConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+class JwtKeysTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeysTest.class);
+
+    @TempDir
+    private Path keyDirectory;
+
+    @Test
+    void jwtKeys_shouldSignWithTheActiveKid_andPublishEveryKey() throws Exception {
+        // Arrange
+        writeKeyPair("2026-10", KeyGeneratorUtility.generateRsaKey(), true);
+        writeKeyPair("2026-11", KeyGeneratorUtility.generateRsaKey(), true);
+
+        // Act
+        JwtKeys keys = new JwtKeys(keyDirectory.toString(), "2026-11", "RS256");
+
+        // Assert
+        assertEquals("2026-11", keys.getSigningKey().getKeyID());
+        assertTrue(keys.getSigningKey().isPrivate());
+        assertEquals(List.of("2026-10", "2026-11"), keys.getVerificationKeys().getKeys().stream().map(key -> key.getKeyID()).toList());
+        assertTrue(keys.getVerificationKeys().getKeys().stream().noneMatch(key -> key.isPrivate()));
+    }
+
+    @Test
+    void jwtDecoder_shouldAcceptTokensOfTheRetiringKey_afterTheActiveKeyChanged() throws Exception {
+        // Arrange
+        KeyPair oldKey = KeyGeneratorUtility.generateRsaKey();
+        writeKeyPair("2026-10", oldKey, true);
+        String oldToken = sign(new JwtKeys(keyDirectory.toString(), "", "RS256"));
+
+        // the old key is kept as public only, a new key takes over signing
+        Files.delete(keyDirectory.resolve("2026-10.pem"));
+        writeKeyPair("2026-10", oldKey, false);
+        writeKeyPair("2026-11", KeyGeneratorUtility.generateRsaKey(), true);
+        JwtKeys rotated = new JwtKeys(keyDirectory.toString(), "2026-11", "RS256");
+        JwtDecoder decoder = new SecurityConfig(rotated, null, null).jwtDecoder();
+
+        // Act
+        String newToken = sign(rotated);
+
+        // Assert
+        assertEquals("2026-10", decoder.decode(oldToken).getHeaders().get("kid"));
+        assertEquals("2026-11", decoder.decode(newToken).getHeaders().get("kid"));
+    }
+
+    @Test
+    void jwtKeys_shouldRequireAnActiveKid_whenSeveralPrivateKeysExist() throws Exception {
+        // Arrange
+        writeKeyPair("a", KeyGeneratorUtility.generateRsaKey(), true);
+        writeKeyPair("b", KeyGeneratorUtility.generateRsaKey(), true);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> new JwtKeys(keyDirectory.toString(), "", "RS256"));
+        assertThrows(IllegalStateException.class, () -> new JwtKeys(keyDirectory.toString(), "missing", "RS256"));
+    }
+
+    @Test
+    void jwtDecoder_shouldAcceptRsaTokens_afterSwitchingToEs256() throws Exception {
+        // Arrange
+        KeyPair rsaKey = KeyGeneratorUtility.generateRsaKey();
+        writeKeyPair("2026-10", rsaKey, true);
+        String rsaToken = sign(new JwtKeys(keyDirectory.toString(), "", "RS256"));
+
+        Files.delete(keyDirectory.resolve("2026-10.pem"));
+        writeKeyPair("2026-10", rsaKey, false);
+        // an EC private key needs its public key next to it
+        KeyPair ecKey = KeyGeneratorUtility.generateEcKey();
+        writeKeyPair("2026-11", ecKey, true);
+        writeKeyPair("2026-11", ecKey, false);
+        JwtKeys rotated = new JwtKeys(keyDirectory.toString(), "2026-11", "ES256");
+        JwtDecoder decoder = new SecurityConfig(rotated, null, null).jwtDecoder();
+
+        // Act
+        String ecToken = sign(rotated);
+
+        // Assert
+        assertEquals("RS256", decoder.decode(rsaToken).getHeaders().get("alg").toString());
+        assertEquals("ES256", decoder.decode(ecToken).getHeaders().get("alg").toString());
+        assertEquals("2026-11", decoder.decode(ecToken).getHeaders().get("kid"));
+    }
+
+    @Test
+    void jwtKeys_shouldRejectEdDsa_andAKeyOfTheWrongType() throws Exception {
+        // Arrange
+        writeKeyPair("2026-10", KeyGeneratorUtility.generateRsaKey(), true);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> new JwtKeys("", "", "EdDSA"));
+        assertThrows(IllegalStateException.class, () -> new JwtKeys(keyDirectory.toString(), "", "ES256"));
+    }
+
+    @Benchmark
+    void benchmark_signAndVerifyPerAlgorithm() {
+        for (String algorithm : List.of("RS256", "ES256")) {
+            SecurityConfig config = new SecurityConfig(new JwtKeys("", "", algorithm), null, null);
+            JwtEncoder encoder = config.jwtEncoder();
+            JwtDecoder decoder = config.jwtDecoder();
+
+            int tokens = 2_000;
+            String token = null;
+            for (int i = 0; i < tokens / 10; i++) {
+                decoder.decode(token = sign(encoder));
+            }
+            long started = System.nanoTime();
+            for (int i = 0; i < tokens; i++) {
+                token = sign(encoder);
+            }
+            long signNanos = (System.nanoTime() - started) / tokens;
+            started = System.nanoTime();
+            for (int i = 0; i < tokens; i++) {
+                decoder.decode(token);
+            }
+            long verifyNanos = (System.nanoTime() - started) / tokens;
+
+            logger.info("{}: sign {} ns, verify {} ns, token {} bytes", algorithm, signNanos, verifyNanos, token.length());
+        }
+    }
+
+    private String sign(JwtKeys keys) {
+        return sign(new SecurityConfig(keys, null, null).jwtEncoder());
+    }
+
+    private String sign(JwtEncoder encoder) {
+        return encoder.encode(JwtEncoderParameters.from(JwtClaimsSet.builder()
+                .subject("user@example.com").issuedAt(Instant.now()).claim("roles", "ROLE_USER").build())).getTokenValue();
+    }
+
+    private void writeKeyPair(String kid, KeyPair pair, boolean withPrivateKey) throws Exception {
+        if (withPrivateKey) {
+            Files.writeString(keyDirectory.resolve(kid + ".pem"), pem("PRIVATE KEY", pair.getPrivate().getEncoded()));
+        } else {
+            Files.writeString(keyDirectory.resolve(kid + ".pub.pem"), pem("PUBLIC KEY", pair.getPublic().getEncoded()));
+        }
+    }
+
+    private String pem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes()).encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+    }
+}